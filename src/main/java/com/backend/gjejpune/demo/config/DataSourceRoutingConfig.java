@@ -0,0 +1,121 @@
+package com.backend.gjejpune.demo.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Replaces the single auto-configured DataSource with a read/write routing one when
+ * app.datasource.routing.enabled is set. The primary keeps using spring.datasource.*,
+ * replicas are listed under app.datasource.routing.replicas.
+ *
+ * Requires spring.jpa.open-in-view=false: an EntityManager held open for the whole request
+ * keeps the connection of its first transaction, so a later write could run on a replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceRoutingConfig.class);
+
+    private final List<DataSource> pools = new ArrayList<>();
+
+    private RecentWriteTracker recentWriteTracker;
+
+    @Bean
+    public RecentWriteTracker recentWriteTracker(DataSourceRoutingProperties routingProperties) {
+        recentWriteTracker = new RecentWriteTracker(routingProperties.getPinWindowMs());
+        return recentWriteTracker;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+            DataSourceRoutingProperties routingProperties,
+            RecentWriteTracker recentWriteTracker,
+            @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        requireOpenInViewDisabled(openInView);
+
+        DataSource primary = dataSourceProperties.initializeDataSourceBuilder().build();
+        pools.add(primary);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primary);
+
+        List<String> replicaKeys = new ArrayList<>();
+        List<DataSourceRoutingProperties.Replica> replicas = routingProperties.getReplicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            DataSourceRoutingProperties.Replica replica = replicas.get(i);
+            String driverClassName = replica.getDriverClassName() != null
+                    ? replica.getDriverClassName()
+                    : dataSourceProperties.getDriverClassName();
+            DataSource replicaDataSource = DataSourceBuilder.create()
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .driverClassName(driverClassName)
+                    .build();
+            pools.add(replicaDataSource);
+
+            String key = "replica-" + i;
+            targets.put(key, replicaDataSource);
+            replicaKeys.add(key);
+        }
+
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(replicaKeys, recentWriteTracker);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primary);
+        routingDataSource.afterPropertiesSet();
+
+        logger.info("Routing read-only transactions across {} replica(s), pin window {}ms",
+                replicaKeys.size(), routingProperties.getPinWindowMs());
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    static void requireOpenInViewDisabled(boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException(
+                    "app.datasource.routing.enabled requires spring.jpa.open-in-view=false, "
+                    + "otherwise a request keeps the connection of its first transaction");
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpiredPins() {
+        if (recentWriteTracker != null) {
+            recentWriteTracker.purgeExpired();
+        }
+    }
+
+    @PreDestroy
+    public void closePools() {
+        for (DataSource pool : pools) {
+            if (pool instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    logger.warn("Could not close data source pool. Error: {}", ex.getMessage());
+                }
+            }
+        }
+    }
+}
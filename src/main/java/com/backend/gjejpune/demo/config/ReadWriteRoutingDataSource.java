@@ -0,0 +1,72 @@
+package com.backend.gjejpune.demo.config;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.gjejpune.demo.security.services.UserDetailsImpl;
+
+/**
+ * Sends read-only transactions to the replicas in turn and everything else to the primary.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy so the lookup happens when the first
+ * statement runs, after the transaction's read-only flag is known. A user who committed a
+ * write within the pin window always reads from the primary, so they see their own changes.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys;
+    private final RecentWriteTracker recentWriteTracker;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(List<String> replicaKeys, RecentWriteTracker recentWriteTracker) {
+        this.replicaKeys = replicaKeys;
+        this.recentWriteTracker = recentWriteTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Statements outside a transaction (auto-commit reads) do not pin the user
+            if (userId != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recentWriteTracker.recordWrite(userId);
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+
+        if (replicaKeys.isEmpty() || (userId != null && recentWriteTracker.isPinned(userId))) {
+            logger.debug("Routing read of user {} to the primary", userId);
+            return PRIMARY;
+        }
+
+        String replica = replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+        logger.debug("Routing read of user {} to {}", userId, replica);
+        return replica;
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return userDetails.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.backend.gjejpune.demo.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers which users committed a write recently, so their reads can be pinned to the
+ * primary until the replicas have caught up
+ */
+public class RecentWriteTracker {
+
+    private final long windowNanos;
+    private final Map<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public RecentWriteTracker(long windowMs) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+    }
+
+    /**
+     * Record that a user just committed a write
+     */
+    public void recordWrite(Long userId) {
+        pinnedUntil.put(userId, System.nanoTime() + windowNanos);
+    }
+
+    /**
+     * Check whether a user's reads must still go to the primary
+     */
+    public boolean isPinned(Long userId) {
+        Long until = pinnedUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until > 0) {
+            pinnedUntil.remove(userId, until);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Drop expired entries of users who have not read since their last write
+     */
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        pinnedUntil.values().removeIf(until -> now - until > 0);
+    }
+}
@@ -2,8 +2,6 @@ package com.backend.gjejpune.demo.controllers;
 
 import java.util.List;
 import java.util.stream.Collectors;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 
 import jakarta.validation.Valid;
 
@@ -28,6 +26,9 @@ import com.backend.gjejpune.demo.payload.response.MessageResponse;
 import com.backend.gjejpune.demo.repository.UserRepository;
 import com.backend.gjejpune.demo.security.jwt.JwtUtils;
 import com.backend.gjejpune.demo.security.services.UserDetailsImpl;
+import com.backend.gjejpune.demo.service.AvatarService;
+import com.backend.gjejpune.demo.service.UserSearchIndexService;
+import com.backend.gjejpune.demo.service.UserSuggestService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +50,15 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    AvatarService avatarService;
+
+    @Autowired
+    UserSearchIndexService userSearchIndexService;
+
+    @Autowired
+    UserSuggestService userSuggestService;
+
     @PostMapping("/sign-in")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
 
@@ -89,15 +99,15 @@ public class AuthController {
                              signUpRequest.getEmail(),
                              encoder.encode(signUpRequest.getPassword()));
         
-        // Set default avatar using UI Avatars
-        String encodedName = URLEncoder.encode(user.getUsername(), StandardCharsets.UTF_8);
-        String avatarUrl = "https://ui-avatars.com/api/?name=" + encodedName + "&background=random";
-        user.setAvatarUrl(avatarUrl);
+        // Set default avatar rendered from the user's initials
+        user.setAvatarUrl(avatarService.getDefaultAvatarUrl(user.getUsername()));
         
         logger.info("Created new user {} with auto-generated avatar", user.getUsername());
 
         // Save user without roles
         userRepository.save(user);
+        userSearchIndexService.index(user);
+        userSuggestService.index(user);
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
@@ -0,0 +1,43 @@
+package com.backend.gjejpune.demo.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.backend.gjejpune.demo.security.services.UserDetailsImpl;
+import com.backend.gjejpune.demo.service.EventStreamService;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/events")
+public class EventStreamController {
+    
+    @Autowired
+    private EventStreamService eventStreamService;
+    
+    /**
+     * Open a Server-Sent Events stream of new posts by friends, likes and comments on the
+     * user's posts, and friend requests to the user
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Long currentUserId = userDetails.getId();
+        
+        SseEmitter emitter = eventStreamService.connect(currentUserId);
+        if (emitter == null) {
+            // This node is full; the client retries, possibly reaching another node
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -1,9 +1,12 @@
 package com.backend.gjejpune.demo.controllers;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +15,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.backend.gjejpune.demo.service.AvatarService;
 import com.backend.gjejpune.demo.service.FileStorageService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,11 +31,41 @@ public class FileController {
     @Autowired
     private FileStorageService fileStorageService;
     
+    @Autowired
+    private AvatarService avatarService;
+    
     @GetMapping("/{fileName:.+}")
     public ResponseEntity<Resource> downloadFile(@PathVariable String fileName, HttpServletRequest request) {
         // Load file as Resource
         Resource resource = fileStorageService.loadFileAsResource(fileName);
         
+        return serveResource(resource, fileName, request);
+    }
+    
+    @GetMapping("/{subDirectory}/{fileName:.+}")
+    public ResponseEntity<Resource> downloadFileFromSubDirectory(
+            @PathVariable String subDirectory,
+            @PathVariable String fileName,
+            HttpServletRequest request) {
+        if (subDirectory.contains("..") || fileName.contains("..")) {
+            throw new RuntimeException("File not found " + subDirectory + "/" + fileName);
+        }
+        
+        // Default avatars are named after their content, so they can be cached forever
+        if (AvatarService.AVATAR_DIRECTORY.equals(subDirectory)) {
+            byte[] avatar = avatarService.loadAvatar(fileName);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_PNG)
+                    .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                    .body(new ByteArrayResource(avatar));
+        }
+        
+        Resource resource = fileStorageService.loadFileAsResource(subDirectory + "/" + fileName);
+        
+        return serveResource(resource, subDirectory + "/" + fileName, request);
+    }
+    
+    private ResponseEntity<Resource> serveResource(Resource resource, String fileName, HttpServletRequest request) {
         // Try to determine file's content type
         String contentType = null;
         try {
@@ -10,16 +10,22 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.backend.gjejpune.demo.payload.response.MessageResponse;
 import com.backend.gjejpune.demo.security.services.UserDetailsImpl;
 import com.backend.gjejpune.demo.service.LikeService;
+import com.backend.gjejpune.demo.service.LikedPostCursor;
+import com.backend.gjejpune.demo.service.LikerCursor;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/likes")
 public class LikeController {
     
+    private static final int MAX_PAGE_SIZE = 30;
+    
     @Autowired
     private LikeService likeService;
     
@@ -48,15 +54,38 @@ public class LikeController {
     }
     
     /**
-     * Get all users who liked a post
+     * Get the users who liked a post, friends first, one cursor page at a time
      */
     @GetMapping("/posts/{postId}/users")
-    public ResponseEntity<?> getUsersWhoLikedPost(@PathVariable Long postId) {
+    public ResponseEntity<?> getUsersWhoLikedPost(
+            @PathVariable Long postId,
+            @RequestParam(defaultValue = "30") int size,
+            @RequestParam(required = false) String cursor) {
+        
+        // Validate and limit page size
+        if (size > MAX_PAGE_SIZE) {
+            size = MAX_PAGE_SIZE;
+        }
+        if (size < 1) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid page size."));
+        }
+        
+        LikerCursor likerCursor;
+        try {
+            likerCursor = cursor != null ? LikerCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid cursor."));
+        }
+        
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         Long currentUserId = userDetails.getId();
         
-        return likeService.getUsersWhoLikedPost(postId, currentUserId);
+        return likeService.getUsersWhoLikedPost(postId, likerCursor, size, currentUserId);
     }
     
     /**
@@ -72,15 +101,37 @@ public class LikeController {
     }
     
     /**
-     * Get posts liked by current user
+     * Get posts liked by current user, newest like first, one cursor page at a time
      */
     @GetMapping("/my-liked-posts")
-    public ResponseEntity<?> getPostsLikedByCurrentUser() {
+    public ResponseEntity<?> getPostsLikedByCurrentUser(
+            @RequestParam(defaultValue = "30") int size,
+            @RequestParam(required = false) String cursor) {
+        
+        // Validate and limit page size
+        if (size > MAX_PAGE_SIZE) {
+            size = MAX_PAGE_SIZE;
+        }
+        if (size < 1) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid page size."));
+        }
+        
+        LikedPostCursor likedPostCursor;
+        try {
+            likedPostCursor = cursor != null ? LikedPostCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid cursor."));
+        }
+        
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         Long currentUserId = userDetails.getId();
         
-        return likeService.getPostsLikedByCurrentUser(currentUserId);
+        return likeService.getPostsLikedByCurrentUser(likedPostCursor, size, currentUserId);
     }
     
     /**
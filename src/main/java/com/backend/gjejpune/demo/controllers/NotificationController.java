@@ -0,0 +1,69 @@
+package com.backend.gjejpune.demo.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.backend.gjejpune.demo.payload.response.MessageResponse;
+import com.backend.gjejpune.demo.payload.response.UnreadCountResponse;
+import com.backend.gjejpune.demo.security.services.UserDetailsImpl;
+import com.backend.gjejpune.demo.service.NotificationService;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/notifications")
+public class NotificationController {
+    
+    private static final int MAX_PAGE_SIZE = 50;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    // Get the current user's newest notifications, newest first, with the unread count
+    @GetMapping
+    public ResponseEntity<?> getNotifications(@RequestParam(defaultValue = "20") int size) {
+        
+        // Validate and limit page size
+        if (size > MAX_PAGE_SIZE) {
+            size = MAX_PAGE_SIZE;
+        }
+        if (size < 1) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid page size."));
+        }
+        
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Long currentUserId = userDetails.getId();
+        
+        return ResponseEntity.ok(notificationService.getNotifications(currentUserId, size));
+    }
+    
+    // Get the current user's number of unread notifications
+    @GetMapping("/unread-count")
+    public ResponseEntity<?> getUnreadCount() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Long currentUserId = userDetails.getId();
+        
+        return ResponseEntity.ok(new UnreadCountResponse(notificationService.getUnreadCount(currentUserId)));
+    }
+    
+    // Mark one notification read by its key, or all of them without one
+    @PostMapping("/read")
+    public ResponseEntity<?> markRead(@RequestParam(required = false) String key) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Long currentUserId = userDetails.getId();
+        
+        return ResponseEntity.ok(new UnreadCountResponse(notificationService.markRead(currentUserId, key)));
+    }
+}
@@ -21,7 +21,11 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.backend.gjejpune.demo.payload.request.PostRequest;
+import com.backend.gjejpune.demo.payload.response.MessageResponse;
 import com.backend.gjejpune.demo.security.services.UserDetailsImpl;
+import com.backend.gjejpune.demo.service.PostCursor;
+import com.backend.gjejpune.demo.service.FeedChangeMark;
+import com.backend.gjejpune.demo.service.FeedCursor;
 import com.backend.gjejpune.demo.service.PostService;
 
 import jakarta.validation.Valid;
@@ -40,6 +44,40 @@ public class PostController {
     // Get all posts (respecting privacy settings) with pagination
     @GetMapping
     public ResponseEntity<?> getAllPosts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "30") int size,
+            @RequestParam(required = false) String cursor) {
+        
+        // Validate and limit page size
+        if (size > MAX_PAGE_SIZE) {
+            size = MAX_PAGE_SIZE;
+        }
+        if (page < 0 || size < 1) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid page or size."));
+        }
+        
+        PostCursor postCursor;
+        try {
+            postCursor = cursor != null ? PostCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid cursor."));
+        }
+        
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Long currentUserId = userDetails.getId();
+        
+        return new ResponseEntity<>(postService.getAllPosts(page, size, postCursor, currentUserId), HttpStatus.OK);
+    }
+    
+    // Full-text search over post titles and content (respecting privacy settings) with pagination
+    @GetMapping("/search")
+    public ResponseEntity<?> searchPosts(
+            @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "30") int size) {
         
@@ -47,12 +85,17 @@ public class PostController {
         if (size > MAX_PAGE_SIZE) {
             size = MAX_PAGE_SIZE;
         }
+        if (page < 0 || size < 1) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid page or size."));
+        }
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         Long currentUserId = userDetails.getId();
         
-        return new ResponseEntity<>(postService.getAllPosts(page, size, currentUserId), HttpStatus.OK);
+        return postService.searchPosts(q, page, size, currentUserId);
     }
     
     // Get a single post by ID (respecting privacy settings)
@@ -88,18 +131,33 @@ public class PostController {
     public ResponseEntity<?> getPostsByUserId(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "30") int size) {
+            @RequestParam(defaultValue = "30") int size,
+            @RequestParam(required = false) String cursor) {
         
         // Validate and limit page size
         if (size > MAX_PAGE_SIZE) {
             size = MAX_PAGE_SIZE;
         }
+        if (page < 0 || size < 1) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid page or size."));
+        }
+        
+        PostCursor postCursor;
+        try {
+            postCursor = cursor != null ? PostCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid cursor."));
+        }
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         Long currentUserId = userDetails.getId();
         
-        return postService.getPostsByUserId(userId, page, size, currentUserId);
+        return postService.getPostsByUserId(userId, page, size, postCursor, currentUserId);
     }
     
     // Create a new post
@@ -153,22 +211,77 @@ public class PostController {
         return postService.updatePostWithImage(id, title, content, isPrivate, image, currentUserId);
     }
     
-    // Get feed posts (posts from friends)
+    // Get what changed in the feed since a mark returned by the previous call (or just the current mark)
+    @GetMapping("/feed/changes")
+    public ResponseEntity<?> getFeedChanges(@RequestParam(required = false) String since) {
+        FeedChangeMark mark;
+        try {
+            mark = since != null ? FeedChangeMark.decode(since) : null;
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid cursor."));
+        }
+        
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Long currentUserId = userDetails.getId();
+        
+        return postService.getFeedChanges(mark, currentUserId);
+    }
+    
+    // Get trending posts (most recent engagement, respecting privacy settings)
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingPosts(@RequestParam(defaultValue = "20") int size) {
+        
+        // Validate and limit page size
+        if (size > MAX_PAGE_SIZE) {
+            size = MAX_PAGE_SIZE;
+        }
+        if (size < 1) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid page size."));
+        }
+        
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Long currentUserId = userDetails.getId();
+        
+        return postService.getTrendingPosts(size, currentUserId);
+    }
+    
+    // Get feed posts (posts from friends); a ranked feed is paged by cursor, an unranked one by page number
     @GetMapping("/feed")
     public ResponseEntity<?> getFeedPosts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "30") int size) {
+            @RequestParam(defaultValue = "30") int size,
+            @RequestParam(required = false) String cursor) {
         
         // Validate and limit page size
         if (size > MAX_PAGE_SIZE) {
             size = MAX_PAGE_SIZE;
         }
+        if (page < 0 || size < 1) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid page or size."));
+        }
+        
+        FeedCursor feedCursor;
+        try {
+            feedCursor = cursor != null ? FeedCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid cursor."));
+        }
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         Long currentUserId = userDetails.getId();
         
-        return postService.getFeedPosts(page, size, currentUserId);
+        return postService.getFeedPosts(page, size, feedCursor, currentUserId);
     }
     
     // Delete a post
@@ -0,0 +1,39 @@
+package com.backend.gjejpune.demo.controllers;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.backend.gjejpune.demo.payload.response.CacheStatsResponse;
+import com.backend.gjejpune.demo.service.PersistenceStatsService;
+import com.backend.gjejpune.demo.service.UserCache;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+    
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private PersistenceStatsService persistenceStatsService;
+    
+    // Get hit ratio and eviction counters of the in-process caches
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        return ResponseEntity.ok(List.of(userCache.getStats()));
+    }
+    
+    // Get Hibernate statement counts and second-level / query cache hit counters
+    @GetMapping("/hibernate")
+    public ResponseEntity<Map<String, Object>> getHibernateStats() {
+        return ResponseEntity.ok(persistenceStatsService.getHibernateStats());
+    }
+}
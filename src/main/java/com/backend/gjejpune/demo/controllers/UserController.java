@@ -34,6 +34,7 @@ import org.slf4j.LoggerFactory;
 public class UserController {
     
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+    private static final int MAX_PAGE_SIZE = 30;
     
     @Autowired
     private UserService userService;
@@ -79,12 +80,31 @@ public class UserController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<?> searchUsers(@RequestParam String query) {
+    public ResponseEntity<?> searchUsers(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "30") int size) {
+        
+        // Validate and limit page size
+        if (size > MAX_PAGE_SIZE) {
+            size = MAX_PAGE_SIZE;
+        }
+        if (page < 0 || size < 1) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid page or size."));
+        }
+        
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         Long currentUserId = userDetails.getId();
         
-        return userService.searchUsers(query, currentUserId);
+        return userService.searchUsers(query, page, size, currentUserId);
+    }
+    
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestUsers(@RequestParam String prefix) {
+        return userService.suggestUsers(prefix);
     }
     
     @PostMapping("/change-password")
@@ -0,0 +1,63 @@
+package com.backend.gjejpune.demo.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A comment moved to cold storage together with its post
+ */
+@Entity
+@Table(name = "comments_archive",
+    indexes = {
+        @Index(name = "idx_comments_archive_post", columnList = "post_id")
+    })
+public class ArchivedComment {
+
+    @Id
+    private Long id;
+
+    @Column(length = 500)
+    private String content;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "post_id")
+    private Long postId;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    public ArchivedComment() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,50 @@
+package com.backend.gjejpune.demo.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A like moved to cold storage together with its post
+ */
+@Entity
+@Table(name = "likes_archive",
+    indexes = {
+        @Index(name = "idx_likes_archive_post_user", columnList = "post_id, user_id")
+    })
+public class ArchivedLike {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "post_id")
+    private Long postId;
+
+    private Instant createdAt;
+
+    public ArchivedLike() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
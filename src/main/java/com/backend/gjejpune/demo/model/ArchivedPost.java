@@ -0,0 +1,107 @@
+package com.backend.gjejpune.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A post moved out of the hot posts table by the archiver. Rows are inserted by a bulk copy
+ * from posts and read back as detached {@link Post} instances; the owner can still edit or
+ * delete them.
+ */
+@Entity
+@Table(name = "posts_archive",
+    indexes = {
+        @Index(name = "idx_posts_archive_user_created", columnList = "user_id, created_at")
+    })
+public class ArchivedPost {
+
+    @Id
+    private Long id;
+
+    @Column(length = 100)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String content;
+
+    @Column(columnDefinition = "TEXT")
+    private String imageUrl;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private boolean isPrivate;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    private LocalDateTime archivedAt;
+
+    public ArchivedPost() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public boolean isPrivate() {
+        return isPrivate;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    /**
+     * Take over the fields the owner can edit from a detached post
+     */
+    public void apply(Post post) {
+        this.title = post.getTitle();
+        this.content = post.getContent();
+        this.imageUrl = post.getImageUrl();
+        this.isPrivate = post.isPrivate();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Rebuild a detached post for API responses
+     */
+    public Post toPost(User user) {
+        Post post = new Post(title, content, imageUrl, user, isPrivate);
+        post.setId(id);
+        post.setCreatedAt(createdAt);
+        post.setUpdatedAt(updatedAt);
+        post.setArchived(true);
+        return post;
+    }
+}
@@ -2,6 +2,9 @@ package com.backend.gjejpune.demo.model;
 
 import java.time.Instant;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -19,6 +22,8 @@ import jakarta.persistence.UniqueConstraint;
     uniqueConstraints = {
         @UniqueConstraint(columnNames = {"requester_id", "addressee_id"})
     })
+// Friendship status drives visibility checks, so use strict read-write consistency
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "friendships")
 public class Friendship {
     
     public enum FriendshipStatus {
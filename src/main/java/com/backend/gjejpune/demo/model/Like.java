@@ -7,15 +7,21 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
 @Entity
+// Likers of a post and the posts a user liked are both listed newest like first
 @Table(name = "likes", 
     uniqueConstraints = {
         @UniqueConstraint(columnNames = {"user_id", "post_id"})
+    },
+    indexes = {
+        @Index(name = "idx_likes_post_id", columnList = "post_id, id"),
+        @Index(name = "idx_likes_user_created", columnList = "user_id, created_at")
     })
 public class Like {
     
@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -16,6 +18,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -25,7 +28,16 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "posts")
+// Keyset listings read (created_at, id) descending, per author or across all posts; the search
+// index catches up by update time
+@Table(name = "posts",
+    indexes = {
+        @Index(name = "idx_posts_user_created", columnList = "user_id, created_at"),
+        @Index(name = "idx_posts_created", columnList = "created_at"),
+        @Index(name = "idx_posts_updated", columnList = "updated_at")
+    })
+// Only the owner ever writes a post, so a briefly stale cached copy is acceptable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "posts")
 public class Post {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -70,6 +82,14 @@ public class Post {
     
     @Transient
     private boolean likedByCurrentUser;
+    
+    // Estimated number of distinct users who have seen the post
+    @Transient
+    private long uniqueViews;
+
+    // Set on posts served from the archive, which can no longer be liked or commented on but can still be edited or deleted by their owner
+    @Transient
+    private boolean archived;
 
     public Post() {
     }
@@ -199,6 +219,22 @@ public class Post {
     public void setLikedByCurrentUser(boolean likedByCurrentUser) {
         this.likedByCurrentUser = likedByCurrentUser;
     }
+    
+    public long getUniqueViews() {
+        return uniqueViews;
+    }
+    
+    public void setUniqueViews(long uniqueViews) {
+        this.uniqueViews = uniqueViews;
+    }
+
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public void setArchived(boolean archived) {
+        this.archived = archived;
+    }
 
     // Alias methods for compatibility with refactored code
     public void setLikeCount(long likeCount) {
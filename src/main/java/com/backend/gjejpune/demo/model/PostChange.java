@@ -0,0 +1,84 @@
+package com.backend.gjejpune.demo.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * One entry of the append-only log of post changes that feed delta sync reads.
+ * Rows are only inserted, and deleted once older than the retention period.
+ */
+@Entity
+// Clients read the changes of their feed's authors after an ID; old rows are pruned by age
+@Table(name = "post_changes",
+    indexes = {
+        @Index(name = "idx_post_changes_author_id", columnList = "author_id, id"),
+        @Index(name = "idx_post_changes_created", columnList = "created_at")
+    })
+public class PostChange {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // Likes or comments changed
+        ENGAGEMENT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ChangeType type;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public PostChange() {
+    }
+
+    /**
+     * An entry standing for all changes of a post read in one go
+     */
+    public PostChange(Long id, Long postId, ChangeType type) {
+        this.id = id;
+        this.postId = postId;
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,71 @@
+package com.backend.gjejpune.demo.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+/**
+ * Persisted HyperLogLog registers of the distinct viewers of a post. Not tied to the posts
+ * table, so the count survives the post being moved to the archive.
+ */
+@Entity
+@Table(name = "post_view_sketches")
+public class PostViewSketch {
+
+    @Id
+    private Long postId;
+
+    @Column(nullable = false, length = 4096)
+    private byte[] registers;
+
+    private Instant updatedAt;
+
+    // Nodes flushing the same post at once retry instead of overwriting each other
+    @Version
+    private Long version;
+
+    public PostViewSketch() {
+    }
+
+    public PostViewSketch(Long postId, byte[] registers) {
+        this.postId = postId;
+        this.registers = registers;
+        this.updatedAt = Instant.now();
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Long postId) {
+        this.postId = postId;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    public void setRegisters(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
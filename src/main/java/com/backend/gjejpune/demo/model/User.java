@@ -3,6 +3,9 @@ package com.backend.gjejpune.demo.model;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -17,6 +20,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
         @UniqueConstraint(columnNames = "username"),
         @UniqueConstraint(columnNames = "email") 
     })
+// Privacy flags live here, so readers must never see a stale copy after an update commits
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -62,8 +67,6 @@ public class User {
         this.username = username;
         this.email = email;
         this.password = password;
-        // Generate default avatar URL based on username
-        this.avatarUrl = "https://ui-avatars.com/api/?name=" + username + "&background=random";
     }
 
     public Long getId() {
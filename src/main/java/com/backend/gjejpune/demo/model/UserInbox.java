@@ -0,0 +1,82 @@
+package com.backend.gjejpune.demo.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+/**
+ * Persisted notification inbox of a user, stored as one row holding the encoded
+ * {@link com.backend.gjejpune.demo.notification.NotificationInbox} so that reading or
+ * writing a whole inbox is a single row.
+ */
+@Entity
+@Table(name = "user_inboxes")
+public class UserInbox {
+
+    @Id
+    private Long userId;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] entries;
+
+    private int unreadCount;
+
+    private Instant updatedAt;
+
+    // Nodes flushing the same inbox at once retry instead of overwriting each other
+    @Version
+    private Long version;
+
+    public UserInbox() {
+    }
+
+    public UserInbox(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public byte[] getEntries() {
+        return entries;
+    }
+
+    public void setEntries(byte[] entries) {
+        this.entries = entries;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
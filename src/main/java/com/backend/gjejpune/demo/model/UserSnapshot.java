@@ -0,0 +1,63 @@
+package com.backend.gjejpune.demo.model;
+
+/**
+ * Immutable copy of a user's row, safe to share between threads and requests.
+ * Unlike a {@link User} entity it is never attached to a persistence context.
+ */
+public final class UserSnapshot {
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final String fullName;
+    private final String bio;
+    private final String profileImageUrl;
+    private final boolean privateProfile;
+
+    private UserSnapshot(User user) {
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.email = user.getEmail();
+        this.password = user.getPassword();
+        this.fullName = user.getFullName();
+        this.bio = user.getBio();
+        this.profileImageUrl = user.getProfileImageUrl();
+        this.privateProfile = user.isPrivateProfile();
+    }
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getBio() {
+        return bio;
+    }
+
+    public String getProfileImageUrl() {
+        return profileImageUrl;
+    }
+
+    public boolean isPrivateProfile() {
+        return privateProfile;
+    }
+}
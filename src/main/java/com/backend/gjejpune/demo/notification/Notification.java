@@ -0,0 +1,110 @@
+package com.backend.gjejpune.demo.notification;
+
+/**
+ * One entry of a {@link NotificationInbox}: every event of one type about one target, collapsed
+ * so that forty likes of a post are a single "X and 39 others liked your post".
+ *
+ * Keeps the last few distinct actors for display and counts distinct actors among recent ones,
+ * so the same user liking and unliking repeatedly is counted once while they stay recent.
+ */
+public final class Notification {
+
+    public enum Type {
+        LIKE, COMMENT, FRIEND_REQUEST, FRIEND_ACCEPTED
+    }
+
+    static final int MAX_RECENT_ACTORS = 3;
+
+    private final Type type;
+    private final long targetId;
+    private long[] recentActorIds;
+    private int actorCount;
+    private boolean read;
+    private long updatedAt;
+
+    Notification(Type type, long targetId, long[] recentActorIds, int actorCount, boolean read, long updatedAt) {
+        this.type = type;
+        this.targetId = targetId;
+        this.recentActorIds = recentActorIds;
+        this.actorCount = actorCount;
+        this.read = read;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Get the key identifying the entry within an inbox, such as "like:42"
+     */
+    public static String keyOf(Type type, long targetId) {
+        return type.name().toLowerCase().replace('_', '-') + ":" + targetId;
+    }
+
+    public String getKey() {
+        return keyOf(type, targetId);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the post ID for likes and comments, or the friendship ID for friend requests
+     */
+    public long getTargetId() {
+        return targetId;
+    }
+
+    /**
+     * Get the most recent actors, newest first
+     */
+    public long[] getRecentActorIds() {
+        return recentActorIds.clone();
+    }
+
+    public int getActorCount() {
+        return actorCount;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    /**
+     * Get when the last event arrived, in epoch milliseconds
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    Notification copy() {
+        return new Notification(type, targetId, recentActorIds.clone(), actorCount, read, updatedAt);
+    }
+
+    void addActor(long actorId, long at) {
+        int index = indexOf(actorId);
+        long[] actors = new long[Math.min(MAX_RECENT_ACTORS, recentActorIds.length + (index < 0 ? 1 : 0))];
+        actors[0] = actorId;
+        for (int from = 0, to = 1; from < recentActorIds.length && to < actors.length; from++) {
+            if (from != index) {
+                actors[to++] = recentActorIds[from];
+            }
+        }
+        if (index < 0) {
+            actorCount++;
+        }
+        recentActorIds = actors;
+        updatedAt = Math.max(updatedAt, at);
+    }
+
+    void setRead(boolean read) {
+        this.read = read;
+    }
+
+    private int indexOf(long actorId) {
+        for (int i = 0; i < recentActorIds.length; i++) {
+            if (recentActorIds[i] == actorId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,173 @@
+package com.backend.gjejpune.demo.notification;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import com.backend.gjejpune.demo.notification.Notification.Type;
+
+/**
+ * The newest notifications of one user, capped at a fixed number of entries.
+ *
+ * Entries are kept oldest first, keyed by type and target, so an event about a target already
+ * in the inbox collapses into its entry and moves it to the front, and the oldest entry falls
+ * out when the inbox is full. The number of unread entries is kept as entries change, so reading
+ * it costs nothing. Not thread-safe.
+ */
+public final class NotificationInbox {
+
+    private static final byte FORMAT = 1;
+
+    private final int capacity;
+    private final LinkedHashMap<String, Notification> entries = new LinkedHashMap<>();
+    private int unreadCount;
+
+    public NotificationInbox(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Add an event, collapsing it into the entry for the same target and marking that entry unread
+     *
+     * @param at When the event happened, in epoch milliseconds
+     */
+    public void add(Type type, long targetId, long actorId, long at) {
+        String key = Notification.keyOf(type, targetId);
+        Notification entry = entries.remove(key);
+        if (entry == null) {
+            // Starts out read so it is counted as unread below
+            entry = new Notification(type, targetId, new long[0], 0, true, at);
+        }
+        if (entry.isRead()) {
+            entry.setRead(false);
+            unreadCount++;
+        }
+        entry.addActor(actorId, at);
+        entries.put(key, entry);
+        trim();
+    }
+
+    /**
+     * Mark one entry read, or every entry if the key is null
+     */
+    public void markRead(String key) {
+        if (key == null) {
+            for (Notification entry : entries.values()) {
+                entry.setRead(true);
+            }
+            unreadCount = 0;
+            return;
+        }
+        Notification entry = entries.get(key);
+        if (entry != null && !entry.isRead()) {
+            entry.setRead(true);
+            unreadCount--;
+        }
+    }
+
+    /**
+     * Drop the entry for a target, such as the likes and comments of a deleted post
+     */
+    public void remove(Type type, long targetId) {
+        Notification entry = entries.remove(Notification.keyOf(type, targetId));
+        if (entry != null && !entry.isRead()) {
+            unreadCount--;
+        }
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    /**
+     * Get copies of the newest entries, newest first
+     */
+    public List<Notification> newest(int limit) {
+        List<Notification> copies = new ArrayList<>(Math.min(limit, entries.size()));
+        int skip = entries.size() - limit;
+        for (Notification entry : entries.values()) {
+            if (skip-- <= 0) {
+                copies.add(entry.copy());
+            }
+        }
+        Collections.reverse(copies);
+        return copies;
+    }
+
+    public byte[] toBytes() {
+        int size = 1 + 4;
+        for (Notification entry : entries.values()) {
+            size += 1 + 8 + 4 + 1 + 8 + 1 + 8 * entry.getRecentActorIds().length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(FORMAT);
+        buffer.putInt(entries.size());
+        for (Notification entry : entries.values()) {
+            long[] actors = entry.getRecentActorIds();
+            buffer.put((byte) entry.getType().ordinal());
+            buffer.putLong(entry.getTargetId());
+            buffer.putInt(entry.getActorCount());
+            buffer.put((byte) (entry.isRead() ? 1 : 0));
+            buffer.putLong(entry.getUpdatedAt());
+            buffer.put((byte) actors.length);
+            for (long actorId : actors) {
+                buffer.putLong(actorId);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Read an inbox written by {@link #toBytes()}, keeping the newest entries that fit
+     *
+     * @throws IllegalArgumentException If the bytes are not a stored inbox
+     */
+    public static NotificationInbox fromBytes(byte[] bytes, int capacity) {
+        NotificationInbox inbox = new NotificationInbox(capacity);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.get() != FORMAT) {
+                throw new IllegalArgumentException("Unknown notification inbox format");
+            }
+            int count = buffer.getInt();
+            Type[] types = Type.values();
+            for (int i = 0; i < count; i++) {
+                Type type = types[buffer.get()];
+                long targetId = buffer.getLong();
+                int actorCount = buffer.getInt();
+                boolean read = buffer.get() != 0;
+                long updatedAt = buffer.getLong();
+                long[] actors = new long[buffer.get()];
+                for (int a = 0; a < actors.length; a++) {
+                    actors[a] = buffer.getLong();
+                }
+                inbox.entries.put(Notification.keyOf(type, targetId),
+                        new Notification(type, targetId, actors, actorCount, read, updatedAt));
+                if (!read) {
+                    inbox.unreadCount++;
+                }
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException ex) {
+            throw new IllegalArgumentException("Corrupt notification inbox", ex);
+        }
+
+        inbox.trim();
+        return inbox;
+    }
+
+    // Drop the oldest entries beyond the capacity
+    private void trim() {
+        Iterator<Notification> oldest = entries.values().iterator();
+        while (entries.size() > capacity) {
+            if (!oldest.next().isRead()) {
+                unreadCount--;
+            }
+            oldest.remove();
+        }
+    }
+}
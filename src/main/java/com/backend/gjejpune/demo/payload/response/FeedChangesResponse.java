@@ -0,0 +1,47 @@
+package com.backend.gjejpune.demo.payload.response;
+
+import java.util.List;
+
+import com.backend.gjejpune.demo.model.Post;
+
+public class FeedChangesResponse {
+    // New or edited posts, with their metadata
+    private final List<Post> posts;
+    // Posts to drop: deleted, or no longer visible to the user
+    private final List<Long> deletedIds;
+    // Current counts of posts whose likes or comments changed
+    private final List<PostCountersResponse> counters;
+    // Pass as since on the next call
+    private final String nextSince;
+    // The changes since the given mark are no longer all known; refetch the feed instead
+    private final boolean reset;
+
+    public FeedChangesResponse(List<Post> posts, List<Long> deletedIds, List<PostCountersResponse> counters,
+            String nextSince, boolean reset) {
+        this.posts = posts;
+        this.deletedIds = deletedIds;
+        this.counters = counters;
+        this.nextSince = nextSince;
+        this.reset = reset;
+    }
+
+    public List<Post> getPosts() {
+        return posts;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public List<PostCountersResponse> getCounters() {
+        return counters;
+    }
+
+    public String getNextSince() {
+        return nextSince;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+}
@@ -0,0 +1,31 @@
+package com.backend.gjejpune.demo.payload.response;
+
+public class LikeStatusResponse {
+    private final String message;
+    private final Long postId;
+    private final boolean liked;
+    private final long likesCount;
+
+    public LikeStatusResponse(String message, Long postId, boolean liked, long likesCount) {
+        this.message = message;
+        this.postId = postId;
+        this.liked = liked;
+        this.likesCount = likesCount;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public boolean isLiked() {
+        return liked;
+    }
+
+    public long getLikesCount() {
+        return likesCount;
+    }
+}
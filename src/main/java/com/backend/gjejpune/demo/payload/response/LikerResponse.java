@@ -0,0 +1,31 @@
+package com.backend.gjejpune.demo.payload.response;
+
+public class LikerResponse {
+    private final Long id;
+    private final String username;
+    private final String avatarUrl;
+    private final boolean friend;
+
+    public LikerResponse(Long id, String username, String avatarUrl, boolean friend) {
+        this.id = id;
+        this.username = username;
+        this.avatarUrl = avatarUrl;
+        this.friend = friend;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getAvatarUrl() {
+        return avatarUrl;
+    }
+
+    public boolean isFriend() {
+        return friend;
+    }
+}
@@ -0,0 +1,74 @@
+package com.backend.gjejpune.demo.payload.response;
+
+import java.time.Instant;
+
+public class NotificationResponse {
+    // Identifies the notification when marking it read, such as "like:42"
+    private final String key;
+    // like, comment, friend-request or friend-accepted
+    private final String type;
+    private final Long postId;
+    private final Long friendshipId;
+    // The most recent user behind the notification
+    private final Long actorId;
+    private final String actorUsername;
+    private final String actorAvatarUrl;
+    // How many other users did the same, as in "X and 40 others liked your post"
+    private final int othersCount;
+    private final boolean read;
+    private final Instant updatedAt;
+
+    public NotificationResponse(String key, String type, Long postId, Long friendshipId, Long actorId,
+            String actorUsername, String actorAvatarUrl, int othersCount, boolean read, Instant updatedAt) {
+        this.key = key;
+        this.type = type;
+        this.postId = postId;
+        this.friendshipId = friendshipId;
+        this.actorId = actorId;
+        this.actorUsername = actorUsername;
+        this.actorAvatarUrl = actorAvatarUrl;
+        this.othersCount = othersCount;
+        this.read = read;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public Long getFriendshipId() {
+        return friendshipId;
+    }
+
+    public Long getActorId() {
+        return actorId;
+    }
+
+    public String getActorUsername() {
+        return actorUsername;
+    }
+
+    public String getActorAvatarUrl() {
+        return actorAvatarUrl;
+    }
+
+    public int getOthersCount() {
+        return othersCount;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
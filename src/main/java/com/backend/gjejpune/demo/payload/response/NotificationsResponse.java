@@ -0,0 +1,22 @@
+package com.backend.gjejpune.demo.payload.response;
+
+import java.util.List;
+
+public class NotificationsResponse {
+    // Newest first
+    private final List<NotificationResponse> notifications;
+    private final int unreadCount;
+
+    public NotificationsResponse(List<NotificationResponse> notifications, int unreadCount) {
+        this.notifications = notifications;
+        this.unreadCount = unreadCount;
+    }
+
+    public List<NotificationResponse> getNotifications() {
+        return notifications;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+}
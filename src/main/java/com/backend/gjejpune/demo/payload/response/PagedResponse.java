@@ -10,6 +10,10 @@ public class PagedResponse<T> {
     private int totalPages;
     private boolean last;
     private String nextPageUrl;
+    // True when totalElements and totalPages come from a cached estimate rather than a count
+    private boolean totalsApproximate;
+    // Resume token for cursor-paged listings, null on the last page
+    private String nextCursor;
 
     public PagedResponse() {
     }
@@ -89,4 +93,20 @@ public class PagedResponse<T> {
     public void setNextPageUrl(String nextPageUrl) {
         this.nextPageUrl = nextPageUrl;
     }
+
+    public boolean isTotalsApproximate() {
+        return totalsApproximate;
+    }
+
+    public void setTotalsApproximate(boolean totalsApproximate) {
+        this.totalsApproximate = totalsApproximate;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 } 
\ No newline at end of file
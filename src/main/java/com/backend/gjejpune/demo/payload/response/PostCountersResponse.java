@@ -0,0 +1,25 @@
+package com.backend.gjejpune.demo.payload.response;
+
+public class PostCountersResponse {
+    private final Long postId;
+    private final long likesCount;
+    private final long commentsCount;
+
+    public PostCountersResponse(Long postId, long likesCount, long commentsCount) {
+        this.postId = postId;
+        this.likesCount = likesCount;
+        this.commentsCount = commentsCount;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public long getLikesCount() {
+        return likesCount;
+    }
+
+    public long getCommentsCount() {
+        return commentsCount;
+    }
+}
@@ -0,0 +1,70 @@
+package com.backend.gjejpune.demo.payload.response;
+
+import java.time.Instant;
+
+/**
+ * An event pushed to connected clients. Only the IDs are sent; clients fetch what they need to show.
+ */
+public class StreamEvent {
+    public static final String NEW_POST = "new-post";
+    public static final String LIKE = "like";
+    public static final String COMMENT = "comment";
+    public static final String FRIEND_REQUEST = "friend-request";
+
+    private final String type;
+    // The user who caused the event
+    private final Long userId;
+    private final Long postId;
+    private final Long commentId;
+    private final Long friendshipId;
+    private final Instant createdAt;
+
+    private StreamEvent(String type, Long userId, Long postId, Long commentId, Long friendshipId) {
+        this.type = type;
+        this.userId = userId;
+        this.postId = postId;
+        this.commentId = commentId;
+        this.friendshipId = friendshipId;
+        this.createdAt = Instant.now();
+    }
+
+    public static StreamEvent newPost(Long authorId, Long postId) {
+        return new StreamEvent(NEW_POST, authorId, postId, null, null);
+    }
+
+    public static StreamEvent like(Long userId, Long postId) {
+        return new StreamEvent(LIKE, userId, postId, null, null);
+    }
+
+    public static StreamEvent comment(Long userId, Long postId, Long commentId) {
+        return new StreamEvent(COMMENT, userId, postId, commentId, null);
+    }
+
+    public static StreamEvent friendRequest(Long requesterId, Long friendshipId) {
+        return new StreamEvent(FRIEND_REQUEST, requesterId, null, null, friendshipId);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public Long getCommentId() {
+        return commentId;
+    }
+
+    public Long getFriendshipId() {
+        return friendshipId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
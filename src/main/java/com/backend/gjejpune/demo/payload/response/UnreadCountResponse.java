@@ -0,0 +1,13 @@
+package com.backend.gjejpune.demo.payload.response;
+
+public class UnreadCountResponse {
+    private final int unreadCount;
+
+    public UnreadCountResponse(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+}
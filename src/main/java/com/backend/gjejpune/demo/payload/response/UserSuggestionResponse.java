@@ -0,0 +1,31 @@
+package com.backend.gjejpune.demo.payload.response;
+
+public class UserSuggestionResponse {
+    private final Long id;
+    private final String username;
+    private final String fullName;
+    private final String profileImageUrl;
+
+    public UserSuggestionResponse(Long id, String username, String fullName, String profileImageUrl) {
+        this.id = id;
+        this.username = username;
+        this.fullName = fullName;
+        this.profileImageUrl = profileImageUrl;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getProfileImageUrl() {
+        return profileImageUrl;
+    }
+}
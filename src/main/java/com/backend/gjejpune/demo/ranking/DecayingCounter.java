@@ -0,0 +1,29 @@
+package com.backend.gjejpune.demo.ranking;
+
+/**
+ * A count whose value halves every half-life, so it measures how much happened recently.
+ * Only the value and the time of the last change are stored; decay is applied when read.
+ */
+public class DecayingCounter {
+
+    private final double halfLifeMillis;
+    private double value;
+    private long updatedAt;
+
+    public DecayingCounter(long halfLifeMillis) {
+        this.halfLifeMillis = halfLifeMillis;
+    }
+
+    public synchronized void add(double amount, long now) {
+        value = valueAt(now) + amount;
+        updatedAt = Math.max(updatedAt, now);
+    }
+
+    public synchronized double valueAt(long now) {
+        if (value == 0) {
+            return 0;
+        }
+        long elapsed = Math.max(0, now - updatedAt);
+        return value * Math.pow(0.5, elapsed / halfLifeMillis);
+    }
+}
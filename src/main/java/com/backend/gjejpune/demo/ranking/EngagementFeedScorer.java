@@ -0,0 +1,31 @@
+package com.backend.gjejpune.demo.ranking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Blends engagement velocity and affinity with the author, then lets the score fall with
+ * the post's age, so a fresh post with little engagement can still outrank an old popular one
+ */
+@Component("engagement")
+public class EngagementFeedScorer implements FeedScorer {
+
+    @Value("${feed.ranking.weight.like:1.0}")
+    private double likeWeight;
+
+    @Value("${feed.ranking.weight.comment:2.0}")
+    private double commentWeight;
+
+    @Value("${feed.ranking.weight.affinity:0.5}")
+    private double affinityWeight;
+
+    @Value("${feed.ranking.gravity:1.5}")
+    private double gravity;
+
+    @Override
+    public double score(FeedCandidate candidate) {
+        double engagement = 1 + likeWeight * candidate.getLikeVelocity() + commentWeight * candidate.getCommentVelocity();
+        double affinity = 1 + affinityWeight * candidate.getAffinity();
+        return engagement * affinity / Math.pow(candidate.getAgeHours() + 2, gravity);
+    }
+}
@@ -0,0 +1,50 @@
+package com.backend.gjejpune.demo.ranking;
+
+/**
+ * Features of one post in a feed, as seen by one viewer, passed to a {@link FeedScorer}
+ */
+public final class FeedCandidate {
+    private final long postId;
+    private final long authorId;
+    private final double ageHours;
+    private final double likeVelocity;
+    private final double commentVelocity;
+    private final double affinity;
+
+    public FeedCandidate(long postId, long authorId, double ageHours, double likeVelocity,
+            double commentVelocity, double affinity) {
+        this.postId = postId;
+        this.authorId = authorId;
+        this.ageHours = ageHours;
+        this.likeVelocity = likeVelocity;
+        this.commentVelocity = commentVelocity;
+        this.affinity = affinity;
+    }
+
+    public long getPostId() {
+        return postId;
+    }
+
+    public long getAuthorId() {
+        return authorId;
+    }
+
+    public double getAgeHours() {
+        return ageHours;
+    }
+
+    // Recent likes, each one counting less the older it is
+    public double getLikeVelocity() {
+        return likeVelocity;
+    }
+
+    // Recent comments, each one counting less the older it is
+    public double getCommentVelocity() {
+        return commentVelocity;
+    }
+
+    // How much the viewer has recently interacted with the author
+    public double getAffinity() {
+        return affinity;
+    }
+}
@@ -0,0 +1,12 @@
+package com.backend.gjejpune.demo.ranking;
+
+/**
+ * Scores a feed post for a viewer; higher scores are shown first.
+ *
+ * Implementations are Spring beans, and the one named by {@code feed.ranking.scorer} is used.
+ * Scoring runs for every candidate on every feed request, so it must not do any I/O.
+ */
+public interface FeedScorer {
+
+    double score(FeedCandidate candidate);
+}
@@ -0,0 +1,15 @@
+package com.backend.gjejpune.demo.ranking;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Newest first, the same order as an unranked feed
+ */
+@Component("recent")
+public class RecencyFeedScorer implements FeedScorer {
+
+    @Override
+    public double score(FeedCandidate candidate) {
+        return -candidate.getAgeHours();
+    }
+}
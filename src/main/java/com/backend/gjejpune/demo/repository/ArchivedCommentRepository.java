@@ -0,0 +1,34 @@
+package com.backend.gjejpune.demo.repository;
+
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.backend.gjejpune.demo.model.ArchivedComment;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface ArchivedCommentRepository extends JpaRepository<ArchivedComment, Long> {
+
+    long countByPostId(Long postId);
+
+    // Remove the comments of a deleted archived post
+    @Modifying
+    @Query("DELETE FROM ArchivedComment c WHERE c.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+
+    // Copy the comments of the given posts from the hot table
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "comments_archive"))
+    @Query(value = "INSERT INTO comments_archive (id, content, user_id, post_id, created_at, updated_at) "
+                 + "SELECT id, content, user_id, post_id, created_at, updated_at FROM comments WHERE post_id IN :postIds",
+           nativeQuery = true)
+    int copyFromComments(@Param("postIds") List<Long> postIds);
+}
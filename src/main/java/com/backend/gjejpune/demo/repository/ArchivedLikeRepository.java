@@ -0,0 +1,36 @@
+package com.backend.gjejpune.demo.repository;
+
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.backend.gjejpune.demo.model.ArchivedLike;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface ArchivedLikeRepository extends JpaRepository<ArchivedLike, Long> {
+
+    long countByPostId(Long postId);
+
+    boolean existsByUserIdAndPostId(Long userId, Long postId);
+
+    // Remove the likes of a deleted archived post
+    @Modifying
+    @Query("DELETE FROM ArchivedLike l WHERE l.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+
+    // Copy the likes of the given posts from the hot table
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "likes_archive"))
+    @Query(value = "INSERT INTO likes_archive (id, user_id, post_id, created_at) "
+                 + "SELECT id, user_id, post_id, created_at FROM likes WHERE post_id IN :postIds",
+           nativeQuery = true)
+    int copyFromLikes(@Param("postIds") List<Long> postIds);
+}
@@ -0,0 +1,50 @@
+package com.backend.gjejpune.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.backend.gjejpune.demo.model.ArchivedPost;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface ArchivedPostRepository extends JpaRepository<ArchivedPost, Long> {
+
+    long countByUserId(Long userId);
+
+    // Archived posts of a user, newest first, from an arbitrary row offset
+    @Query(value = "SELECT * FROM posts_archive WHERE user_id = :userId ORDER BY created_at DESC, id DESC LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<ArchivedPost> findByUserIdNewestFirst(@Param("userId") Long userId, @Param("offset") long offset, @Param("limit") int limit);
+
+    // Keyset batches ordered by (createdAt, id) descending, used by the fill-to-size pager
+    @Query("SELECT a FROM ArchivedPost a WHERE a.userId = :userId ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArchivedPost> findNewestByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT a FROM ArchivedPost a WHERE a.userId = :userId "
+         + "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) "
+         + "ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArchivedPost> findOlderThanByUserId(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Pageable pageable);
+
+    // Copy posts from the hot table. The native space hint keeps Hibernate from clearing every cache region.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "posts_archive"))
+    @Query(value = "INSERT INTO posts_archive (id, title, content, image_url, created_at, updated_at, is_private, user_id, archived_at) "
+                 + "SELECT id, title, content, image_url, created_at, updated_at, is_private, user_id, :archivedAt FROM posts WHERE id IN :postIds",
+           nativeQuery = true)
+    int copyFromPosts(@Param("postIds") List<Long> postIds, @Param("archivedAt") LocalDateTime archivedAt);
+
+    // Stream (id, imageUrl) pairs in id order, used by the upload garbage collector
+    @Query("SELECT p.id, p.imageUrl FROM ArchivedPost p WHERE p.id > :afterId AND p.imageUrl IS NOT NULL ORDER BY p.id")
+    List<Object[]> findImageUrlsAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
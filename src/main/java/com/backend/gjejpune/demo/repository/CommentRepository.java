@@ -1,10 +1,15 @@
 package com.backend.gjejpune.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.backend.gjejpune.demo.model.Comment;
@@ -26,6 +31,28 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     // Find all comments by a user with pagination
     Page<Comment> findByUser(User user, Pageable pageable);
     
+    // Find all comments by a user id with pagination
+    Page<Comment> findByUserId(Long userId, Pageable pageable);
+    
+    // Count-free variants: fetch one extra row to tell whether there is a next page
+    Slice<Comment> findSliceByPostId(Long postId, Pageable pageable);
+    
+    Slice<Comment> findSliceByUserId(Long userId, Pageable pageable);
+    
+    long countByUserId(Long userId);
+    
     // Count comments for a post
     long countByPost(Post post);
-} 
\ No newline at end of file
+    
+    // Count comments for a post by id
+    long countByPostId(Long postId);
+    
+    // (postId, comment count) pairs for a batch of posts
+    @Query("SELECT c.post.id, COUNT(c) FROM Comment c WHERE c.post.id IN :postIds GROUP BY c.post.id")
+    List<Object[]> countGroupedByPostId(@Param("postIds") Collection<Long> postIds);
+    
+    // Remove the comments of archived posts
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.post.id IN :postIds")
+    int deleteByPostIdIn(@Param("postIds") List<Long> postIds);
+}
@@ -3,8 +3,10 @@ package com.backend.gjejpune.demo.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,10 +14,15 @@ import com.backend.gjejpune.demo.model.Friendship;
 import com.backend.gjejpune.demo.model.Friendship.FriendshipStatus;
 import com.backend.gjejpune.demo.model.User;
 
+import jakarta.persistence.QueryHint;
+
+// Lookups used on every visibility check are served from the Hibernate query cache;
+// any write to the friendships table invalidates them
 @Repository
 public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
     
     // Find friendship between two users (in either direction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT f FROM Friendship f WHERE " +
            "(f.requester = :user1 AND f.addressee = :user2) OR " +
            "(f.requester = :user2 AND f.addressee = :user1)")
@@ -34,9 +41,35 @@ public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
            "f.status = 'ACCEPTED'")
     List<Friendship> findAcceptedFriendshipsForUser(@Param("user") User user);
     
+    // Check whether two users are accepted friends (in either direction) by id
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT CASE WHEN COUNT(f) > 0 THEN true ELSE false END FROM Friendship f WHERE " +
+           "((f.requester.id = :userId1 AND f.addressee.id = :userId2) OR " +
+           "(f.requester.id = :userId2 AND f.addressee.id = :userId1)) AND " +
+           "f.status = 'ACCEPTED'")
+    boolean existsAcceptedBetween(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+    
+    // Find the ids of all accepted friends of a user without loading the friendships
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT CASE WHEN f.requester.id = :userId THEN f.addressee.id ELSE f.requester.id END " +
+           "FROM Friendship f WHERE " +
+           "(f.requester.id = :userId OR f.addressee.id = :userId) AND " +
+           "f.status = 'ACCEPTED'")
+    List<Long> findAcceptedFriendIds(@Param("userId") Long userId);
+    
     // Find all pending friend requests sent by user
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Friendship> findByRequesterAndStatus(User requester, FriendshipStatus status);
     
     // Find all pending friend requests received by user
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Friendship> findByAddresseeAndStatus(User addressee, FriendshipStatus status);
+    
+    // Count accepted friendships per requester, as (userId, count) rows
+    @Query("SELECT f.requester.id, COUNT(f) FROM Friendship f WHERE f.status = 'ACCEPTED' GROUP BY f.requester.id")
+    List<Object[]> countAcceptedByRequester();
+    
+    // Count accepted friendships per addressee, as (userId, count) rows
+    @Query("SELECT f.addressee.id, COUNT(f) FROM Friendship f WHERE f.status = 'ACCEPTED' GROUP BY f.addressee.id")
+    List<Object[]> countAcceptedByAddressee();
 } 
\ No newline at end of file
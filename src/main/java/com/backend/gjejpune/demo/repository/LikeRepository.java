@@ -1,10 +1,16 @@
 package com.backend.gjejpune.demo.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,9 +18,16 @@ import com.backend.gjejpune.demo.model.Like;
 import com.backend.gjejpune.demo.model.Post;
 import com.backend.gjejpune.demo.model.User;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface LikeRepository extends JpaRepository<Like, Long> {
     
+    // Visibility of a liked post to the liker, checked in the query itself
+    String VISIBLE_TO_LIKER = "(a.id = :userId OR (p.isPrivate = false AND a.isPrivateProfile = false) OR EXISTS ("
+            + "SELECT f FROM Friendship f WHERE f.status = 'ACCEPTED' AND "
+            + "((f.requester.id = :userId AND f.addressee.id = a.id) OR (f.requester.id = a.id AND f.addressee.id = :userId))))";
+    
     // Find like by user and post
     Optional<Like> findByUserAndPost(User user, Post post);
     
@@ -30,11 +43,92 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     // Check if a user has liked a post
     boolean existsByUserAndPost(User user, Post post);
     
+    // Id-based variants that do not need the user or post entity loaded
+    Optional<Like> findByUserIdAndPostId(Long userId, Long postId);
+    
+    long countByPostId(Long postId);
+    
+    boolean existsByUserIdAndPostId(Long userId, Long postId);
+    
     // Find users who liked a post
     @Query("SELECT l.user FROM Like l WHERE l.post = :post")
     List<User> findUsersByPost(@Param("post") Post post);
     
+    // Keyset pages of (likeId, userId, username, avatarUrl) for a post's likers, newest like first
+    @Query("SELECT l.id, u.id, u.username, u.avatarUrl FROM Like l JOIN l.user u "
+         + "WHERE l.post.id = :postId AND l.id < :beforeId ORDER BY l.id DESC")
+    List<Object[]> findLikers(@Param("postId") Long postId, @Param("beforeId") Long beforeId, Pageable pageable);
+    
+    @Query("SELECT l.id, u.id, u.username, u.avatarUrl FROM Like l JOIN l.user u "
+         + "WHERE l.post.id = :postId AND u.id IN :userIds AND l.id < :beforeId ORDER BY l.id DESC")
+    List<Object[]> findLikersAmong(@Param("postId") Long postId, @Param("userIds") Collection<Long> userIds,
+            @Param("beforeId") Long beforeId, Pageable pageable);
+    
     // Find posts liked by a user
     @Query("SELECT l.post FROM Like l WHERE l.user = :user")
     List<Post> findPostsByUser(@Param("user") User user);
+    
+    // Keyset pages of (likeId, likedAt, post) for the visible posts a user liked, newest like first
+    @Query("SELECT l.id, l.createdAt, p FROM Like l JOIN l.post p JOIN p.user a WHERE l.user.id = :userId AND "
+         + VISIBLE_TO_LIKER + " ORDER BY l.createdAt DESC, l.id DESC")
+    List<Object[]> findNewestVisibleLikedPosts(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT l.id, l.createdAt, p FROM Like l JOIN l.post p JOIN p.user a WHERE l.user.id = :userId "
+         + "AND (l.createdAt < :likedAt OR (l.createdAt = :likedAt AND l.id < :likeId)) AND "
+         + VISIBLE_TO_LIKER + " ORDER BY l.createdAt DESC, l.id DESC")
+    List<Object[]> findOlderVisibleLikedPosts(@Param("userId") Long userId, @Param("likedAt") Instant likedAt,
+            @Param("likeId") Long likeId, Pageable pageable);
+    
+    long countByUserId(Long userId);
+    
+    // Find posts liked by a user, by user id
+    @Query("SELECT l.post FROM Like l WHERE l.user.id = :userId")
+    List<Post> findPostsByUserId(@Param("userId") Long userId);
+    
+    // Like a post by ids in one statement, so repeated and concurrent likes are no-ops instead of
+    // unique-constraint failures. Unlike INSERT IGNORE, other errors such as a missing post still fail.
+    // Returns 1 only if the like was inserted: an existing like reports 0 on MySQL with
+    // useAffectedRows=true (see the datasource URL) and 2 on H2.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "likes"))
+    @Query(value = "INSERT INTO likes (user_id, post_id, created_at) VALUES (:userId, :postId, :createdAt) "
+                 + "ON DUPLICATE KEY UPDATE id = id",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("postId") Long postId, @Param("createdAt") Instant createdAt);
+    
+    // Unlike a post by ids in one statement. Returns 0 if there was nothing to remove
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.user.id = :userId AND l.post.id = :postId")
+    int deleteByUserIdAndPostId(@Param("userId") Long userId, @Param("postId") Long postId);
+    
+    // Batched likes of one post: one multi-row statement, skipping users who already like it
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "likes"))
+    @Query(value = "INSERT IGNORE INTO likes (user_id, post_id, created_at) "
+                 + "SELECT u.id, :postId, :createdAt FROM users u WHERE u.id IN :userIds",
+           nativeQuery = true)
+    int insertForUsers(@Param("postId") Long postId, @Param("userIds") Collection<Long> userIds,
+            @Param("createdAt") Instant createdAt);
+    
+    // Batched unlikes of one post
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.post.id = :postId AND l.user.id IN :userIds")
+    int deleteByPostIdAndUserIdIn(@Param("postId") Long postId, @Param("userIds") Collection<Long> userIds);
+    
+    // (postId, like count) pairs for a batch of posts
+    @Query("SELECT l.post.id, COUNT(l) FROM Like l WHERE l.post.id IN :postIds GROUP BY l.post.id")
+    List<Object[]> countGroupedByPostId(@Param("postIds") Collection<Long> postIds);
+    
+    // Which of the given users like a post
+    @Query("SELECT l.user.id FROM Like l WHERE l.post.id = :postId AND l.user.id IN :userIds")
+    List<Long> findLikerIdsAmong(@Param("postId") Long postId, @Param("userIds") Collection<Long> userIds);
+    
+    // Which of the given posts a user has liked
+    @Query("SELECT l.post.id FROM Like l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    List<Long> findLikedPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
+    
+    // Remove the likes of archived posts
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.post.id IN :postIds")
+    int deleteByPostIdIn(@Param("postIds") List<Long> postIds);
 } 
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.backend.gjejpune.demo.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.backend.gjejpune.demo.model.PostChange;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface PostChangeRepository extends JpaRepository<PostChange, Long> {
+
+    // Log a change of a post, reading its author in the same statement. The post row must still exist.
+    // The native space hint keeps Hibernate from clearing every cache region.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_changes"))
+    @Query(value = "INSERT INTO post_changes (post_id, author_id, type, created_at) "
+                 + "SELECT p.id, p.user_id, :type, :createdAt FROM posts p WHERE p.id = :postId",
+           nativeQuery = true)
+    int append(@Param("postId") Long postId, @Param("type") String type, @Param("createdAt") Instant createdAt);
+
+    // ID of the entry the last append on this connection inserted
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    Long findLastInsertId();
+
+    // Posts by the given authors changed after a log ID, one row per post ordered by its last entry:
+    // post ID, last entry ID and kind (2 deleted, 1 created or updated, 0 only engagement).
+    // Collapsed before the limit so a busy post counts once.
+    @Query(value = "SELECT c.post_id, MAX(c.id) AS last_id, "
+                 + "MAX(CASE c.type WHEN 'DELETED' THEN 2 WHEN 'ENGAGEMENT' THEN 0 ELSE 1 END) AS kind "
+                 + "FROM post_changes c WHERE c.author_id IN (:authorIds) AND c.id > :afterId "
+                 + "GROUP BY c.post_id ORDER BY last_id LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findCollapsedByAuthorIdInAfter(@Param("authorIds") Collection<Long> authorIds,
+            @Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Query("SELECT MIN(c.id) FROM PostChange c")
+    Long findMinId();
+
+    // Newest entries inserted before a time, seeking the created_at index from its end
+    @Query("SELECT c.id FROM PostChange c WHERE c.createdAt < :before ORDER BY c.createdAt DESC, c.id DESC")
+    List<Long> findNewestIdsBefore(@Param("before") Instant before, Pageable pageable);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_changes"))
+    @Query(value = "DELETE FROM post_changes WHERE created_at < :cutoff LIMIT :limit", nativeQuery = true)
+    int deleteOlderThan(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+}
@@ -1,10 +1,16 @@
 package com.backend.gjejpune.demo.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.backend.gjejpune.demo.model.Post;
@@ -17,8 +23,90 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     
     // Paginated queries
     Page<Post> findByUser(User user, Pageable pageable);
+    Page<Post> findByUserId(Long userId, Pageable pageable);
+    
+    // Count-free variant: fetches one extra row to tell whether there is a next page
+    Slice<Post> findSliceByUserId(Long userId, Pageable pageable);
+    
+    long countByUserId(Long userId);
+    
+    // Keyset batches ordered by (createdAt, id) descending, used by the fill-to-size pager
+    @Query("SELECT p FROM Post p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findNewest(Pageable pageable);
+    
+    @Query("SELECT p FROM Post p WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) "
+         + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findOlderThan(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT p FROM Post p WHERE p.user.id = :userId ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findNewestByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT p FROM Post p WHERE p.user.id = :userId "
+         + "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) "
+         + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findOlderThanByUserId(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Pageable pageable);
+    
+    // (authorId, isPrivate, author isPrivateProfile) of a post, enough to check access without loading it
+    @Query("SELECT p.user.id, p.isPrivate, p.user.isPrivateProfile FROM Post p WHERE p.id = :postId")
+    List<Object[]> findVisibilityById(@Param("postId") Long postId);
+    
+    // Newest public posts by public profiles, used to fill the in-memory public timeline
+    @Query("SELECT p FROM Post p WHERE p.isPrivate = false AND p.user.isPrivateProfile = false "
+         + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findNewestPublic(Pageable pageable);
+    
+    // Posts by the given authors that the public timeline leaves out, in keyset order
+    @Query("SELECT p FROM Post p WHERE p.user.id IN :userIds AND (p.isPrivate = true OR p.user.isPrivateProfile = true) "
+         + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findNewestRestrictedByUserIdIn(@Param("userIds") Collection<Long> userIds, Pageable pageable);
+    
+    @Query("SELECT p FROM Post p WHERE p.user.id IN :userIds AND (p.isPrivate = true OR p.user.isPrivateProfile = true) "
+         + "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) "
+         + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findOlderRestrictedByUserIdIn(@Param("userIds") Collection<Long> userIds,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
     Page<Post> findAll(Pageable pageable);
     
     // Find posts by user IDs
     Page<Post> findByUserIdIn(List<Long> userIds, Pageable pageable);
+    
+    // (id, authorId, createdAt) of the newest feed posts a viewer may see, the candidates for feed ranking
+    @Query("SELECT p.id, p.user.id, p.createdAt FROM Post p WHERE p.user.id IN :userIds "
+         + "AND (p.isPrivate = false OR p.user.id = :viewerId) ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findFeedCandidates(@Param("userIds") Collection<Long> userIds, @Param("viewerId") Long viewerId,
+            Pageable pageable);
+    
+    // Feed posts older than the given one, in keyset order, for the pages after the ranked ones
+    @Query("SELECT p FROM Post p WHERE p.user.id IN :userIds AND (p.isPrivate = false OR p.user.id = :viewerId) "
+         + "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) "
+         + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findOlderFeedPosts(@Param("userIds") Collection<Long> userIds, @Param("viewerId") Long viewerId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    // Stream (id, imageUrl) pairs in id order, used by the upload garbage collector
+    @Query("SELECT p.id, p.imageUrl FROM Post p WHERE p.id > :afterId AND p.imageUrl IS NOT NULL ORDER BY p.id")
+    List<Object[]> findImageUrlsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Stream (id, title, content) rows in id order, used to rebuild the full-text index
+    @Query("SELECT p.id, p.title, p.content FROM Post p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findSearchFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Stream (id, title, content) rows of posts changed since a time in id order, used to catch the full-text index up
+    @Query("SELECT p.id, p.title, p.content FROM Post p WHERE p.updatedAt >= :since AND p.id > :afterId ORDER BY p.id")
+    List<Object[]> findSearchFieldsChangedSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
+    
+    // Stream post ids in id order, used to drop deleted posts from the full-text index
+    @Query("SELECT p.id FROM Post p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Lock the oldest posts created before the cutoff, used by the archiver.
+    // Holding the row locks blocks new likes and comments on them until the batch commits.
+    @Query(value = "SELECT id FROM posts WHERE created_at < :cutoff ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+    
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 } 
\ No newline at end of file
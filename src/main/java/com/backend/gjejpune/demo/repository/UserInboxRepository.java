@@ -0,0 +1,10 @@
+package com.backend.gjejpune.demo.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.backend.gjejpune.demo.model.UserInbox;
+
+@Repository
+public interface UserInboxRepository extends JpaRepository<UserInbox, Long> {
+}
@@ -1,7 +1,10 @@
 package com.backend.gjejpune.demo.repository;
 
 import com.backend.gjejpune.demo.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +20,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     // Search users by username or full name
     List<User> findByUsernameContainingIgnoreCaseOrFullNameContainingIgnoreCase(String username, String fullName);
+    
+    // Stream (id, avatarUrl) pairs in id order, used by the upload garbage collector
+    @Query("SELECT u.id, u.avatarUrl FROM User u WHERE u.id > :afterId AND u.avatarUrl IS NOT NULL ORDER BY u.id")
+    List<Object[]> findAvatarUrlsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Stream (id, username, fullName) rows in id order, used to build the in-memory search index
+    @Query("SELECT u.id, u.username, u.fullName FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findSearchFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Stream (id, username, fullName, avatarUrl, isPrivateProfile) rows in id order, used to build the suggestion trie
+    @Query("SELECT u.id, u.username, u.fullName, u.avatarUrl, u.isPrivateProfile FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findSuggestFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
 } 
\ No newline at end of file
@@ -0,0 +1,396 @@
+package com.backend.gjejpune.demo.search;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded inverted index with BM25 ranking, persisted as immutable segment files.
+ *
+ * New and updated documents go to an in-memory buffer that is flushed to a new segment
+ * once it is large enough. Replacing or deleting a document only marks it deleted in the
+ * segment that held it, and a live map records the one segment (or the buffer) that holds
+ * the current version of every document. On startup the segments are replayed oldest
+ * first, so the latest segment wins. A merge rewrites all segments into one, dropping
+ * deleted documents.
+ */
+public class FullTextIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final long IN_BUFFER = -1L;
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d+)\\.seg");
+
+    private final Path directory;
+    private final List<IndexSegment> segments = new ArrayList<>();
+    private final Map<Long, Map<String, Integer>> buffer = new HashMap<>();
+    private final Map<Long, DocRef> live = new HashMap<>();
+    private final AtomicLong nextSegmentId = new AtomicLong(1);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object mergeLock = new Object();
+    private long totalLength;
+
+    public FullTextIndex(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Load the existing segments from the index directory, creating it if needed
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher matcher = SEGMENT_FILE.matcher(name);
+                if (matcher.matches()) {
+                    ids.add(Long.parseLong(matcher.group(1)));
+                } else if (name.endsWith(".tmp")) {
+                    // Left behind by a write that never completed
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        ids.sort(null);
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                IndexSegment segment = IndexSegment.read(directory, id);
+                segments.add(segment);
+                for (Map.Entry<Long, Integer> document : segment.getDocLengths().entrySet()) {
+                    if (!segment.isDeleted(document.getKey())) {
+                        removeInternal(document.getKey());
+                        live.put(document.getKey(), new DocRef(id, document.getValue()));
+                        totalLength += document.getValue();
+                    }
+                }
+                nextSegmentId.set(Math.max(nextSegmentId.get(), id + 1));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace a document. Title terms are counted twice so title matches rank higher.
+     */
+    public void index(long docId, String title, String content) {
+        List<String> titleTerms = TextAnalyzer.analyze(title);
+        List<String> terms = new ArrayList<>(titleTerms);
+        terms.addAll(titleTerms);
+        terms.addAll(TextAnalyzer.analyze(content));
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            buffer.put(docId, frequencies);
+            live.put(docId, new DocRef(IN_BUFFER, terms.size()));
+            totalLength += terms.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document
+     */
+    public void delete(long docId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Write the buffered documents to a new segment and persist pending deletions
+     */
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!buffer.isEmpty()) {
+                Map<Long, Integer> lengths = new HashMap<>(buffer.size() * 2);
+                for (Long docId : buffer.keySet()) {
+                    lengths.put(docId, live.get(docId).length);
+                }
+
+                IndexSegment segment = IndexSegment.build(nextSegmentId.getAndIncrement(), buffer, lengths);
+                segment.write(directory);
+                segments.add(segment);
+                for (Map.Entry<Long, Integer> document : lengths.entrySet()) {
+                    live.put(document.getKey(), new DocRef(segment.getId(), document.getValue()));
+                }
+                buffer.clear();
+            }
+
+            for (IndexSegment segment : segments) {
+                segment.writeDeletes(directory);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrite all segments into one if there are more than the given number. The new
+     * segment is built without holding the index lock, so searches and writes continue
+     * while the merge runs; documents that changed in the meantime are reconciled at the end.
+     *
+     * @param maxSegments Number of segments tolerated before merging
+     * @return Whether a merge took place
+     */
+    public boolean merge(int maxSegments) throws IOException {
+        synchronized (mergeLock) {
+            List<IndexSegment> sources;
+            long mergedId;
+            lock.readLock().lock();
+            try {
+                if (segments.size() <= Math.max(1, maxSegments)) {
+                    return false;
+                }
+                sources = new ArrayList<>(segments);
+                mergedId = nextSegmentId.getAndIncrement();
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            // Snapshot the live documents of each source segment and re-invert their postings
+            Map<Long, Long> owners = new HashMap<>();
+            Map<Long, Integer> lengths = new HashMap<>();
+            Map<Long, Map<String, Integer>> documents = new HashMap<>();
+            for (IndexSegment segment : sources) {
+                for (Map.Entry<Long, Integer> document : segment.getDocLengths().entrySet()) {
+                    if (!segment.isDeleted(document.getKey())) {
+                        owners.put(document.getKey(), segment.getId());
+                        lengths.put(document.getKey(), document.getValue());
+                        documents.put(document.getKey(), new HashMap<>());
+                    }
+                }
+            }
+            for (IndexSegment segment : sources) {
+                for (String term : segment.terms()) {
+                    segment.forEachPosting(term, (docId, frequency) -> {
+                        Long owner = owners.get(docId);
+                        if (owner != null && owner == segment.getId()) {
+                            documents.get(docId).put(term, frequency);
+                        }
+                    });
+                }
+            }
+
+            IndexSegment merged = IndexSegment.build(mergedId, documents, lengths);
+            merged.write(directory);
+
+            lock.writeLock().lock();
+            try {
+                for (Map.Entry<Long, Long> owner : owners.entrySet()) {
+                    DocRef current = live.get(owner.getKey());
+                    if (current == null || current.segmentId != owner.getValue()) {
+                        // Updated or deleted while the merge was running
+                        merged.markDeleted(owner.getKey());
+                    } else {
+                        live.put(owner.getKey(), new DocRef(mergedId, current.length));
+                    }
+                }
+                segments.removeAll(sources);
+                segments.add(merged);
+                merged.writeDeletes(directory);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            for (IndexSegment segment : sources) {
+                segment.deleteFiles(directory);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Drop every document and delete all segment files
+     */
+    public void clear() throws IOException {
+        synchronized (mergeLock) {
+            lock.writeLock().lock();
+            try {
+                for (IndexSegment segment : segments) {
+                    segment.deleteFiles(directory);
+                }
+                segments.clear();
+                buffer.clear();
+                live.clear();
+                totalLength = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Rank live documents against the query using BM25
+     *
+     * @param query The search text
+     * @param limit Maximum number of results
+     * @return Matching doc ids, best first
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.analyze(query)));
+        Map<Long, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            int documentCount = live.size();
+            if (terms.isEmpty() || documentCount == 0) {
+                return new ArrayList<>();
+            }
+            double averageLength = Math.max(1.0, (double) totalLength / documentCount);
+
+            for (String term : terms) {
+                // Collect the live postings first: the document frequency must not count stale versions
+                Map<Long, Integer> matches = new HashMap<>();
+                for (IndexSegment segment : segments) {
+                    segment.forEachPosting(term, (docId, frequency) -> {
+                        DocRef current = live.get(docId);
+                        if (current != null && current.segmentId == segment.getId()) {
+                            matches.put(docId, frequency);
+                        }
+                    });
+                }
+                for (Map.Entry<Long, Map<String, Integer>> document : buffer.entrySet()) {
+                    Integer frequency = document.getValue().get(term);
+                    if (frequency != null) {
+                        matches.put(document.getKey(), frequency);
+                    }
+                }
+                if (matches.isEmpty()) {
+                    continue;
+                }
+
+                double idf = Math.log(1 + (documentCount - matches.size() + 0.5) / (matches.size() + 0.5));
+                for (Map.Entry<Long, Integer> match : matches.entrySet()) {
+                    double frequency = match.getValue();
+                    double length = live.get(match.getKey()).length;
+                    double score = idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+                    scores.merge(match.getKey(), score, Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        // Higher score first; on ties prefer the newer document
+        ranked.sort((a, b) -> {
+            int byScore = Double.compare(b.getValue(), a.getValue());
+            return byScore != 0 ? byScore : Long.compare(b.getKey(), a.getKey());
+        });
+
+        List<Long> docIds = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            docIds.add(ranked.get(i).getKey());
+        }
+        return docIds;
+    }
+
+    /**
+     * Get the number of live documents
+     */
+    public int liveDocCount() {
+        lock.readLock().lock();
+        try {
+            return live.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get a copy of the ids of the live documents
+     */
+    public Set<Long> liveDocIds() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(live.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of documents waiting to be flushed
+     */
+    public int bufferedDocCount() {
+        lock.readLock().lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of segments on disk
+     */
+    public int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long docId) {
+        DocRef previous = live.remove(docId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length;
+
+        if (previous.segmentId == IN_BUFFER) {
+            buffer.remove(docId);
+            return;
+        }
+        for (IndexSegment segment : segments) {
+            if (segment.getId() == previous.segmentId) {
+                segment.markDeleted(docId);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Where the current version of a document lives and how many terms it has
+     */
+    private static final class DocRef {
+        private final long segmentId;
+        private final int length;
+
+        private DocRef(long segmentId, int length) {
+            this.segmentId = segmentId;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.backend.gjejpune.demo.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable block of the full-text index, written to disk once and never modified.
+ *
+ * For every term the segment stores a posting list of (doc id, term frequency) pairs sorted
+ * by doc id. Doc ids are delta-encoded against the previous entry and both numbers are
+ * written as variable-byte integers, so a typical posting costs two or three bytes.
+ * Deletions are tracked in a separate set that is persisted next to the segment.
+ */
+public class IndexSegment {
+
+    private static final int MAGIC = 0x46545331;
+
+    private final long id;
+    private final Map<Long, Integer> docLengths;
+    private final Map<String, byte[]> postings;
+    private final Set<Long> deletedDocs = ConcurrentHashMap.newKeySet();
+    private volatile boolean deletesDirty = false;
+
+    private IndexSegment(long id, Map<Long, Integer> docLengths, Map<String, byte[]> postings) {
+        this.id = id;
+        this.docLengths = docLengths;
+        this.postings = postings;
+    }
+
+    /**
+     * Build a segment from per-document term frequencies
+     *
+     * @param id The segment id
+     * @param documents Term frequencies keyed by doc id
+     * @param lengths Number of terms in each document
+     */
+    public static IndexSegment build(long id, Map<Long, Map<String, Integer>> documents, Map<Long, Integer> lengths) {
+        // Invert doc -> terms into term -> sorted (doc, tf) pairs
+        Map<String, TreeMap<Long, Integer>> inverted = new HashMap<>();
+        for (Map.Entry<Long, Map<String, Integer>> document : documents.entrySet()) {
+            for (Map.Entry<String, Integer> term : document.getValue().entrySet()) {
+                inverted.computeIfAbsent(term.getKey(), key -> new TreeMap<>()).put(document.getKey(), term.getValue());
+            }
+        }
+
+        Map<String, byte[]> postings = new HashMap<>(inverted.size() * 2);
+        for (Map.Entry<String, TreeMap<Long, Integer>> term : inverted.entrySet()) {
+            VByteWriter writer = new VByteWriter();
+            writer.writeInt(term.getValue().size());
+            long previousDoc = 0;
+            for (Map.Entry<Long, Integer> posting : term.getValue().entrySet()) {
+                writer.writeLong(posting.getKey() - previousDoc);
+                writer.writeInt(posting.getValue());
+                previousDoc = posting.getKey();
+            }
+            postings.put(term.getKey(), writer.toByteArray());
+        }
+
+        return new IndexSegment(id, new HashMap<>(lengths), postings);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Map<Long, Integer> getDocLengths() {
+        return docLengths;
+    }
+
+    public Iterable<String> terms() {
+        return postings.keySet();
+    }
+
+    public boolean isDeleted(long docId) {
+        return deletedDocs.contains(docId);
+    }
+
+    public void markDeleted(long docId) {
+        if (docLengths.containsKey(docId) && deletedDocs.add(docId)) {
+            deletesDirty = true;
+        }
+    }
+
+    public int liveDocCount() {
+        return docLengths.size() - deletedDocs.size();
+    }
+
+    /**
+     * Decode the posting list of a term
+     *
+     * @param term The term to look up
+     * @param visitor Called with each (doc id, term frequency) pair in doc id order
+     */
+    public void forEachPosting(String term, PostingVisitor visitor) {
+        byte[] encoded = postings.get(term);
+        if (encoded == null) {
+            return;
+        }
+
+        VByteReader reader = new VByteReader(encoded);
+        int count = reader.readInt();
+        long docId = 0;
+        for (int i = 0; i < count; i++) {
+            docId += reader.readLong();
+            visitor.visit(docId, reader.readInt());
+        }
+    }
+
+    /**
+     * Write the segment to its file, atomically replacing any partial earlier attempt
+     */
+    public void write(Path directory) throws IOException {
+        Path temporary = directory.resolve(fileName(id) + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(docLengths.size());
+            for (Map.Entry<Long, Integer> document : docLengths.entrySet()) {
+                output.writeLong(document.getKey());
+                output.writeInt(document.getValue());
+            }
+            output.writeInt(postings.size());
+            for (Map.Entry<String, byte[]> term : postings.entrySet()) {
+                output.writeUTF(term.getKey());
+                output.writeInt(term.getValue().length);
+                output.write(term.getValue());
+            }
+        }
+        Files.move(temporary, directory.resolve(fileName(id)), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writeDeletes(directory);
+    }
+
+    /**
+     * Persist the deleted doc ids if they changed since the last write
+     */
+    public void writeDeletes(Path directory) throws IOException {
+        if (!deletesDirty) {
+            return;
+        }
+        deletesDirty = false;
+
+        Long[] deleted = deletedDocs.toArray(new Long[0]);
+        Path temporary = directory.resolve(deletesFileName(id) + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(deleted.length);
+            for (Long docId : deleted) {
+                output.writeLong(docId);
+            }
+        }
+        Files.move(temporary, directory.resolve(deletesFileName(id)), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load a segment and its deletions from disk
+     */
+    public static IndexSegment read(Path directory, long id) throws IOException {
+        Map<Long, Integer> docLengths;
+        Map<String, byte[]> postings;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(directory.resolve(fileName(id)))))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not an index segment: " + fileName(id));
+            }
+            int docCount = input.readInt();
+            docLengths = new HashMap<>(docCount * 2);
+            for (int i = 0; i < docCount; i++) {
+                docLengths.put(input.readLong(), input.readInt());
+            }
+            int termCount = input.readInt();
+            postings = new HashMap<>(termCount * 2);
+            for (int i = 0; i < termCount; i++) {
+                String term = input.readUTF();
+                byte[] encoded = new byte[input.readInt()];
+                input.readFully(encoded);
+                postings.put(term, encoded);
+            }
+        }
+
+        IndexSegment segment = new IndexSegment(id, docLengths, postings);
+        Path deletes = directory.resolve(deletesFileName(id));
+        if (Files.exists(deletes)) {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(deletes)))) {
+                int count = input.readInt();
+                for (int i = 0; i < count; i++) {
+                    segment.deletedDocs.add(input.readLong());
+                }
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Remove the segment's files from disk
+     */
+    public void deleteFiles(Path directory) throws IOException {
+        Files.deleteIfExists(directory.resolve(fileName(id)));
+        Files.deleteIfExists(directory.resolve(deletesFileName(id)));
+    }
+
+    public static String fileName(long id) {
+        return String.format("segment-%010d.seg", id);
+    }
+
+    private static String deletesFileName(long id) {
+        return String.format("segment-%010d.del", id);
+    }
+
+    /**
+     * Receives decoded postings
+     */
+    public interface PostingVisitor {
+        void visit(long docId, int termFrequency);
+    }
+
+    private static final class VByteWriter {
+        private byte[] buffer = new byte[16];
+        private int size;
+
+        private void writeInt(int value) {
+            writeLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                append((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            append((byte) value);
+        }
+
+        private void append(byte value) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[size++] = value;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    private static final class VByteReader {
+        private final byte[] buffer;
+        private int position;
+
+        private VByteReader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private int readInt() {
+            return (int) readLong();
+        }
+
+        private long readLong() {
+            long value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = buffer[position++];
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.backend.gjejpune.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed radix trie for prefix suggestions.
+ *
+ * Each edge carries a string label rather than a single character, and every node keeps a
+ * precomputed list of the k highest-scoring ids anywhere in its subtree. Answering a
+ * prefix query is a walk of at most prefix-length characters followed by returning the
+ * node's list, so it never touches the rest of the tree. Writes pay for this by rebuilding
+ * the top-k lists along the affected path.
+ */
+public class SuggestionTrie {
+
+    private final int k;
+    private final Node root = new Node("");
+    private final Map<Long, Set<String>> keysById = new HashMap<>();
+    private final Map<Long, Long> scores = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SuggestionTrie(int k) {
+        this.k = k;
+    }
+
+    /**
+     * Add or replace the keys and score of an id. Keys are matched exactly as given.
+     */
+    public void put(long id, Collection<String> keys, long score) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            Set<String> uniqueKeys = new LinkedHashSet<>();
+            for (String key : keys) {
+                if (key != null && !key.isEmpty()) {
+                    uniqueKeys.add(key);
+                }
+            }
+            if (uniqueKeys.isEmpty()) {
+                return;
+            }
+
+            keysById.put(id, uniqueKeys);
+            scores.put(id, score);
+            for (String key : uniqueKeys) {
+                insert(key, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Change the score of an already indexed id
+     */
+    public void updateScore(long id, long score) {
+        lock.writeLock().lock();
+        try {
+            Set<String> keys = keysById.get(id);
+            if (keys == null) {
+                return;
+            }
+            scores.put(id, score);
+            for (String key : keys) {
+                refreshPath(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an id and all of its keys
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the current score of an id, or null if it is not indexed
+     */
+    public Long getScore(long id) {
+        lock.readLock().lock();
+        try {
+            return scores.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the highest-scoring ids having a key that starts with the prefix
+     *
+     * @param prefix The prefix to complete
+     * @return Up to k ids, highest score first
+     */
+    public List<Long> suggest(String prefix) {
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int position = 0;
+            while (position < prefix.length()) {
+                Node child = node.children.get(prefix.charAt(position));
+                if (child == null) {
+                    return new ArrayList<>();
+                }
+
+                int remaining = prefix.length() - position;
+                if (remaining <= child.label.length()) {
+                    // The prefix ends inside (or at the end of) this edge
+                    if (!child.label.startsWith(prefix.substring(position))) {
+                        return new ArrayList<>();
+                    }
+                    return child.topIds();
+                }
+                if (!prefix.startsWith(child.label, position)) {
+                    return new ArrayList<>();
+                }
+                position += child.label.length();
+                node = child;
+            }
+            return node.topIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long id) {
+        Set<String> keys = keysById.remove(id);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            delete(key, id);
+        }
+        scores.remove(id);
+    }
+
+    private void insert(String key, long id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+
+        while (position < key.length()) {
+            char first = key.charAt(position);
+            Node child = node.children.get(first);
+            if (child == null) {
+                Node leaf = new Node(key.substring(position));
+                node.children.put(first, leaf);
+                node = leaf;
+                path.add(node);
+                position = key.length();
+                break;
+            }
+
+            int common = commonPrefixLength(child.label, key, position);
+            if (common < child.label.length()) {
+                // Split the edge so the shared part becomes its own node
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                middle.top = child.top;
+                node.children.put(first, middle);
+                child = middle;
+            }
+            position += common;
+            node = child;
+            path.add(node);
+        }
+
+        node.terminals.add(id);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            recompute(path.get(i));
+        }
+    }
+
+    private void delete(String key, long id) {
+        List<Node> path = findPath(key);
+        if (path == null) {
+            return;
+        }
+
+        Node target = path.get(path.size() - 1);
+        target.terminals.remove(id);
+
+        // Prune empty leaves and merge pass-through nodes to keep the trie compressed
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (node.terminals.isEmpty() && node.children.isEmpty()) {
+                parent.children.remove(node.label.charAt(0));
+            } else if (node.terminals.isEmpty() && node.children.size() == 1) {
+                Node onlyChild = node.children.values().iterator().next();
+                onlyChild.label = node.label + onlyChild.label;
+                parent.children.put(onlyChild.label.charAt(0), onlyChild);
+            } else {
+                recompute(node);
+            }
+        }
+        recompute(root);
+    }
+
+    /**
+     * Rebuild the top-k lists on the path to a key, deepest node first
+     */
+    private void refreshPath(String key) {
+        List<Node> path = findLongestPath(key);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            recompute(path.get(i));
+        }
+    }
+
+    private List<Node> findPath(String key) {
+        List<Node> path = findLongestPath(key);
+        int length = 0;
+        for (Node node : path) {
+            length += node.label.length();
+        }
+        return length == key.length() ? path : null;
+    }
+
+    private List<Node> findLongestPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.children.get(key.charAt(position));
+            if (child == null || !key.startsWith(child.label, position)) {
+                break;
+            }
+            position += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private void recompute(Node node) {
+        List<Long> candidates = new ArrayList<>(node.terminals);
+        for (Node child : node.children.values()) {
+            for (long id : child.top) {
+                candidates.add(id);
+            }
+        }
+
+        candidates.sort((a, b) -> {
+            int byScore = Long.compare(scores.getOrDefault(b, 0L), scores.getOrDefault(a, 0L));
+            return byScore != 0 ? byScore : Long.compare(a, b);
+        });
+
+        Set<Long> seen = new HashSet<>();
+        long[] top = new long[Math.min(k, candidates.size())];
+        int size = 0;
+        for (Long id : candidates) {
+            if (size == top.length) {
+                break;
+            }
+            if (seen.add(id)) {
+                top[size++] = id;
+            }
+        }
+        node.top = size == top.length ? top : Arrays.copyOf(top, size);
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int length = 0;
+        int max = Math.min(label.length(), key.length() - offset);
+        while (length < max && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static final class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final Set<Long> terminals = new HashSet<>(2);
+        private long[] top = new long[0];
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private List<Long> topIds() {
+            List<Long> ids = new ArrayList<>(top.length);
+            for (long id : top) {
+                ids.add(id);
+            }
+            return ids;
+        }
+    }
+}
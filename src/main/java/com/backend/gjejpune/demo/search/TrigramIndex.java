@@ -0,0 +1,312 @@
+package com.backend.gjejpune.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over user names.
+ *
+ * Every indexed string contributes all of its 3-character substrings, plus "^x" and "^^"
+ * boundary grams at each word start so that 1 and 2 character queries can be answered as
+ * word-prefix lookups. Each gram maps to a sorted array of primitive user ids. A query
+ * intersects the posting lists of its grams (smallest first), verifies every surviving
+ * candidate against the original text and keeps the best ones by match quality.
+ */
+public class TrigramIndex {
+
+    private static final char WORD_START = '^';
+
+    private final Map<String, LongPostingList> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace the indexed names of a user
+     */
+    public void put(long userId, String username, String fullName) {
+        Document document = new Document(normalize(username), normalize(fullName));
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(userId);
+            documents.put(userId, document);
+            for (String gram : document.grams()) {
+                postings.computeIfAbsent(gram, key -> new LongPostingList()).add(userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a user from the index
+     */
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find users whose username or full name contains the query, best matches first
+     *
+     * @param query The search text
+     * @param limit Maximum number of results
+     * @return Matching user ids ordered by match quality
+     */
+    public List<Long> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> grams = queryGrams(normalized);
+
+        // Worst match on top, so the heap keeps the best limit matches of the whole intersection
+        Comparator<Match> bestFirst = Comparator.comparingInt((Match match) -> -match.score)
+                .thenComparingInt(match -> match.usernameLength)
+                .thenComparingLong(match -> match.userId);
+        PriorityQueue<Match> best = new PriorityQueue<>(bestFirst.reversed());
+        lock.readLock().lock();
+        try {
+            LongPostingList[] lists = new LongPostingList[grams.size()];
+            for (int i = 0; i < grams.size(); i++) {
+                lists[i] = postings.get(grams.get(i));
+                if (lists[i] == null) {
+                    return new ArrayList<>();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(LongPostingList::size));
+
+            LongPostingList smallest = lists[0];
+            for (int i = 0; i < smallest.size(); i++) {
+                long candidate = smallest.get(i);
+                if (!containedInAll(candidate, lists)) {
+                    continue;
+                }
+                Document document = documents.get(candidate);
+                int score = document.score(normalized);
+                if (score > 0) {
+                    best.add(new Match(candidate, score, document.username.length()));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(bestFirst);
+        List<Long> userIds = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            userIds.add(match.userId);
+        }
+        return userIds;
+    }
+
+    /**
+     * Get the number of indexed users
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long userId) {
+        Document previous = documents.remove(userId);
+        if (previous == null) {
+            return;
+        }
+
+        for (String gram : previous.grams()) {
+            LongPostingList list = postings.get(gram);
+            if (list != null && list.remove(userId) && list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static boolean containedInAll(long candidate, LongPostingList[] lists) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(candidate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> queryGrams(String query) {
+        List<String> grams = new ArrayList<>();
+        if (query.length() == 1) {
+            grams.add("" + WORD_START + WORD_START + query);
+        } else if (query.length() == 2) {
+            grams.add(WORD_START + query);
+        } else {
+            for (int i = 0; i + 3 <= query.length(); i++) {
+                grams.add(query.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean anyWordStartsWith(String text, String prefix) {
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (word.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Document {
+        private final String username;
+        private final String fullName;
+
+        private Document(String username, String fullName) {
+            this.username = username;
+            this.fullName = fullName;
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = new LinkedHashSet<>();
+            addGrams(username, grams);
+            addGrams(fullName, grams);
+            return grams;
+        }
+
+        private static void addGrams(String text, Set<String> grams) {
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                grams.add(text.substring(i, i + 3));
+            }
+            for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    grams.add("" + WORD_START + WORD_START + word.charAt(0));
+                }
+                if (word.length() >= 2) {
+                    grams.add(WORD_START + word.substring(0, 2));
+                }
+            }
+        }
+
+        /**
+         * Score how well this user matches the query, 0 meaning it does not match at all
+         */
+        private int score(String query) {
+            if (username.equals(query)) {
+                return 100;
+            }
+            if (username.startsWith(query)) {
+                return 80;
+            }
+            if (fullName.startsWith(query)) {
+                return 60;
+            }
+            if (anyWordStartsWith(username, query) || anyWordStartsWith(fullName, query)) {
+                return 50;
+            }
+            if (query.length() < 3) {
+                // Short queries only match word prefixes
+                return 0;
+            }
+            if (username.contains(query)) {
+                return 40;
+            }
+            if (fullName.contains(query)) {
+                return 30;
+            }
+            return 0;
+        }
+    }
+
+    private static final class Match {
+        private final long userId;
+        private final int score;
+        private final int usernameLength;
+
+        private Match(long userId, int score, int usernameLength) {
+            this.userId = userId;
+            this.score = score;
+            this.usernameLength = usernameLength;
+        }
+    }
+
+    /**
+     * Growable sorted array of primitive ids
+     */
+    private static final class LongPostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        private int size() {
+            return size;
+        }
+
+        private long get(int index) {
+            return ids[index];
+        }
+
+        private boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void add(long id) {
+            // Ids are mostly assigned in increasing order, so appending is the common case
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+    }
+}
@@ -17,6 +17,8 @@ import com.backend.gjejpune.demo.security.jwt.AuthEntryPointJwt;
 import com.backend.gjejpune.demo.security.jwt.AuthTokenFilter;
 import com.backend.gjejpune.demo.security.services.UserDetailsServiceImpl;
 
+import jakarta.servlet.DispatcherType;
+
 @Configuration
 public class WebSecurityConfig {
     @Autowired
@@ -56,9 +58,13 @@ public class WebSecurityConfig {
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> 
-                auth.requestMatchers("/api/auth/**").permitAll()
+                // Async dispatches only complete requests that were already authorized, such as event streams
+                auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                    .requestMatchers("/api/auth/**").permitAll()
                     .requestMatchers("/api/user/my-profile").authenticated()
                     .requestMatchers("/api/posts/**").authenticated()
+                    // Internal cache and Hibernate statistics are for operators only
+                    .requestMatchers("/api/stats/**").hasAuthority("ADMIN")
                     .anyRequest().authenticated()
             );
         
@@ -10,6 +10,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.model.UserSnapshot;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class UserDetailsImpl implements UserDetails {
@@ -47,6 +48,26 @@ public class UserDetailsImpl implements UserDetails {
                 authorities);
     }
 
+    public static UserDetailsImpl build(UserSnapshot user) {
+        return build(user, false);
+    }
+
+    /**
+     * Build the principal of a user, granting ADMIN on top of USER to operators
+     */
+    public static UserDetailsImpl build(UserSnapshot user, boolean admin) {
+        List<GrantedAuthority> authorities = admin
+                ? List.of(new SimpleGrantedAuthority("USER"), new SimpleGrantedAuthority("ADMIN"))
+                : Collections.singletonList(new SimpleGrantedAuthority("USER"));
+
+        return new UserDetailsImpl(
+                user.getId(), 
+                user.getUsername(), 
+                user.getEmail(),
+                user.getPassword(), 
+                authorities);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
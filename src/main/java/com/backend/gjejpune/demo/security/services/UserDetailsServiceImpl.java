@@ -1,26 +1,32 @@
 package com.backend.gjejpune.demo.security.services;
 
+import java.util.Set;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.backend.gjejpune.demo.model.User;
-import com.backend.gjejpune.demo.repository.UserRepository;
+import com.backend.gjejpune.demo.model.UserSnapshot;
+import com.backend.gjejpune.demo.service.UserCache;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
-    UserRepository userRepository;
+    UserCache userCache;
+
+    // Usernames granted ADMIN, which internal endpoints such as /api/stats require
+    @Value("${app.admin.usernames:}")
+    private Set<String> adminUsernames;
 
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        // Runs on every authenticated request, so read through the shared user cache
+        UserSnapshot user = userCache.getByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
 
-        return UserDetailsImpl.build(user);
+        return UserDetailsImpl.build(user, adminUsernames.contains(user.getUsername()));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,192 @@
+package com.backend.gjejpune.demo.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.backend.gjejpune.demo.repository.ArchivedPostRepository;
+import com.backend.gjejpune.demo.repository.CommentRepository;
+import com.backend.gjejpune.demo.repository.LikeRepository;
+import com.backend.gjejpune.demo.repository.PostRepository;
+
+/**
+ * Approximate row counts for paginated listings, so pages can be served as slices without
+ * a COUNT(*) next to every data query.
+ *
+ * A missing or stale count is never computed on the request thread. The key is queued and
+ * a background job runs the count query; until then the listing reports a lower bound.
+ * Writes nudge existing counts up or down, and a slice that reaches the end of a listing
+ * records the exact total it has just seen.
+ */
+@Service
+public class ApproximateCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApproximateCountService.class);
+
+    /**
+     * The listings whose totals are tracked, each keyed by a user or post ID
+     */
+    public enum CountKind {
+        ALL_POSTS,
+        POSTS_BY_USER,
+        COMMENTS_BY_POST,
+        COMMENTS_BY_USER,
+        LIKES_BY_USER
+    }
+
+    // ID used for listings that are not owned by a user or post
+    public static final Long GLOBAL = 0L;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private ArchivedPostRepository archivedPostRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Value("${counts.approximate.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${counts.approximate.max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${counts.approximate.max-refreshes-per-run:500}")
+    private int maxRefreshesPerRun;
+
+    private final Map<CountKind, Map<Long, Entry>> entries = new EnumMap<>(CountKind.class);
+    private final Map<CountKind, Set<Long>> pending = new EnumMap<>(CountKind.class);
+
+    public ApproximateCountService() {
+        for (CountKind kind : CountKind.values()) {
+            entries.put(kind, new ConcurrentHashMap<>());
+            pending.put(kind, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Get the cached total for a listing, queueing a refresh if it is missing or stale.
+     * If the slice reached the end of the listing, its exact total is recorded instead.
+     *
+     * @param kind The listing
+     * @param id The owning user or post ID
+     * @param slice The slice just read from the listing
+     * @return The approximate total, or null if none is known yet
+     */
+    public Long getTotal(CountKind kind, Long id, Slice<?> slice) {
+        if (!slice.hasNext() && slice.hasContent()) {
+            long exact = slice.getPageable().getOffset() + slice.getNumberOfElements();
+            record(kind, id, exact);
+            return exact;
+        }
+
+        return getTotal(kind, id);
+    }
+
+    /**
+     * Get the cached total for a listing, queueing a refresh if it is missing or stale
+     *
+     * @return The approximate total, or null if none is known yet
+     */
+    public Long getTotal(CountKind kind, Long id) {
+        Entry entry = entries.get(kind).get(id);
+        if (entry == null || System.nanoTime() - entry.refreshedAt > TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+            pending.get(kind).add(id);
+        }
+        return entry != null ? entry.count : null;
+    }
+
+    /**
+     * Shift a cached total after a row was added to or removed from a listing
+     */
+    public void adjust(CountKind kind, Long id, long delta) {
+        entries.get(kind).computeIfPresent(id, (key, entry) ->
+                new Entry(Math.max(0, entry.count + delta), entry.refreshedAt));
+    }
+
+    /**
+     * Run the count queries for queued listings
+     */
+    @Scheduled(fixedDelayString = "${counts.approximate.refresh-interval-ms:5000}")
+    public void refreshPending() {
+        int budget = maxRefreshesPerRun;
+        for (CountKind kind : CountKind.values()) {
+            Set<Long> queued = pending.get(kind);
+            List<Long> ids = new ArrayList<>();
+            for (Long id : queued) {
+                if (ids.size() >= budget) {
+                    break;
+                }
+                ids.add(id);
+            }
+
+            for (Long id : ids) {
+                queued.remove(id);
+                try {
+                    record(kind, id, count(kind, id));
+                } catch (RuntimeException ex) {
+                    logger.warn("Could not refresh {} count for {}. Error: {}", kind, id, ex.getMessage());
+                }
+            }
+            budget -= ids.size();
+        }
+    }
+
+    private void record(CountKind kind, Long id, long count) {
+        Map<Long, Entry> counts = entries.get(kind);
+        if (counts.size() >= maxEntries && !counts.containsKey(id)) {
+            // Drop expired counts first, and start over if all of them are still fresh
+            long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(ttlSeconds);
+            counts.values().removeIf(entry -> entry.refreshedAt - cutoff < 0);
+            if (counts.size() >= maxEntries) {
+                counts.clear();
+            }
+        }
+        counts.put(id, new Entry(count, System.nanoTime()));
+    }
+
+    private long count(CountKind kind, Long id) {
+        switch (kind) {
+            case ALL_POSTS:
+                return postRepository.count();
+            case POSTS_BY_USER:
+                // The per-user listing continues into the archive
+                return postRepository.countByUserId(id) + archivedPostRepository.countByUserId(id);
+            case COMMENTS_BY_POST:
+                return commentRepository.countByPostId(id);
+            case COMMENTS_BY_USER:
+                return commentRepository.countByUserId(id);
+            case LIKES_BY_USER:
+                // Counts every like, including those of posts the user can no longer see
+                return likeRepository.countByUserId(id);
+            default:
+                throw new IllegalArgumentException("Unknown count kind: " + kind);
+        }
+    }
+
+    private static final class Entry {
+        private final long count;
+        private final long refreshedAt;
+
+        private Entry(long count, long refreshedAt) {
+            this.count = count;
+            this.refreshedAt = refreshedAt;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.backend.gjejpune.demo.service;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Renders default avatars locally instead of linking to a third-party avatar service.
+ *
+ * An avatar is the user's initials drawn on a background color derived from the username
+ * hash. The file name encodes both the color and the initials, so identical avatars share
+ * one file, the content behind a name never changes, and a missing file can always be
+ * re-rendered from its name alone.
+ *
+ * Files are only written when an avatar is assigned to a user. A requested name with no file
+ * is rendered for that response alone, so requests for made-up names cannot fill the disk.
+ */
+@Service
+public class AvatarService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvatarService.class);
+
+    public static final String AVATAR_DIRECTORY = "default_avatars";
+
+    private static final int AVATAR_SIZE = 128;
+    private static final int MAX_CACHED_AVATARS = 1000;
+    private static final Pattern AVATAR_FILE_NAME = Pattern.compile("([0-9a-f]{6})-([0-9a-f]+)\\.png");
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    // Loads in progress are shared through their future, so rendering and file I/O hold no lock
+    private final Map<String, CompletableFuture<byte[]>> avatarCache = new ConcurrentHashMap<>();
+
+    /**
+     * Render (if needed) and persist the default avatar for a username
+     *
+     * @param username The username to build the avatar for
+     * @return The URL of the avatar on our file endpoint, or null if it could not be rendered
+     */
+    public String getDefaultAvatarUrl(String username) {
+        String initials = initialsOf(username);
+        int rgb = colorOf(username);
+        String fileName = String.format("%06x-%s.png", rgb, HexFormat.of().formatHex(initials.getBytes(StandardCharsets.UTF_8)));
+
+        try {
+            byte[] png = cached(fileName, () -> render(initials, rgb));
+            return fileStorageService.storeBytes(png, AVATAR_DIRECTORY, fileName);
+        } catch (RuntimeException ex) {
+            logger.error("Could not create default avatar for {}. Error: {}", username, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Load a default avatar PNG by file name, from memory first, then disk. A name with no file
+     * is rendered but neither stored nor kept in memory.
+     *
+     * @param fileName The avatar file name
+     * @return The PNG bytes
+     */
+    public byte[] loadAvatar(String fileName) {
+        Matcher matcher = AVATAR_FILE_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            throw new RuntimeException("File not found " + fileName);
+        }
+
+        byte[] stored = cached(fileName, () -> fileStorageService.loadFileBytes(AVATAR_DIRECTORY + "/" + fileName));
+        if (stored != null) {
+            return stored;
+        }
+
+        String initials = new String(HexFormat.of().parseHex(matcher.group(2)), StandardCharsets.UTF_8);
+        return render(initials, Integer.parseInt(matcher.group(1), 16));
+    }
+
+    /**
+     * Get an avatar from memory, or load it once however many requests ask for it at the same time
+     *
+     * @param loader Produces the PNG bytes, or null if there are none to keep
+     */
+    private byte[] cached(String fileName, Supplier<byte[]> loader) {
+        CompletableFuture<byte[]> future = avatarCache.get(fileName);
+        if (future == null) {
+            CompletableFuture<byte[]> created = new CompletableFuture<>();
+            future = avatarCache.putIfAbsent(fileName, created);
+            if (future == null) {
+                future = created;
+                try {
+                    byte[] png = loader.get();
+                    if (png == null) {
+                        avatarCache.remove(fileName, created);
+                    }
+                    created.complete(png);
+                } catch (RuntimeException ex) {
+                    avatarCache.remove(fileName, created);
+                    created.completeExceptionally(ex);
+                }
+                evictIfFull();
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    // Drop loaded avatars until a quarter of the room is free; they are read from disk again on next use
+    private void evictIfFull() {
+        if (avatarCache.size() <= MAX_CACHED_AVATARS) {
+            return;
+        }
+        int target = MAX_CACHED_AVATARS - MAX_CACHED_AVATARS / 4;
+        for (Map.Entry<String, CompletableFuture<byte[]>> entry : avatarCache.entrySet()) {
+            if (avatarCache.size() <= target) {
+                break;
+            }
+            if (entry.getValue().isDone()) {
+                avatarCache.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Take the first letter of up to two words of the username, e.g. "john_doe" becomes "JD"
+     */
+    private String initialsOf(String username) {
+        StringBuilder initials = new StringBuilder();
+        for (String part : username.split("[^\\p{L}\\p{N}]+")) {
+            if (!part.isEmpty()) {
+                initials.appendCodePoint(Character.toUpperCase(part.codePointAt(0)));
+                if (initials.codePointCount(0, initials.length()) == 2) {
+                    break;
+                }
+            }
+        }
+
+        if (initials.length() == 0) {
+            return "?";
+        }
+        return initials.toString();
+    }
+
+    /**
+     * Pick a stable, readable background color from the username hash
+     */
+    private int colorOf(String username) {
+        float hue = Math.floorMod(username.hashCode(), 360) / 360f;
+        return Color.HSBtoRGB(hue, 0.55f, 0.75f) & 0xFFFFFF;
+    }
+
+    private byte[] render(String initials, int rgb) {
+        BufferedImage image = new BufferedImage(AVATAR_SIZE, AVATAR_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+            graphics.setColor(new Color(rgb));
+            graphics.fillRect(0, 0, AVATAR_SIZE, AVATAR_SIZE);
+
+            graphics.setColor(Color.WHITE);
+            graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, AVATAR_SIZE * 2 / 5));
+            FontMetrics metrics = graphics.getFontMetrics();
+            int x = (AVATAR_SIZE - metrics.stringWidth(initials)) / 2;
+            int y = (AVATAR_SIZE - metrics.getHeight()) / 2 + metrics.getAscent();
+            graphics.drawString(initials, x, y);
+        } finally {
+            graphics.dispose();
+        }
+
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", output);
+            return output.toByteArray();
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not encode avatar image", ex);
+        }
+    }
+}
@@ -1,11 +1,9 @@
 package com.backend.gjejpune.demo.service;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,13 +12,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.backend.gjejpune.demo.model.Comment;
 import com.backend.gjejpune.demo.model.Post;
+import com.backend.gjejpune.demo.model.PostChange.ChangeType;
 import com.backend.gjejpune.demo.model.User;
 import com.backend.gjejpune.demo.payload.request.CommentRequest;
 import com.backend.gjejpune.demo.payload.response.MessageResponse;
 import com.backend.gjejpune.demo.payload.response.PagedResponse;
 import com.backend.gjejpune.demo.repository.CommentRepository;
 import com.backend.gjejpune.demo.repository.PostRepository;
-import com.backend.gjejpune.demo.repository.UserRepository;
 
 @Service
 public class CommentService {
@@ -34,7 +32,10 @@ public class CommentService {
     private PostRepository postRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private RequestLookupContext requestLookupContext;
+    
+    @Autowired
+    private UserCache userCache;
     
     @Autowired
     private FriendshipService friendshipService;
@@ -42,16 +43,38 @@ public class CommentService {
     @Autowired
     private PermissionService permissionService;
     
+    @Autowired
+    private ApproximateCountService approximateCountService;
+    
+    @Autowired
+    private PublicTimelineBuffer publicTimelineBuffer;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private EngagementFeatureStore engagementFeatureStore;
+    
+    @Autowired
+    private EventStreamService eventStreamService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private FeedChangeLog feedChangeLog;
+    
     /**
      * Get comments for a post with pagination
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getCommentsByPostId(Long postId, int page, int size, Long currentUserId) {
         // Validate and limit page size
         if (size > MAX_PAGE_SIZE) {
             size = MAX_PAGE_SIZE;
         }
         
-        User currentUser = userRepository.findById(currentUserId)
+        userCache.get(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
         Post post = postRepository.findById(postId)
@@ -67,24 +90,16 @@ public class CommentService {
         // Create pageable object for pagination
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         
-        // Get paginated comments for the post
-        Page<Comment> commentPage = commentRepository.findByPost(post, pageable);
-        List<Comment> comments = commentPage.getContent();
-        
-        // Create next page URL if not on the last page
-        String nextPageUrl = null;
-        if (!commentPage.isLast()) {
-            nextPageUrl = "/api/comments/post/" + postId + "?page=" + (page + 1) + "&size=" + size;
-        }
+        // Get a slice of comments for the post; the total comes from the approximate count cache
+        Slice<Comment> commentSlice = commentRepository.findSliceByPostId(postId, pageable);
+        Long approximateTotal = approximateCountService.getTotal(
+                ApproximateCountService.CountKind.COMMENTS_BY_POST, postId, commentSlice);
         
-        PagedResponse<Comment> response = new PagedResponse<>(
-                comments,
-                commentPage.getNumber(),
-                commentPage.getSize(),
-                commentPage.getTotalElements(),
-                commentPage.getTotalPages(),
-                commentPage.isLast(),
-                nextPageUrl
+        PagedResponse<Comment> response = PaginationUtils.createSlicedResponse(
+                commentSlice.getContent(),
+                commentSlice,
+                approximateTotal,
+                "/api/comments/posts/" + postId
         );
         
         return new ResponseEntity<>(response, HttpStatus.OK);
@@ -95,7 +110,7 @@ public class CommentService {
      */
     @Transactional
     public ResponseEntity<?> createComment(Long postId, CommentRequest commentRequest, Long currentUserId) {
-        User user = userRepository.findById(currentUserId)
+        User user = requestLookupContext.findUser(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
         Post post = postRepository.findById(postId)
@@ -115,6 +130,14 @@ public class CommentService {
         );
         
         comment = commentRepository.save(comment);
+        approximateCountService.adjust(ApproximateCountService.CountKind.COMMENTS_BY_POST, postId, 1);
+        approximateCountService.adjust(ApproximateCountService.CountKind.COMMENTS_BY_USER, currentUserId, 1);
+        publicTimelineBuffer.adjustComments(postId, 1);
+        feedChangeLog.record(postId, ChangeType.ENGAGEMENT);
+        trendingService.recordComment(postId);
+        engagementFeatureStore.commentAdded(postId, currentUserId, post.getUser().getId());
+        eventStreamService.commentAdded(post.getUser().getId(), currentUserId, postId, comment.getId());
+        notificationService.commentAdded(post.getUser().getId(), currentUserId, postId);
         
         return ResponseEntity.status(HttpStatus.CREATED).body(comment);
     }
@@ -156,6 +179,10 @@ public class CommentService {
         }
         
         commentRepository.delete(comment);
+        approximateCountService.adjust(ApproximateCountService.CountKind.COMMENTS_BY_POST, comment.getPost().getId(), -1);
+        approximateCountService.adjust(ApproximateCountService.CountKind.COMMENTS_BY_USER, comment.getUser().getId(), -1);
+        publicTimelineBuffer.adjustComments(comment.getPost().getId(), -1);
+        feedChangeLog.record(comment.getPost().getId(), ChangeType.ENGAGEMENT);
         
         return ResponseEntity.ok(new MessageResponse("Comment deleted successfully!"));
     }
@@ -163,36 +190,29 @@ public class CommentService {
     /**
      * Get comments by current user
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getCommentsByCurrentUser(int page, int size, Long currentUserId) {
         // Validate and limit page size
         if (size > MAX_PAGE_SIZE) {
             size = MAX_PAGE_SIZE;
         }
         
-        User user = userRepository.findById(currentUserId)
+        userCache.get(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
         // Create pageable object for pagination
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         
-        // Get paginated comments for the current user
-        Page<Comment> commentPage = commentRepository.findByUser(user, pageable);
-        List<Comment> comments = commentPage.getContent();
-        
-        // Create next page URL if not on the last page
-        String nextPageUrl = null;
-        if (!commentPage.isLast()) {
-            nextPageUrl = "/api/comments/my-comments?page=" + (page + 1) + "&size=" + size;
-        }
+        // Get a slice of comments for the current user; the total comes from the approximate count cache
+        Slice<Comment> commentSlice = commentRepository.findSliceByUserId(currentUserId, pageable);
+        Long approximateTotal = approximateCountService.getTotal(
+                ApproximateCountService.CountKind.COMMENTS_BY_USER, currentUserId, commentSlice);
         
-        PagedResponse<Comment> response = new PagedResponse<>(
-                comments,
-                commentPage.getNumber(),
-                commentPage.getSize(),
-                commentPage.getTotalElements(),
-                commentPage.getTotalPages(),
-                commentPage.isLast(),
-                nextPageUrl
+        PagedResponse<Comment> response = PaginationUtils.createSlicedResponse(
+                commentSlice.getContent(),
+                commentSlice,
+                approximateTotal,
+                "/api/comments/my-comments"
         );
         
         return new ResponseEntity<>(response, HttpStatus.OK);
@@ -201,6 +221,7 @@ public class CommentService {
     /**
      * Get comment count for a post
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getCommentCount(Long postId, Long currentUserId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Error: Post not found."));
@@ -213,7 +234,7 @@ public class CommentService {
         }
         
         // Get comment count
-        long commentCount = commentRepository.countByPost(post);
+        long commentCount = commentRepository.countByPostId(postId);
         
         return ResponseEntity.ok(new MessageResponse(String.valueOf(commentCount)));
     }
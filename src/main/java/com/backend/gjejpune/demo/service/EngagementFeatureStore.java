@@ -0,0 +1,161 @@
+package com.backend.gjejpune.demo.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.gjejpune.demo.ranking.DecayingCounter;
+
+/**
+ * Per-post and per-viewer ranking features, moved by like and comment events as they commit
+ * so ranking a feed needs no aggregate query.
+ *
+ * Each post has decaying like and comment counts, which measure how fast it is gathering
+ * engagement. Each viewer has a decaying interaction count per author they liked or commented
+ * on. Features live only in memory and start from zero after a restart.
+ */
+@Service
+public class EngagementFeatureStore {
+
+    private static final double LIKE_AFFINITY = 1;
+    private static final double COMMENT_AFFINITY = 2;
+
+    @Value("${feed.ranking.velocity-half-life-minutes:60}")
+    private long velocityHalfLifeMinutes;
+
+    @Value("${feed.ranking.affinity-half-life-days:14}")
+    private long affinityHalfLifeDays;
+
+    @Value("${feed.ranking.max-posts:100000}")
+    private int maxPosts;
+
+    @Value("${feed.ranking.max-viewers:50000}")
+    private int maxViewers;
+
+    @Value("${feed.ranking.max-authors-per-viewer:200}")
+    private int maxAuthorsPerViewer;
+
+    private final Map<Long, PostFeatures> posts = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, DecayingCounter>> affinities = new ConcurrentHashMap<>();
+
+    /**
+     * Count new likes of a post once the current transaction commits
+     */
+    public void likesAdded(Long postId, long count) {
+        afterCommit(() -> featuresOf(postId).likes.add(count, System.currentTimeMillis()));
+    }
+
+    /**
+     * Count a user liking an author's post towards their affinity, once the current transaction commits
+     */
+    public void userLiked(Long userId, Long authorId) {
+        afterCommit(() -> interact(userId, authorId, LIKE_AFFINITY));
+    }
+
+    /**
+     * Count a new comment once the current transaction commits
+     */
+    public void commentAdded(Long postId, Long userId, Long authorId) {
+        afterCommit(() -> {
+            featuresOf(postId).comments.add(1, System.currentTimeMillis());
+            interact(userId, authorId, COMMENT_AFFINITY);
+        });
+    }
+
+    /**
+     * Get the recent like and comment velocity of a post
+     *
+     * @return Likes and comments, in that order, or null if the post had no recent engagement
+     */
+    public double[] getVelocity(Long postId, long now) {
+        PostFeatures features = posts.get(postId);
+        if (features == null) {
+            return null;
+        }
+        return new double[] { features.likes.valueAt(now), features.comments.valueAt(now) };
+    }
+
+    /**
+     * Get a viewer's affinity with every author they recently interacted with
+     */
+    public Map<Long, Double> getAffinities(Long viewerId, long now) {
+        Map<Long, DecayingCounter> byAuthor = affinities.get(viewerId);
+        if (byAuthor == null) {
+            return Map.of();
+        }
+        Map<Long, Double> snapshot = new HashMap<>();
+        for (Map.Entry<Long, DecayingCounter> entry : byAuthor.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().valueAt(now));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drop the features of deleted or archived posts
+     */
+    public void forget(Iterable<Long> postIds) {
+        for (Long postId : postIds) {
+            posts.remove(postId);
+        }
+    }
+
+    private PostFeatures featuresOf(Long postId) {
+        if (posts.size() >= maxPosts && !posts.containsKey(postId)) {
+            // Drop posts whose engagement has faded, and start over if none has
+            long now = System.currentTimeMillis();
+            posts.values().removeIf(features -> features.likes.valueAt(now) + features.comments.valueAt(now) < 0.01);
+            if (posts.size() >= maxPosts) {
+                posts.clear();
+            }
+        }
+        return posts.computeIfAbsent(postId, id -> new PostFeatures(TimeUnit.MINUTES.toMillis(velocityHalfLifeMinutes)));
+    }
+
+    private void interact(Long userId, Long authorId, double weight) {
+        if (userId.equals(authorId)) {
+            return;
+        }
+        if (affinities.size() >= maxViewers && !affinities.containsKey(userId)) {
+            affinities.clear();
+        }
+        Map<Long, DecayingCounter> byAuthor = affinities.computeIfAbsent(userId, id -> new ConcurrentHashMap<>());
+        if (byAuthor.size() >= maxAuthorsPerViewer && !byAuthor.containsKey(authorId)) {
+            // Make room by forgetting the author the viewer cares least about now
+            long now = System.currentTimeMillis();
+            byAuthor.entrySet().stream()
+                    .min(Map.Entry.comparingByValue((a, b) -> Double.compare(a.valueAt(now), b.valueAt(now))))
+                    .ifPresent(weakest -> byAuthor.remove(weakest.getKey()));
+        }
+        byAuthor.computeIfAbsent(authorId, id -> new DecayingCounter(TimeUnit.DAYS.toMillis(affinityHalfLifeDays)))
+                .add(weight, System.currentTimeMillis());
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static final class PostFeatures {
+        private final DecayingCounter likes;
+        private final DecayingCounter comments;
+
+        private PostFeatures(long halfLifeMillis) {
+            this.likes = new DecayingCounter(halfLifeMillis);
+            this.comments = new DecayingCounter(halfLifeMillis);
+        }
+    }
+}
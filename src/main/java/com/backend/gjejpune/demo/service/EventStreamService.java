@@ -0,0 +1,295 @@
+package com.backend.gjejpune.demo.service;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.backend.gjejpune.demo.payload.response.StreamEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-process event bus pushing events to users connected over Server-Sent Events.
+ *
+ * An open stream is an async request, so an idle connection holds no thread, only its emitter
+ * and a small bounded queue. Publishing never blocks: events are offered to the queues of the
+ * recipient's connections and a small pool of dispatcher threads writes them out. A connection
+ * whose queue is full is not keeping up and is closed; the client reconnects and refetches.
+ * Events are published after the transaction that caused them commits, and only reach users
+ * connected to this node.
+ */
+@Service
+public class EventStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamService.class);
+
+    @Autowired
+    private RequestLookupContext requestLookupContext;
+
+    @Value("${events.enabled:true}")
+    private boolean enabled;
+
+    @Value("${events.max-connections:50000}")
+    private int maxConnections;
+
+    @Value("${events.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${events.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${events.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private ExecutorService dispatcher;
+
+    @PostConstruct
+    public void init() {
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "event-stream-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                disconnect(connection);
+            }
+        }
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Open a stream for a user
+     *
+     * @return The emitter to return from the controller, or null if this node has no room for another connection
+     */
+    public SseEmitter connect(Long userId) {
+        if (!enabled) {
+            return null;
+        }
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(userId, emitter, queueCapacity);
+        // Added inside compute, so a concurrent removal of the user's last connection cannot drop the set under it
+        Set<Connection> userConnections = connections.compute(userId, (id, existing) -> {
+            Set<Connection> set = existing != null ? existing : ConcurrentHashMap.newKeySet();
+            set.add(connection);
+            return set;
+        });
+        // A user opening too many tabs loses the oldest ones
+        if (userConnections.size() > maxConnectionsPerUser) {
+            userConnections.stream()
+                    .filter(other -> other != connection)
+                    .min((a, b) -> Long.compare(a.openedAt, b.openedAt))
+                    .ifPresent(this::disconnect);
+        }
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> disconnect(connection));
+        emitter.onError(error -> remove(connection));
+
+        // Tell the client how long to wait before reconnecting, and flush the response headers
+        offer(connection, SseEmitter.event().comment("connected").reconnectTime(3000));
+        return emitter;
+    }
+
+    /**
+     * Tell the author's friends about a new post, unless it is private
+     */
+    public void postCreated(Long authorId, Long postId, boolean isPrivate) {
+        if (isPrivate) {
+            return;
+        }
+        afterCommit(() -> publish(requestLookupContext.getFriendIds(authorId), StreamEvent.newPost(authorId, postId)));
+    }
+
+    /**
+     * Tell a post's author that someone liked it
+     */
+    public void postLiked(Long authorId, Long userId, Long postId) {
+        if (!authorId.equals(userId)) {
+            afterCommit(() -> publish(List.of(authorId), StreamEvent.like(userId, postId)));
+        }
+    }
+
+    /**
+     * Tell a post's author that someone commented on it
+     */
+    public void commentAdded(Long authorId, Long userId, Long postId, Long commentId) {
+        if (!authorId.equals(userId)) {
+            afterCommit(() -> publish(List.of(authorId), StreamEvent.comment(userId, postId, commentId)));
+        }
+    }
+
+    /**
+     * Tell a user they received a friend request
+     */
+    public void friendRequestSent(Long addresseeId, Long requesterId, Long friendshipId) {
+        afterCommit(() -> publish(List.of(addresseeId), StreamEvent.friendRequest(requesterId, friendshipId)));
+    }
+
+    /**
+     * Get the number of open streams on this node
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Send a comment line to every stream, so proxies keep idle connections open and dead ones are noticed
+     */
+    @Scheduled(fixedDelayString = "${events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                offer(connection, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    private void publish(Collection<Long> userIds, StreamEvent event) {
+        String id = String.valueOf(sequence.incrementAndGet());
+        for (Long userId : userIds) {
+            Set<Connection> userConnections = connections.get(userId);
+            if (userConnections == null) {
+                continue;
+            }
+            for (Connection connection : userConnections) {
+                // Builders are consumed by sending, so every connection gets its own
+                offer(connection, SseEmitter.event().id(id).name(event.getType()).data(event, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    private void offer(Connection connection, SseEmitter.SseEventBuilder event) {
+        if (connection.closed) {
+            return;
+        }
+        if (!connection.queue.offer(event)) {
+            logger.debug("Dropping slow event stream of user {}", connection.userId);
+            disconnect(connection);
+            return;
+        }
+        if (connection.scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(connection));
+        }
+    }
+
+    private void drain(Connection connection) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            while ((event = connection.queue.poll()) != null) {
+                if (connection.closed) {
+                    connection.queue.clear();
+                    break;
+                }
+                try {
+                    connection.emitter.send(event);
+                } catch (IOException | IllegalStateException ex) {
+                    // The client went away; the container reports completion separately
+                    remove(connection);
+                    connection.queue.clear();
+                    break;
+                }
+            }
+            connection.scheduled.set(false);
+            // An event offered after the last poll but before the flag was cleared would otherwise wait
+            if (connection.queue.isEmpty() || !connection.scheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        if (remove(connection)) {
+            try {
+                connection.emitter.complete();
+            } catch (RuntimeException ex) {
+                // Already completed by the container
+            }
+        }
+    }
+
+    // Unregister a connection; returns whether this call was the one that closed it
+    private boolean remove(Connection connection) {
+        synchronized (connection) {
+            if (connection.closed) {
+                return false;
+            }
+            connection.closed = true;
+        }
+        connectionCount.decrementAndGet();
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+        return true;
+    }
+
+    private void afterCommit(Runnable publish) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+
+    private static final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private final long openedAt = System.nanoTime();
+        private volatile boolean closed;
+
+        private Connection(Long userId, SseEmitter emitter, int queueCapacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.backend.gjejpune.demo.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.gjejpune.demo.model.PostChange;
+import com.backend.gjejpune.demo.model.PostChange.ChangeType;
+import com.backend.gjejpune.demo.repository.PostChangeRepository;
+
+/**
+ * Append-only log of post changes, read by feed delta sync.
+ *
+ * Every change is one insert in the transaction that makes it, so the log commits with the
+ * change. Log IDs are assigned at insert but become visible at commit, which can be out of
+ * order, so a client's mark never passes an entry that may still commit: it stops below the
+ * oldest entry this node inserted and has not finished yet, and below entries newer than a
+ * short settle time, which covers transactions on other nodes. Entries above the mark are
+ * returned again on the next call, which is harmless since a delta carries current state
+ * rather than increments.
+ */
+@Service
+public class FeedChangeLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedChangeLog.class);
+    private static final int PRUNE_BATCH_SIZE = 10000;
+
+    @Autowired
+    private PostChangeRepository postChangeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${feed.changes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${feed.changes.retention-hours:168}")
+    private long retentionHours;
+
+    @Value("${feed.changes.settle-ms:2000}")
+    private long settleMs;
+
+    @Value("${feed.changes.max-entries:500}")
+    private int maxEntries;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Entries inserted here whose transaction has not completed yet
+    private final NavigableSet<Long> uncommitted = new ConcurrentSkipListSet<>();
+
+    // Newest entry older than the settle time, refreshed in the background; -1 until first read
+    private volatile long settledId = -1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Log a change of a post. Must be called inside the transaction making the change,
+     * and for a deletion before the post row is deleted.
+     */
+    public void record(Long postId, ChangeType type) {
+        if (!enabled || postChangeRepository.append(postId, type.name(), Instant.now()) == 0) {
+            return;
+        }
+
+        Long changeId = postChangeRepository.findLastInsertId();
+        if (changeId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            uncommitted.add(changeId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    uncommitted.remove(changeId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Get the mark a client that has just loaded its feed should start from
+     */
+    public FeedChangeMark currentMark() {
+        if (settledId < 0) {
+            refreshSettled();
+        }
+
+        long mark = settledId;
+        Long oldestOpen = uncommitted.isEmpty() ? null : uncommitted.first();
+        if (oldestOpen != null) {
+            mark = Math.min(mark, oldestOpen - 1);
+        }
+        return new FeedChangeMark(Math.max(0, mark));
+    }
+
+    /**
+     * Seek the newest entry older than the settle time. Runs off the request path so polls
+     * don't query the log for it; the ID only moves forward.
+     */
+    @Scheduled(fixedDelayString = "${feed.changes.settle-refresh-ms:500}")
+    public void refreshSettled() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            List<Long> newest = postChangeRepository.findNewestIdsBefore(Instant.now().minusMillis(settleMs),
+                    PageRequest.of(0, 1));
+            long id = newest.isEmpty() ? 0 : newest.get(0);
+            settledId = Math.max(settledId, id);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not read the settled post change. Error: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Get where a client continues after reading the changes since a mark
+     */
+    public FeedChangeMark nextMark(FeedChangeMark since) {
+        return new FeedChangeMark(Math.max(since.getChangeId(), currentMark().getChangeId()));
+    }
+
+    /**
+     * Read the changes of posts by the given authors after a mark, one entry per post standing
+     * for all of its changes, ordered by the post's last change
+     *
+     * @return The changes, or null if some may already have been pruned or there are too many
+     *         for a delta to be worth it, in which case the client should refetch
+     */
+    public List<PostChange> readAfter(FeedChangeMark since, Collection<Long> authorIds) {
+        Long minId = postChangeRepository.findMinId();
+        boolean pruned = minId == null ? since.getChangeId() > 0 : since.getChangeId() + 1 < minId;
+        if (pruned) {
+            return null;
+        }
+
+        List<Object[]> rows = postChangeRepository.findCollapsedByAuthorIdInAfter(authorIds, since.getChangeId(),
+                maxEntries + 1);
+        if (rows.size() > maxEntries) {
+            return null;
+        }
+
+        List<PostChange> changes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            int kind = ((Number) row[2]).intValue();
+            ChangeType type = kind == 2 ? ChangeType.DELETED : kind == 1 ? ChangeType.UPDATED : ChangeType.ENGAGEMENT;
+            changes.add(new PostChange(((Number) row[1]).longValue(), ((Number) row[0]).longValue(), type));
+        }
+        return changes;
+    }
+
+    /**
+     * Delete entries older than the retention period, in batches
+     */
+    @Scheduled(fixedDelayString = "${feed.changes.prune-interval-ms:600000}")
+    public void prune() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            Instant cutoff = Instant.now().minus(retentionHours, ChronoUnit.HOURS);
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            int deleted;
+            do {
+                deleted = template.execute(status -> postChangeRepository.deleteOlderThan(cutoff, PRUNE_BATCH_SIZE));
+            } while (deleted == PRUNE_BATCH_SIZE);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not prune the post change log. Error: {}", ex.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.backend.gjejpune.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque high-water mark into the post change log: the last log entry a client has applied
+ */
+public final class FeedChangeMark {
+
+    private final long changeId;
+
+    public FeedChangeMark(long changeId) {
+        this.changeId = changeId;
+    }
+
+    public long getChangeId() {
+        return changeId;
+    }
+
+    /**
+     * Encode as a URL-safe token
+     */
+    public String encode() {
+        String raw = "c|" + changeId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a token produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException If the token is malformed
+     */
+    public static FeedChangeMark decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2 || !parts[0].equals("c")) {
+                throw new IllegalArgumentException("Malformed change mark");
+            }
+            return new FeedChangeMark(Long.parseLong(parts[1]));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed change mark", ex);
+        }
+    }
+}
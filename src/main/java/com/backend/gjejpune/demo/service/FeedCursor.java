@@ -0,0 +1,109 @@
+package com.backend.gjejpune.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque resume point for the ranked feed.
+ *
+ * While the client pages through the ranking it points into the snapshot taken for the first
+ * page and remembers the oldest ranked post. Past the ranking it is a (createdAt, id) keyset
+ * position in the newest-first feed below that post.
+ */
+public final class FeedCursor {
+
+    private static final String RANKED = "R";
+    private static final String OLDER = "C";
+
+    private final Long snapshotId;
+    private final int offset;
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    private FeedCursor(Long snapshotId, int offset, LocalDateTime createdAt, Long id) {
+        this.snapshotId = snapshotId;
+        this.offset = offset;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * A position in a ranking snapshot
+     *
+     * @param edgeCreatedAt Creation time of the oldest ranked post, or null if the ranking holds the whole feed
+     * @param edgeId ID of the oldest ranked post, or null if the ranking holds the whole feed
+     */
+    public static FeedCursor ranked(long snapshotId, int offset, LocalDateTime edgeCreatedAt, Long edgeId) {
+        return new FeedCursor(snapshotId, offset, edgeCreatedAt, edgeId);
+    }
+
+    /**
+     * A position in the newest-first feed, after the given post
+     */
+    public static FeedCursor olderThan(LocalDateTime createdAt, long id) {
+        return new FeedCursor(null, 0, createdAt, id);
+    }
+
+    public boolean isRanked() {
+        return snapshotId != null;
+    }
+
+    public Long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Creation time of the post to continue after: the oldest ranked post while ranked, or null
+     * if the ranking holds the whole feed
+     */
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Encode as a URL-safe token
+     */
+    public String encode() {
+        String raw = isRanked()
+                ? RANKED + "|" + snapshotId + "|" + offset + "|" + (createdAt != null ? createdAt + "|" + id : "-|-")
+                : OLDER + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a token produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException If the token is malformed
+     */
+    public static FeedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length == 5 && RANKED.equals(parts[0])) {
+                int offset = Integer.parseInt(parts[2]);
+                if (offset < 0) {
+                    throw new IllegalArgumentException("Malformed cursor");
+                }
+                boolean wholeFeed = "-".equals(parts[3]) && "-".equals(parts[4]);
+                return ranked(Long.parseLong(parts[1]), offset,
+                        wholeFeed ? null : LocalDateTime.parse(parts[3]), wholeFeed ? null : Long.parseLong(parts[4]));
+            }
+            if (parts.length == 3 && OLDER.equals(parts[0])) {
+                return olderThan(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+            }
+            throw new IllegalArgumentException("Malformed cursor");
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed cursor", ex);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.backend.gjejpune.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.backend.gjejpune.demo.ranking.FeedCandidate;
+import com.backend.gjejpune.demo.ranking.FeedScorer;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Orders a bounded set of feed candidates by the configured {@link FeedScorer}.
+ *
+ * Features come from {@link EngagementFeatureStore}, so ranking is a few map lookups and one
+ * score per candidate followed by a sort, with no I/O.
+ *
+ * Scores move with every like, so a ranking computed again for each page would skip and repeat
+ * posts. The ranking made for a viewer's first page is kept as a snapshot, and the following
+ * pages read it, until the viewer starts over or the snapshot expires.
+ */
+@Service
+public class FeedRanker {
+
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    @Autowired
+    private EngagementFeatureStore engagementFeatureStore;
+
+    @Autowired
+    private Map<String, FeedScorer> scorers;
+
+    @Value("${feed.ranking.enabled:true}")
+    private boolean enabled;
+
+    @Value("${feed.ranking.scorer:engagement}")
+    private String scorerName;
+
+    @Value("${feed.ranking.max-candidates:1000}")
+    private int maxCandidates;
+
+    @Value("${feed.ranking.snapshot-ttl-minutes:30}")
+    private long snapshotTtlMinutes;
+
+    @Value("${feed.ranking.max-snapshots:10000}")
+    private int maxSnapshots;
+
+    private FeedScorer scorer;
+
+    // The latest ranking made for each viewer's first page
+    private final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        scorer = scorers.get(scorerName);
+        if (scorer == null) {
+            throw new IllegalStateException("Unknown feed scorer: " + scorerName + ", expected one of " + scorers.keySet());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get how many of the newest feed posts are ranked
+     */
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    /**
+     * Rank a viewer's candidates and keep the result for the following pages, replacing the
+     * viewer's previous snapshot
+     *
+     * @param candidates Rows of (post ID, author ID, createdAt), newest first
+     */
+    public Snapshot snapshot(List<Object[]> candidates, Long viewerId) {
+        // Only a full window leaves older posts out, which are then listed after the ranking
+        Object[] edge = candidates.size() >= maxCandidates ? candidates.get(candidates.size() - 1) : null;
+        Snapshot snapshot = new Snapshot(ThreadLocalRandom.current().nextLong(), rank(candidates, viewerId),
+                edge != null ? (LocalDateTime) edge[2] : null, edge != null ? (Long) edge[0] : null,
+                System.nanoTime() + TimeUnit.MINUTES.toNanos(snapshotTtlMinutes));
+
+        if (snapshots.size() >= maxSnapshots && !snapshots.containsKey(viewerId)) {
+            // Drop expired snapshots, and start over if none has
+            long now = System.nanoTime();
+            snapshots.values().removeIf(existing -> existing.isExpired(now));
+            if (snapshots.size() >= maxSnapshots) {
+                snapshots.clear();
+            }
+        }
+        snapshots.put(viewerId, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Get a snapshot made by {@link #snapshot}
+     *
+     * @return The snapshot, or null if it expired, was dropped, or the viewer has started over since
+     */
+    public Snapshot getSnapshot(Long viewerId, long snapshotId) {
+        Snapshot snapshot = snapshots.get(viewerId);
+        if (snapshot == null || snapshot.getId() != snapshotId || snapshot.isExpired(System.nanoTime())) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Order candidate posts best first for a viewer
+     *
+     * @param candidates Rows of (post ID, author ID, createdAt)
+     * @param viewerId The user whose feed is ranked
+     * @return The post IDs, best first
+     */
+    public List<Long> rank(List<Object[]> candidates, Long viewerId) {
+        long nowMillis = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Double> affinities = engagementFeatureStore.getAffinities(viewerId, nowMillis);
+
+        int count = candidates.size();
+        long[] postIds = new long[count];
+        double[] scores = new double[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            Object[] row = candidates.get(i);
+            long postId = (Long) row[0];
+            long authorId = (Long) row[1];
+            double ageHours = Math.max(0, Duration.between((LocalDateTime) row[2], now).toMillis() / MILLIS_PER_HOUR);
+            double[] velocity = engagementFeatureStore.getVelocity(postId, nowMillis);
+
+            postIds[i] = postId;
+            scores[i] = scorer.score(new FeedCandidate(postId, authorId, ageHours,
+                    velocity != null ? velocity[0] : 0, velocity != null ? velocity[1] : 0,
+                    affinities.getOrDefault(authorId, 0.0)));
+            order[i] = i;
+        }
+
+        // Ties keep the candidates' newest-first order, since the sort is stable
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+        List<Long> ranked = new ArrayList<>(count);
+        for (Integer index : order) {
+            ranked.add(postIds[index]);
+        }
+        return ranked;
+    }
+
+    /**
+     * A viewer's feed ranking as it was for their first page
+     */
+    public static final class Snapshot {
+        private final long id;
+        private final List<Long> postIds;
+        private final LocalDateTime edgeCreatedAt;
+        private final Long edgeId;
+        private final long expiresAt;
+
+        private Snapshot(long id, List<Long> postIds, LocalDateTime edgeCreatedAt, Long edgeId, long expiresAt) {
+            this.id = id;
+            this.postIds = List.copyOf(postIds);
+            this.edgeCreatedAt = edgeCreatedAt;
+            this.edgeId = edgeId;
+            this.expiresAt = expiresAt;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        // Ranked post IDs, best first
+        public List<Long> getPostIds() {
+            return postIds;
+        }
+
+        // Creation time of the oldest ranked post, or null if the ranking holds the whole feed
+        public LocalDateTime getEdgeCreatedAt() {
+            return edgeCreatedAt;
+        }
+
+        // ID of the oldest ranked post, or null if the ranking holds the whole feed
+        public Long getEdgeId() {
+            return edgeId;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -2,10 +2,13 @@ package com.backend.gjejpune.demo.service;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +30,8 @@ public class FileStorageService {
 
     private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
     
+    private static final String FILE_ENDPOINT_PATH = "/api/files/";
+    
     @Value("${file.upload-dir}")
     private String uploadDir;
     
@@ -92,7 +97,7 @@ public class FileStorageService {
             
             // Create a URL for the file
             String fileUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/api/files/")
+                    .path(FILE_ENDPOINT_PATH)
                     .path(subDirectory != null && !subDirectory.isEmpty() ? subDirectory + "/" : "")
                     .path(uniqueFileName)
                     .toUriString();
@@ -107,6 +112,122 @@ public class FileStorageService {
         }
     }
     
+    /**
+     * Store generated content under a fixed file name, keeping the existing file if there is one
+     * 
+     * @param data The file content
+     * @param subDirectory The subdirectory to store the file in
+     * @param fileName The file name to store the content as
+     * @return The URL of the stored file
+     */
+    public String storeBytes(byte[] data, String subDirectory, String fileName) {
+        if (fileName.contains("..") || fileName.contains("/")) {
+            throw new RuntimeException("Sorry! Filename contains invalid path sequence " + fileName);
+        }
+        
+        try {
+            Path targetPath = this.fileStoragePath.resolve(subDirectory);
+            Files.createDirectories(targetPath);
+            
+            Path targetLocation = targetPath.resolve(fileName);
+            if (!Files.exists(targetLocation)) {
+                Files.write(targetLocation, data, StandardOpenOption.CREATE_NEW);
+                logger.info("Stored generated file {} in {}", fileName, subDirectory);
+            }
+        } catch (FileAlreadyExistsException ex) {
+            // Another request stored the same content first
+        } catch (IOException ex) {
+            logger.error("Could not store file {}. Error: {}", fileName, ex.getMessage());
+            throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
+        }
+        
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path(FILE_ENDPOINT_PATH)
+                .path(subDirectory + "/")
+                .path(fileName)
+                .toUriString();
+    }
+    
+    /**
+     * Read a stored file into memory
+     * 
+     * @param fileName The file name relative to the upload directory
+     * @return The file content, or null if the file does not exist
+     */
+    public byte[] loadFileBytes(String fileName) {
+        Path filePath = this.fileStoragePath.resolve(fileName).normalize();
+        if (!filePath.startsWith(this.fileStoragePath)) {
+            throw new RuntimeException("Sorry! Filename contains invalid path sequence " + fileName);
+        }
+        
+        try {
+            return Files.readAllBytes(filePath);
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            logger.error("Could not read file {}. Error: {}", fileName, ex.getMessage());
+            throw new RuntimeException("Could not read file " + fileName, ex);
+        }
+    }
+    
+    /**
+     * Get the absolute root directory that uploaded files are stored under
+     * 
+     * @return The upload root directory
+     */
+    public Path getFileStoragePath() {
+        return fileStoragePath;
+    }
+    
+    /**
+     * Resolve a file URL produced by {@link #storeFile(MultipartFile, String)} back to the
+     * stored file name relative to the upload directory (e.g. "post_images/abc.jpg")
+     * 
+     * @param fileUrl The public URL of the file
+     * @return The relative file name, or null if the URL does not point at our file endpoint
+     */
+    public String resolveStoredFileName(String fileUrl) {
+        if (fileUrl == null) {
+            return null;
+        }
+        
+        int index = fileUrl.indexOf(FILE_ENDPOINT_PATH);
+        if (index < 0) {
+            return null;
+        }
+        
+        String fileName = fileUrl.substring(index + FILE_ENDPOINT_PATH.length());
+        int queryIndex = fileName.indexOf('?');
+        if (queryIndex >= 0) {
+            fileName = fileName.substring(0, queryIndex);
+        }
+        
+        if (fileName.isEmpty() || fileName.contains("..")) {
+            return null;
+        }
+        return fileName;
+    }
+    
+    /**
+     * Delete a stored file
+     * 
+     * @param fileName The file name relative to the upload directory
+     * @return true if the file existed and was deleted, false otherwise
+     */
+    public boolean deleteStoredFile(String fileName) {
+        Path filePath = this.fileStoragePath.resolve(fileName).normalize();
+        if (!filePath.startsWith(this.fileStoragePath)) {
+            throw new RuntimeException("Sorry! Filename contains invalid path sequence " + fileName);
+        }
+        
+        try {
+            return Files.deleteIfExists(filePath);
+        } catch (IOException ex) {
+            logger.error("Could not delete file {}. Error: {}", fileName, ex.getMessage());
+            return false;
+        }
+    }
+    
     public Resource loadFileAsResource(String fileName) {
         try {
             Path filePath = this.fileStoragePath.resolve(fileName).normalize();
@@ -0,0 +1,110 @@
+package com.backend.gjejpune.demo.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+import com.backend.gjejpune.demo.model.Post;
+
+/**
+ * Builds full pages of posts from listings that are filtered after loading.
+ *
+ * Rows are read in keyset batches after the cursor and filtered batch by batch until the
+ * page holds the requested number of visible posts or the listing runs out. Each batch is
+ * sized from the share of rows that passed the filter so far, so a viewer who can only see
+ * a few posts costs a few larger queries instead of many small requests. A scan budget
+ * bounds the work per request; when it runs out the page is returned short with a cursor.
+ */
+public final class FillToSizePager {
+
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final int MAX_ROWS_SCANNED = 1000;
+
+    private FillToSizePager() {
+    }
+
+    /**
+     * Loads up to limit posts ordered by (createdAt, id) descending, strictly after the cursor
+     */
+    public interface BatchLoader {
+        List<Post> load(PostCursor after, int limit);
+    }
+
+    /**
+     * Collect up to size visible posts starting after the cursor
+     *
+     * @param size Number of visible posts wanted
+     * @param start Where to resume, or null to start at the newest post
+     * @param loader Reads the next batch of the listing
+     * @param visibility Marks the posts of a batch the viewer may see
+     * @return The visible posts and the cursor to resume from, null once the listing is exhausted
+     */
+    public static Result fill(int size, PostCursor start, BatchLoader loader, Function<List<Post>, BitSet> visibility) {
+        List<Post> content = new ArrayList<>(size);
+        PostCursor position = start;
+        long scanned = 0;
+        long visible = 0;
+        boolean exhausted = false;
+
+        while (content.size() < size && scanned < MAX_ROWS_SCANNED) {
+            int batchSize = nextBatchSize(size - content.size(), scanned, visible, start, MAX_ROWS_SCANNED - scanned);
+            List<Post> batch = loader.load(position, batchSize);
+            BitSet accessible = visibility.apply(batch);
+
+            int consumed = 0;
+            for (int i = 0; i < batch.size() && content.size() < size; i++) {
+                consumed++;
+                if (accessible.get(i)) {
+                    content.add(batch.get(i));
+                    visible++;
+                }
+            }
+            scanned += consumed;
+
+            if (consumed > 0) {
+                position = PostCursor.after(batch.get(consumed - 1), selectivityPercent(scanned, visible, start));
+            }
+            if (batch.size() < batchSize && consumed == batch.size()) {
+                exhausted = true;
+                break;
+            }
+        }
+
+        return new Result(content, exhausted ? null : position);
+    }
+
+    private static int nextBatchSize(int needed, long scanned, long visible, PostCursor start, long budget) {
+        double selectivity = selectivityPercent(scanned, visible, start) / 100.0;
+        long batchSize = (long) Math.ceil(needed / selectivity);
+        return (int) Math.max(1, Math.min(Math.min(batchSize, MAX_BATCH_SIZE), budget));
+    }
+
+    private static int selectivityPercent(long scanned, long visible, PostCursor start) {
+        if (scanned == 0) {
+            return start != null ? start.getSelectivityPercent() : 100;
+        }
+        return (int) Math.max(1, Math.ceil(visible * 100.0 / scanned));
+    }
+
+    /**
+     * A filled page and where to continue
+     */
+    public static final class Result {
+        private final List<Post> content;
+        private final PostCursor nextCursor;
+
+        Result(List<Post> content, PostCursor nextCursor) {
+            this.content = content;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Post> getContent() {
+            return content;
+        }
+
+        public PostCursor getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
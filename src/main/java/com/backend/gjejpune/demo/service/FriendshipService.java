@@ -1,7 +1,9 @@
 package com.backend.gjejpune.demo.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +25,18 @@ public class FriendshipService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserSuggestService userSuggestService;
+    
+    @Autowired
+    private RequestLookupContext requestLookupContext;
+    
+    @Autowired
+    private EventStreamService eventStreamService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
     /**
      * Send a friend request from one user to another
      */
@@ -48,7 +62,11 @@ public class FriendshipService {
                 // If the request was from the other user, accept it
                 if (friendship.getRequester().getId().equals(addresseeId)) {
                     friendship.setStatus(FriendshipStatus.ACCEPTED);
-                    return friendshipRepository.save(friendship);
+                    friendship = friendshipRepository.save(friendship);
+                    requestLookupContext.invalidateFriendship(requesterId, addresseeId);
+                    userSuggestService.friendshipChanged(requesterId, addresseeId, true);
+                    notificationService.friendRequestAccepted(addresseeId, requesterId, friendship.getId());
+                    return friendship;
                 } else {
                     throw new RuntimeException("Error: Friend request already sent.");
                 }
@@ -56,18 +74,22 @@ public class FriendshipService {
                 // If previously rejected, update to pending
                 if (friendship.getRequester().getId().equals(requesterId)) {
                     friendship.setStatus(FriendshipStatus.PENDING);
-                    return friendshipRepository.save(friendship);
+                    friendship = friendshipRepository.save(friendship);
                 } else {
                     // Create new request in the opposite direction
-                    Friendship newFriendship = new Friendship(requester, addressee);
-                    return friendshipRepository.save(newFriendship);
+                    friendship = friendshipRepository.save(new Friendship(requester, addressee));
                 }
+                eventStreamService.friendRequestSent(addresseeId, requesterId, friendship.getId());
+                notificationService.friendRequestSent(addresseeId, requesterId, friendship.getId());
+                return friendship;
             }
         }
         
         // Create new friendship
-        Friendship friendship = new Friendship(requester, addressee);
-        return friendshipRepository.save(friendship);
+        Friendship friendship = friendshipRepository.save(new Friendship(requester, addressee));
+        eventStreamService.friendRequestSent(addresseeId, requesterId, friendship.getId());
+        notificationService.friendRequestSent(addresseeId, requesterId, friendship.getId());
+        return friendship;
     }
     
     /**
@@ -89,7 +111,11 @@ public class FriendshipService {
         }
         
         friendship.setStatus(FriendshipStatus.ACCEPTED);
-        return friendshipRepository.save(friendship);
+        friendship = friendshipRepository.save(friendship);
+        requestLookupContext.invalidateFriendship(friendship.getRequester().getId(), userId);
+        userSuggestService.friendshipChanged(friendship.getRequester().getId(), userId, true);
+        notificationService.friendRequestAccepted(friendship.getRequester().getId(), userId, friendship.getId());
+        return friendship;
     }
     
     /**
@@ -154,6 +180,8 @@ public class FriendshipService {
             
             if (friendship.getStatus() == FriendshipStatus.ACCEPTED) {
                 friendshipRepository.delete(friendship);
+                requestLookupContext.invalidateFriendship(userId, friendId);
+                userSuggestService.friendshipChanged(userId, friendId, false);
             } else {
                 throw new RuntimeException("Error: Users are not friends.");
             }
@@ -165,6 +193,7 @@ public class FriendshipService {
     /**
      * Get all friend requests received by a user
      */
+    @Transactional(readOnly = true)
     public List<Friendship> getFriendRequestsReceived(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
@@ -175,6 +204,7 @@ public class FriendshipService {
     /**
      * Get all friend requests sent by a user
      */
+    @Transactional(readOnly = true)
     public List<Friendship> getFriendRequestsSent(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
@@ -185,6 +215,7 @@ public class FriendshipService {
     /**
      * Get all friends of a user
      */
+    @Transactional(readOnly = true)
     public List<User> getFriends(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
@@ -210,29 +241,27 @@ public class FriendshipService {
      * Get IDs of all friends of a user
      */
     public List<Long> getFriendIds(Long userId) {
-        return getFriends(userId).stream()
-                .map(User::getId)
-                .collect(Collectors.toList());
+        return new ArrayList<>(requestLookupContext.getFriendIds(userId));
+    }
+    
+    /**
+     * Get IDs of all friends of a user as a set, for repeated membership checks
+     */
+    public Set<Long> getFriendIdSet(Long userId) {
+        return requestLookupContext.getFriendIds(userId);
     }
     
     /**
      * Check if two users are friends
      */
     public boolean areFriends(Long userId1, Long userId2) {
-        User user1 = userRepository.findById(userId1)
-                .orElseThrow(() -> new RuntimeException("Error: User 1 not found."));
-        
-        User user2 = userRepository.findById(userId2)
-                .orElseThrow(() -> new RuntimeException("Error: User 2 not found."));
-        
-        Optional<Friendship> friendship = friendshipRepository.findFriendshipBetweenUsers(user1, user2);
-        
-        return friendship.isPresent() && friendship.get().getStatus() == FriendshipStatus.ACCEPTED;
+        return requestLookupContext.areFriends(userId1, userId2);
     }
     
     /**
      * Get friendship status between two users
      */
+    @Transactional(readOnly = true)
     public String getFriendshipStatus(Long userId1, Long userId2) {
         User user1 = userRepository.findById(userId1)
                 .orElseThrow(() -> new RuntimeException("Error: User 1 not found."));
@@ -0,0 +1,200 @@
+package com.backend.gjejpune.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.gjejpune.demo.repository.LikeRepository;
+
+/**
+ * Committed like counts per post, kept in memory so likes and post listings need no COUNT query.
+ *
+ * A miss inside a transaction is counted on the caller's own connection and returned without
+ * being cached, since the transaction's snapshot may predate writes that already committed.
+ * The post is queued instead, and a background job loads the queued counts in batches with
+ * one auto-commit query, which reads the latest committed state. A miss outside a
+ * transaction is loaded and cached at once. From then on a count only moves when a like or
+ * unlike that changed a row commits. A load that overlaps such a write is not cached, so a
+ * count that missed a concurrent write is never stored.
+ */
+@Service
+public class LikeCounterStore {
+
+    private static final int STRIPES = 1024;
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Value("${likes.counter.max-entries:100000}")
+    private int maxEntries;
+
+    private final Map<Long, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    // Posts missed inside a transaction, waiting for the next batch load
+    private final Set<Long> misses = ConcurrentHashMap.newKeySet();
+
+    // Per stripe: bumped when a write starts and when it completes, and the number still in flight
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+    private final AtomicIntegerArray writers = new AtomicIntegerArray(STRIPES);
+
+    /**
+     * Get the committed number of likes of a post
+     */
+    public long getCount(Long postId) {
+        AtomicLong cached = counts.get(postId);
+        if (cached != null) {
+            return cached.get();
+        }
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            if (misses.size() < maxEntries) {
+                misses.add(postId);
+            }
+            return likeRepository.countByPostId(postId);
+        }
+
+        int stripe = stripeOf(postId);
+        long version = versions.get(stripe);
+        boolean quiet = writers.get(stripe) == 0;
+        long count = likeRepository.countByPostId(postId);
+        if (!quiet || versions.get(stripe) != version) {
+            return count;
+        }
+        return cache(postId, count);
+    }
+
+    /**
+     * Get the number of likes of a post as the current transaction sees it after changing its
+     * own like row. A cached count is committed, so the transaction's change is added to it;
+     * a miss is counted on the transaction's connection, which already sees the change.
+     *
+     * @param ownDelta 1 if this transaction inserted a like, -1 if it deleted one, else 0
+     */
+    public long getCountIncluding(Long postId, long ownDelta) {
+        AtomicLong cached = counts.get(postId);
+        if (cached != null) {
+            return Math.max(0, cached.get() + ownDelta);
+        }
+        return getCount(postId);
+    }
+
+    /**
+     * Load the counts missed inside transactions, a batch per query, outside any transaction
+     */
+    @Scheduled(fixedDelayString = "${likes.counter.load-interval-ms:50}")
+    public void loadMisses() {
+        while (!misses.isEmpty()) {
+            List<Long> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+            Iterator<Long> queued = misses.iterator();
+            while (queued.hasNext() && batch.size() < LOAD_BATCH_SIZE) {
+                Long postId = queued.next();
+                queued.remove();
+                if (!counts.containsKey(postId)) {
+                    batch.add(postId);
+                }
+            }
+            if (!batch.isEmpty()) {
+                loadBatch(batch);
+            }
+        }
+    }
+
+    /**
+     * Move a post's count once the current transaction commits. Must be called inside the
+     * transaction whose statement changed the like row, before it commits.
+     *
+     * @param postId The post whose likes changed
+     * @param delta 1 for an inserted like, -1 for a deleted one
+     */
+    public void recordChange(Long postId, long delta) {
+        int stripe = stripeOf(postId);
+        writers.incrementAndGet(stripe);
+        versions.incrementAndGet(stripe);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    complete(postId, stripe, status == STATUS_COMMITTED ? delta : 0);
+                }
+            });
+        } else {
+            // Without a transaction the row may already have been counted by a load, so start over
+            counts.remove(postId);
+            complete(postId, stripe, 0);
+        }
+    }
+
+    /**
+     * Drop the counts of posts that were deleted or archived
+     */
+    public void forget(Collection<Long> postIds) {
+        for (Long postId : postIds) {
+            counts.remove(postId);
+        }
+    }
+
+    private void complete(Long postId, int stripe, long delta) {
+        try {
+            AtomicLong cached = counts.get(postId);
+            if (cached != null && delta != 0) {
+                cached.addAndGet(delta);
+            }
+        } finally {
+            versions.incrementAndGet(stripe);
+            writers.decrementAndGet(stripe);
+        }
+    }
+
+    private void loadBatch(List<Long> postIds) {
+        // Remember which stripes were quiet before the query, like a single load does
+        Map<Long, Long> versionsBefore = new HashMap<>(postIds.size() * 2);
+        for (Long postId : postIds) {
+            int stripe = stripeOf(postId);
+            if (writers.get(stripe) == 0) {
+                versionsBefore.put(postId, versions.get(stripe));
+            }
+        }
+
+        Map<Long, Long> loaded = new HashMap<>(postIds.size() * 2);
+        for (Object[] row : likeRepository.countGroupedByPostId(postIds)) {
+            loaded.put((Long) row[0], (Long) row[1]);
+        }
+
+        for (Map.Entry<Long, Long> quiet : versionsBefore.entrySet()) {
+            Long postId = quiet.getKey();
+            if (versions.get(stripeOf(postId)) == quiet.getValue()) {
+                // Posts without likes have no row in the result
+                cache(postId, loaded.getOrDefault(postId, 0L));
+            }
+        }
+    }
+
+    private long cache(Long postId, long count) {
+        if (counts.size() >= maxEntries) {
+            counts.clear();
+        }
+        AtomicLong existing = counts.putIfAbsent(postId, new AtomicLong(count));
+        return existing != null ? existing.get() : count;
+    }
+
+    private static int stripeOf(Long postId) {
+        return (int) (postId & (STRIPES - 1));
+    }
+}
@@ -0,0 +1,425 @@
+package com.backend.gjejpune.demo.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.gjejpune.demo.model.PostChange.ChangeType;
+import com.backend.gjejpune.demo.repository.LikeRepository;
+import com.backend.gjejpune.demo.repository.PostRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Accepts like and unlike intents in memory and writes them in batches, so a burst of likes
+ * on one post does not serialize on the same index pages and row locks.
+ *
+ * Every post has its own concurrent map of the latest intent per user, so a like followed by
+ * an unlike from the same user collapses into a single row of the next batch, and a pending
+ * count delta kept in a LongAdder. Both are striped internally, so intake scales with cores.
+ * Each intent remembers whether the user liked the post before it, so only intents that
+ * change something move the pending count. A background job drains the maps every few
+ * milliseconds and writes each post's likes as one INSERT ... SELECT and its unlikes as one
+ * DELETE. Reads merge the committed state with the intents that are still pending. Events that
+ * announce a like go out only for the users whose like was actually inserted. A post
+ * whose batch fails is retried with exponential backoff and given up after a number of
+ * attempts; on shutdown the buffer is drained before the database goes away.
+ */
+@Service
+public class LikeIngestBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeIngestBuffer.class);
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private LikeCounterStore likeCounterStore;
+
+    @Autowired
+    private PublicTimelineBuffer publicTimelineBuffer;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private EngagementFeatureStore engagementFeatureStore;
+
+    @Autowired
+    private FeedChangeLog feedChangeLog;
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${likes.buffer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${likes.buffer.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${likes.buffer.idle-retire-ms:60000}")
+    private long idleRetireMs;
+
+    @Value("${likes.buffer.retry-initial-ms:100}")
+    private long retryInitialMs;
+
+    @Value("${likes.buffer.retry-max-ms:30000}")
+    private long retryMaxMs;
+
+    @Value("${likes.buffer.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${likes.buffer.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final Map<Long, PostIntents> posts = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Check whether likes go through the buffer instead of being written immediately
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record that a user wants a post liked or not liked. Overrides any pending intent of the same user.
+     */
+    public void submit(Long postId, Long userId, boolean liked) {
+        // Only asked when nothing is pending for the user, on the caller's connection
+        BooleanSupplier committed = () -> likeRepository.existsByUserIdAndPostId(userId, postId);
+        while (true) {
+            PostIntents intents = posts.computeIfAbsent(postId, id -> new PostIntents());
+            intents.put(userId, liked, committed);
+            // A retired map may already have been drained for the last time, so submit again to a fresh one
+            if (!intents.retired) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get a user's pending intent for a post
+     *
+     * @return Whether the post will be liked once the intent is written, or null if nothing is pending
+     */
+    public Boolean pendingState(Long postId, Long userId) {
+        PostIntents intents = posts.get(postId);
+        if (intents == null) {
+            return null;
+        }
+        Intent pending = intents.pending.get(userId);
+        if (pending == null) {
+            pending = intents.inFlight.get(userId);
+        }
+        return pending != null ? pending.liked() : null;
+    }
+
+    /**
+     * Merge a post's committed like count with its pending intents. Intents that repeat what
+     * is already committed, such as liking a post twice, do not move it.
+     */
+    public long mergedCount(Long postId, long committedCount) {
+        PostIntents intents = posts.get(postId);
+        return intents == null ? committedCount : Math.max(0, committedCount + intents.delta.sum());
+    }
+
+    /**
+     * Write the pending intents, one transaction per post
+     */
+    @Scheduled(fixedDelayString = "${likes.buffer.flush-interval-ms:5}")
+    public void flush() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            flushOnce(false);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Write everything still pending before shutdown. A scheduled flush that is running is
+     * waited for rather than skipped, since the intents it leaves behind were already accepted.
+     */
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        while (!running.compareAndSet(false, true)) {
+            if (System.nanoTime() - deadline >= 0) {
+                logger.error("Like intents of {} posts were not written: the running flush did not finish before shutdown", posts.size());
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        try {
+            // Retires every map it empties, so the loop ends once all intents are written or given up
+            while (!flushOnce(true)) {
+                if (System.nanoTime() - deadline >= 0) {
+                    logger.error("Like intents of {} posts were not written before shutdown", posts.size());
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // One pass over the posts; returns whether nothing is left in the buffer afterwards
+    private boolean flushOnce(boolean closing) {
+        long now = System.nanoTime();
+        long idleCutoff = now - TimeUnit.MILLISECONDS.toNanos(idleRetireMs);
+        for (Map.Entry<Long, PostIntents> entry : posts.entrySet()) {
+            Long postId = entry.getKey();
+            PostIntents intents = entry.getValue();
+            if (intents.retryAt - now > 0) {
+                continue;
+            }
+            if (intents.pending.isEmpty()) {
+                if (!closing && intents.lastWriteAt - idleCutoff >= 0) {
+                    continue;
+                }
+                // Idle for a while: drop the map, then drain whatever raced in before it was retired
+                intents.retired = true;
+                posts.remove(postId, intents);
+            }
+
+            Map<Long, Intent> batch = intents.drain();
+            if (!batch.isEmpty()) {
+                flushPost(postId, intents, batch);
+            }
+        }
+        return posts.isEmpty();
+    }
+
+    private void flushPost(Long postId, PostIntents intents, Map<Long, Intent> batch) {
+        List<Long> likes = new ArrayList<>();
+        List<Long> unlikes = new ArrayList<>();
+        for (Map.Entry<Long, Intent> intent : batch.entrySet()) {
+            (intent.getValue().liked() ? likes : unlikes).add(intent.getKey());
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Instant now = Instant.now();
+                List<Long> added = new ArrayList<>();
+                for (List<Long> chunk : chunks(likes)) {
+                    added.addAll(insertLikes(postId, chunk, now));
+                }
+                long inserted = added.size();
+                long change = inserted;
+                for (List<Long> chunk : chunks(unlikes)) {
+                    change -= likeRepository.deleteByPostIdAndUserIdIn(postId, chunk);
+                }
+                if (change != 0) {
+                    likeCounterStore.recordChange(postId, change);
+                    publicTimelineBuffer.adjustLikes(postId, change);
+                    feedChangeLog.record(postId, ChangeType.ENGAGEMENT);
+                }
+                if (inserted > 0) {
+                    trendingService.recordLikes(postId, inserted);
+                    engagementFeatureStore.likesAdded(postId, inserted);
+                    likesAnnounced(postId, added);
+                }
+            });
+            intents.failures = 0;
+        } catch (RuntimeException ex) {
+            int attempts = intents.failures + 1;
+            boolean givingUp = attempts >= maxAttempts;
+            long backoffMs = givingUp ? 0 : Math.min(retryMaxMs, retryInitialMs << Math.min(attempts - 1, 30));
+            if (givingUp) {
+                logger.error("Giving up on {} like intents for post {} after {} attempts. Error: {}", batch.size(), postId, attempts, ex.getMessage());
+            } else {
+                logger.warn("Could not write {} like intents for post {}, retrying in {} ms. Error: {}", batch.size(), postId, backoffMs, ex.getMessage());
+            }
+            for (Map.Entry<Long, Intent> intent : batch.entrySet()) {
+                requeue(postId, intent.getKey(), intent.getValue(), givingUp ? 0 : attempts, backoffMs, !givingUp);
+            }
+        } finally {
+            intents.settle(batch);
+        }
+    }
+
+    // Insert one chunk of likes and return the users whose like is new; the batches are the only writer of likes
+    private List<Long> insertLikes(Long postId, List<Long> userIds, Instant now) {
+        Set<Long> before = new HashSet<>(likeRepository.findLikerIdsAmong(postId, userIds));
+        int inserted = likeRepository.insertForUsers(postId, userIds, now);
+        List<Long> added = new ArrayList<>(userIds.size() - before.size());
+        for (Long userId : userIds) {
+            if (!before.contains(userId)) {
+                added.add(userId);
+            }
+        }
+        if (inserted != added.size()) {
+            // Some users are gone, so ask which likes are there now
+            added.retainAll(new HashSet<>(likeRepository.findLikerIdsAmong(postId, added)));
+        }
+        return added;
+    }
+
+    // Tell the author about new likes and count them towards the likers' affinity, once the batch commits
+    private void likesAnnounced(Long postId, List<Long> userIds) {
+        List<Object[]> visibility = postRepository.findVisibilityById(postId);
+        if (visibility.isEmpty()) {
+            return;
+        }
+        Long authorId = (Long) visibility.get(0)[0];
+        for (Long userId : userIds) {
+            engagementFeatureStore.userLiked(userId, authorId);
+            eventStreamService.postLiked(authorId, userId, postId);
+            notificationService.postLiked(authorId, userId, postId);
+        }
+    }
+
+    // Put a failed intent back unless the user has submitted a newer one since, and hold the post back for a while
+    private void requeue(Long postId, Long userId, Intent failed, int attempts, long backoffMs, boolean retry) {
+        while (true) {
+            PostIntents intents = posts.computeIfAbsent(postId, id -> new PostIntents());
+            intents.failures = attempts;
+            intents.retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+            intents.restore(userId, failed, retry);
+            if (!intents.retired) {
+                return;
+            }
+        }
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += maxBatchSize) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + maxBatchSize)));
+        }
+        return chunks;
+    }
+
+    private static long contribution(Intent intent) {
+        return intent == null ? 0 : (intent.liked() ? 1 : 0) - (intent.likedBefore() ? 1 : 0);
+    }
+
+    /**
+     * A user's latest wish for a post, and whether they liked it once everything before it is written
+     */
+    private record Intent(boolean liked, boolean likedBefore) {
+    }
+
+    /**
+     * Intents for one post: the latest one per user, those being written, and their net effect on the count
+     */
+    private static final class PostIntents {
+        private final Map<Long, Intent> pending = new ConcurrentHashMap<>();
+        private final Map<Long, Intent> inFlight = new ConcurrentHashMap<>();
+        private final LongAdder delta = new LongAdder();
+        private volatile long lastWriteAt = System.nanoTime();
+        private volatile boolean retired;
+        // Only touched by the flushing thread
+        private int failures;
+        private volatile long retryAt = System.nanoTime();
+
+        // Replaces the user's pending intent, keeping what it was measured against
+        private void put(Long userId, boolean liked, BooleanSupplier committed) {
+            while (true) {
+                Intent previous = pending.get(userId);
+                if (previous != null) {
+                    Intent next = new Intent(liked, previous.likedBefore());
+                    if (pending.replace(userId, previous, next)) {
+                        delta.add(contribution(next) - contribution(previous));
+                        break;
+                    }
+                } else {
+                    // An intent being written decides the state this one starts from, otherwise the database does
+                    Intent writing = inFlight.get(userId);
+                    Intent next = new Intent(liked, writing != null ? writing.liked() : committed.getAsBoolean());
+                    if (pending.putIfAbsent(userId, next) == null) {
+                        delta.add(contribution(next));
+                        break;
+                    }
+                }
+            }
+            lastWriteAt = System.nanoTime();
+        }
+
+        // Puts a failed intent back if it is retried; a newer one submitted while it was being written
+        // now starts from where the failed one did
+        private void restore(Long userId, Intent failed, boolean retry) {
+            while (true) {
+                Intent newer = pending.get(userId);
+                if (newer == null) {
+                    if (!retry) {
+                        return;
+                    }
+                    if (pending.putIfAbsent(userId, failed) == null) {
+                        delta.add(contribution(failed));
+                        return;
+                    }
+                } else {
+                    Intent rebased = new Intent(newer.liked(), failed.likedBefore());
+                    if (pending.replace(userId, newer, rebased)) {
+                        delta.add(contribution(rebased) - contribution(newer));
+                        return;
+                    }
+                }
+            }
+        }
+
+        // Move the pending intents to the in-flight map, skipping any that change while being read
+        private Map<Long, Intent> drain() {
+            Map<Long, Intent> batch = new HashMap<>();
+            for (Map.Entry<Long, Intent> entry : pending.entrySet()) {
+                Long userId = entry.getKey();
+                Intent intent = entry.getValue();
+                inFlight.put(userId, intent);
+                if (pending.remove(userId, intent)) {
+                    batch.put(userId, intent);
+                } else {
+                    inFlight.remove(userId, intent);
+                }
+            }
+            return batch;
+        }
+
+        // The batch is committed (or requeued), so its intents no longer count as pending
+        private void settle(Map<Long, Intent> batch) {
+            for (Map.Entry<Long, Intent> intent : batch.entrySet()) {
+                inFlight.remove(intent.getKey(), intent.getValue());
+                delta.add(-contribution(intent.getValue()));
+            }
+        }
+    }
+}
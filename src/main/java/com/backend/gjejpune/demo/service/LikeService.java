@@ -1,25 +1,32 @@
 package com.backend.gjejpune.demo.service;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.backend.gjejpune.demo.model.Like;
 import com.backend.gjejpune.demo.model.Post;
-import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.model.PostChange.ChangeType;
+import com.backend.gjejpune.demo.payload.response.LikeStatusResponse;
+import com.backend.gjejpune.demo.payload.response.LikerResponse;
 import com.backend.gjejpune.demo.payload.response.MessageResponse;
 import com.backend.gjejpune.demo.repository.LikeRepository;
 import com.backend.gjejpune.demo.repository.PostRepository;
-import com.backend.gjejpune.demo.repository.UserRepository;
 
 @Service
 public class LikeService {
     
+    // Rows read per request while skipping friends in the second pass of the likers listing
+    private static final int MAX_LIKERS_SCANNED = 1000;
+    
     @Autowired
     private LikeRepository likeRepository;
     
@@ -27,7 +34,7 @@ public class LikeService {
     private PostRepository postRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private UserCache userCache;
     
     @Autowired
     private FriendshipService friendshipService;
@@ -35,83 +42,114 @@ public class LikeService {
     @Autowired
     private PermissionService permissionService;
     
+    @Autowired
+    private PublicTimelineBuffer publicTimelineBuffer;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private EngagementFeatureStore engagementFeatureStore;
+    
+    @Autowired
+    private EventStreamService eventStreamService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private FeedChangeLog feedChangeLog;
+    
+    @Autowired
+    private LikeCounterStore likeCounterStore;
+    
+    @Autowired
+    private LikeIngestBuffer likeIngestBuffer;
+    
+    @Autowired
+    private PostMetadataService postMetadataService;
+    
+    @Autowired
+    private ApproximateCountService approximateCountService;
+    
     /**
-     * Like a post
+     * Like a post. Idempotent: liking a post twice, even concurrently, leaves one like.
+     * With the ingest buffer enabled the like is accepted now and written with the next batch.
      */
     @Transactional
     public ResponseEntity<?> likePost(Long postId, Long currentUserId) {
-        User user = userRepository.findById(currentUserId)
-                .orElseThrow(() -> new RuntimeException("Error: User not found."));
-        
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Error: Post not found."));
-        
-        // Check if user has permission to like this post
-        if (!permissionService.canAccessPost(post, currentUserId)) {
+        // Check if user has permission to like this post, reading only the fields the check needs
+        List<Object[]> visibility = postRepository.findVisibilityById(postId);
+        if (visibility.isEmpty()) {
+            throw new RuntimeException("Error: Post not found.");
+        }
+        Object[] post = visibility.get(0);
+        if (!permissionService.canAccessPost((Long) post[0], (Boolean) post[1], (Boolean) post[2], currentUserId)) {
             return ResponseEntity
                     .status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("Error: You don't have permission to like this post."));
         }
         
-        // Check if user already liked this post
-        Optional<Like> existingLike = likeRepository.findByUserAndPost(user, post);
-        if (existingLike.isPresent()) {
-            return ResponseEntity
-                    .status(HttpStatus.BAD_REQUEST)
-                    .body(new MessageResponse("Error: You have already liked this post."));
+        if (likeIngestBuffer.isEnabled()) {
+            // Written with the next batch, which also announces and notifies the like if it is new; the count already includes the pending intent
+            likeIngestBuffer.submit(postId, currentUserId, true);
+            long likesCount = likeIngestBuffer.mergedCount(postId, likeCounterStore.getCount(postId));
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new LikeStatusResponse("Post liked successfully! Total likes: " + likesCount, postId, true, likesCount));
         }
         
-        // Create new like
-        Like like = new Like(user, post);
-        like = likeRepository.save(like);
+        boolean created = likeRepository.insertIfAbsent(currentUserId, postId, Instant.now()) == 1;
+        if (created) {
+            likeCounterStore.recordChange(postId, 1);
+            publicTimelineBuffer.adjustLikes(postId, 1);
+            feedChangeLog.record(postId, ChangeType.ENGAGEMENT);
+            trendingService.recordLike(postId);
+            engagementFeatureStore.likesAdded(postId, 1);
+            engagementFeatureStore.userLiked(currentUserId, (Long) post[0]);
+            eventStreamService.postLiked((Long) post[0], currentUserId, postId);
+            notificationService.postLiked((Long) post[0], currentUserId, postId);
+        }
         
-        // Update like count in response
-        long likesCount = likeRepository.countByPost(post);
+        // Includes this transaction's own like, which has not committed yet
+        long likesCount = likeCounterStore.getCountIncluding(postId, created ? 1 : 0);
+        String message = created ? "Post liked successfully! Total likes: " + likesCount : "Post already liked. Total likes: " + likesCount;
         
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(new MessageResponse("Post liked successfully! Total likes: " + likesCount));
+        return ResponseEntity.status(created ? HttpStatus.CREATED : HttpStatus.OK)
+                .body(new LikeStatusResponse(message, postId, true, likesCount));
     }
     
     /**
-     * Unlike a post
+     * Unlike a post. Idempotent: unliking a post that is not liked changes nothing.
      */
     @Transactional
     public ResponseEntity<?> unlikePost(Long postId, Long currentUserId) {
-        User user = userRepository.findById(currentUserId)
-                .orElseThrow(() -> new RuntimeException("Error: User not found."));
-        
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Error: Post not found."));
-        
-        // Check if user has permission to unlike this post
-        if (!permissionService.canAccessPost(post, currentUserId)) {
-            return ResponseEntity
-                    .status(HttpStatus.FORBIDDEN)
-                    .body(new MessageResponse("Error: You don't have permission to unlike this post."));
+        if (likeIngestBuffer.isEnabled()) {
+            likeIngestBuffer.submit(postId, currentUserId, false);
+            long likesCount = likeIngestBuffer.mergedCount(postId, likeCounterStore.getCount(postId));
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new LikeStatusResponse("Post unliked successfully! Total likes: " + likesCount, postId, false, likesCount));
         }
         
-        // Check if user has liked this post
-        Optional<Like> existingLike = likeRepository.findByUserAndPost(user, post);
-        if (!existingLike.isPresent()) {
-            return ResponseEntity
-                    .status(HttpStatus.BAD_REQUEST)
-                    .body(new MessageResponse("Error: You have not liked this post."));
+        // Removing one's own like needs no access check, so this is a single statement
+        boolean removed = likeRepository.deleteByUserIdAndPostId(currentUserId, postId) > 0;
+        if (removed) {
+            likeCounterStore.recordChange(postId, -1);
+            publicTimelineBuffer.adjustLikes(postId, -1);
+            feedChangeLog.record(postId, ChangeType.ENGAGEMENT);
         }
         
-        // Remove like
-        likeRepository.delete(existingLike.get());
-        
-        // Update like count in response
-        long likesCount = likeRepository.countByPost(post);
+        long likesCount = likeCounterStore.getCountIncluding(postId, removed ? -1 : 0);
+        String message = removed ? "Post unliked successfully! Total likes: " + likesCount : "Post was not liked. Total likes: " + likesCount;
         
-        return ResponseEntity.ok(new MessageResponse("Post unliked successfully! Total likes: " + likesCount));
+        return ResponseEntity.ok(new LikeStatusResponse(message, postId, false, likesCount));
     }
     
     /**
      * Check if user has liked a post
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<?> checkLikeStatus(Long postId, Long currentUserId) {
-        User user = userRepository.findById(currentUserId)
+        userCache.get(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
         Post post = postRepository.findById(postId)
@@ -124,17 +162,22 @@ public class LikeService {
                     .body(new MessageResponse("Error: You don't have permission to view this post."));
         }
         
-        boolean hasLiked = likeRepository.existsByUserAndPost(user, post);
-        long likesCount = likeRepository.countByPost(post);
+        Boolean pending = likeIngestBuffer.pendingState(postId, currentUserId);
+        boolean hasLiked = pending != null ? pending : likeRepository.existsByUserIdAndPostId(currentUserId, postId);
+        long likesCount = likeIngestBuffer.mergedCount(postId, likeCounterStore.getCount(postId));
         
         return ResponseEntity.ok(new MessageResponse("Liked: " + hasLiked + ", Total likes: " + likesCount));
     }
     
     /**
-     * Get users who liked a post
+     * Get one page of the users who liked a post, newest like first, with the viewer's
+     * friends listed before everyone else
+     * 
+     * @param cursor Where to resume, or null to start with the newest like by a friend
      */
-    public ResponseEntity<?> getUsersWhoLikedPost(Long postId, Long currentUserId) {
-        User currentUser = userRepository.findById(currentUserId)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getUsersWhoLikedPost(Long postId, LikerCursor cursor, int size, Long currentUserId) {
+        userCache.get(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
         Post post = postRepository.findById(postId)
@@ -147,33 +190,105 @@ public class LikeService {
                     .body(new MessageResponse("Error: You don't have permission to view likes for this post."));
         }
         
-        List<User> usersWhoLiked = likeRepository.findUsersByPost(post);
+        Set<Long> friendIds = friendshipService.getFriendIdSet(currentUserId);
+        LikerCursor position = cursor != null ? cursor : LikerCursor.start();
+        List<LikerResponse> likers = new ArrayList<>(size);
+        LikerCursor nextCursor = null;
+        
+        // First pass: likes by friends, read through the friend set
+        if (position.isFriendsPass()) {
+            if (!friendIds.isEmpty()) {
+                List<Object[]> rows = likeRepository.findLikersAmong(postId, friendIds, position.getLikeId(),
+                        PageRequest.of(0, size + 1));
+                for (int i = 0; i < rows.size() && i < size; i++) {
+                    likers.add(toLiker(rows.get(i), true));
+                }
+                if (rows.size() > size) {
+                    nextCursor = new LikerCursor(true, (Long) rows.get(size - 1)[0]);
+                }
+            }
+            position = new LikerCursor(false, Long.MAX_VALUE);
+        }
+        
+        // Second pass: everyone else, skipping the friends listed in the first one
+        if (nextCursor == null && likers.size() < size) {
+            long beforeId = position.getLikeId();
+            int scanned = 0;
+            boolean exhausted = false;
+            while (likers.size() < size && !exhausted && scanned < MAX_LIKERS_SCANNED) {
+                List<Object[]> rows = likeRepository.findLikers(postId, beforeId, PageRequest.of(0, size));
+                exhausted = rows.size() < size;
+                for (Object[] row : rows) {
+                    if (likers.size() == size) {
+                        exhausted = false;
+                        break;
+                    }
+                    scanned++;
+                    beforeId = (Long) row[0];
+                    if (!friendIds.contains((Long) row[1])) {
+                        likers.add(toLiker(row, false));
+                    }
+                }
+            }
+            nextCursor = exhausted ? null : new LikerCursor(false, beforeId);
+        } else if (nextCursor == null) {
+            // The friends filled this page exactly; everyone else follows on the next one
+            nextCursor = position;
+        }
         
-        return ResponseEntity.ok(usersWhoLiked);
+        // The total comes from the counter store, not a count query
+        long likesCount = likeIngestBuffer.mergedCount(postId, likeCounterStore.getCount(postId));
+        return ResponseEntity.ok(PaginationUtils.createCursorResponse(likers,
+                nextCursor != null ? nextCursor.encode() : null, size, likesCount,
+                "/api/likes/posts/" + postId + "/users"));
+    }
+    
+    private static LikerResponse toLiker(Object[] row, boolean friend) {
+        return new LikerResponse((Long) row[1], (String) row[2], (String) row[3], friend);
     }
     
     /**
-     * Get posts liked by current user
+     * Get one page of the posts the current user liked, newest like first. Posts the user can
+     * no longer see are left out by the query itself.
+     * 
+     * @param cursor Where to resume, or null to start with the newest like
      */
-    public ResponseEntity<?> getPostsLikedByCurrentUser(Long currentUserId) {
-        User user = userRepository.findById(currentUserId)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getPostsLikedByCurrentUser(LikedPostCursor cursor, int size, Long currentUserId) {
+        userCache.get(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
-        List<Post> likedPosts = likeRepository.findPostsByUser(user);
+        // One row more than the page tells whether another page follows
+        Pageable batch = PageRequest.of(0, size + 1);
+        List<Object[]> rows = cursor == null
+                ? likeRepository.findNewestVisibleLikedPosts(currentUserId, batch)
+                : likeRepository.findOlderVisibleLikedPosts(currentUserId, cursor.getLikedAt(), cursor.getLikeId(), batch);
+        
+        List<Post> likedPosts = new ArrayList<>(size);
+        for (int i = 0; i < rows.size() && i < size; i++) {
+            likedPosts.add((Post) rows.get(i)[2]);
+        }
+        LikedPostCursor nextCursor = null;
+        if (rows.size() > size) {
+            Object[] last = rows.get(size - 1);
+            nextCursor = new LikedPostCursor((Instant) last[1], (Long) last[0]);
+        }
         
-        // Filter out posts that the user doesn't have permission to view
-        likedPosts = likedPosts.stream()
-                .filter(post -> permissionService.canAccessPost(post, currentUserId))
-                .toList();
+        // Populate like and comment counts for the page in batches
+        postMetadataService.populatePostMetadata(likedPosts, currentUserId);
         
-        return ResponseEntity.ok(likedPosts);
+        Long approximateTotal = approximateCountService.getTotal(
+                ApproximateCountService.CountKind.LIKES_BY_USER, currentUserId);
+        return ResponseEntity.ok(PaginationUtils.createCursorResponse(likedPosts,
+                nextCursor != null ? nextCursor.encode() : null, size, approximateTotal, "/api/likes/my-liked-posts"));
     }
     
     /**
      * Get the count of likes for a post
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getLikeCount(Long postId, Long currentUserId) {
-        User currentUser = userRepository.findById(currentUserId)
+        userCache.get(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
         Post post = postRepository.findById(postId)
@@ -186,7 +301,7 @@ public class LikeService {
                     .body(new MessageResponse("Error: You don't have permission to view likes for this post."));
         }
         
-        long likesCount = likeRepository.countByPost(post);
+        long likesCount = likeIngestBuffer.mergedCount(postId, likeCounterStore.getCount(postId));
         
         return ResponseEntity.ok(new MessageResponse(String.valueOf(likesCount)));
     }
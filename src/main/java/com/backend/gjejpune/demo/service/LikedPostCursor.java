@@ -0,0 +1,54 @@
+package com.backend.gjejpune.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque resume point for a user's liked posts, ordered by (like time, like id) descending
+ */
+public final class LikedPostCursor {
+
+    private final Instant likedAt;
+    private final long likeId;
+
+    public LikedPostCursor(Instant likedAt, long likeId) {
+        this.likedAt = likedAt;
+        this.likeId = likeId;
+    }
+
+    public Instant getLikedAt() {
+        return likedAt;
+    }
+
+    public long getLikeId() {
+        return likeId;
+    }
+
+    /**
+     * Encode as a URL-safe token
+     */
+    public String encode() {
+        String raw = likedAt + "|" + likeId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a token produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException If the token is malformed
+     */
+    public static LikedPostCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new LikedPostCursor(Instant.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed cursor", ex);
+        }
+    }
+}
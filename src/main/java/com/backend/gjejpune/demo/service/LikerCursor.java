@@ -0,0 +1,62 @@
+package com.backend.gjejpune.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque resume point for the likers of a post, listed newest like first.
+ *
+ * The viewer's friends are listed before everyone else, so besides the last like ID seen
+ * the cursor records which of the two passes it belongs to.
+ */
+public final class LikerCursor {
+
+    private final boolean friendsPass;
+    private final long likeId;
+
+    public LikerCursor(boolean friendsPass, long likeId) {
+        this.friendsPass = friendsPass;
+        this.likeId = likeId;
+    }
+
+    /**
+     * The start of the listing: the newest like by a friend
+     */
+    public static LikerCursor start() {
+        return new LikerCursor(true, Long.MAX_VALUE);
+    }
+
+    public boolean isFriendsPass() {
+        return friendsPass;
+    }
+
+    public long getLikeId() {
+        return likeId;
+    }
+
+    /**
+     * Encode as a URL-safe token
+     */
+    public String encode() {
+        String raw = (friendsPass ? "f" : "o") + "|" + likeId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a token produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException If the token is malformed
+     */
+    public static LikerCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2 || !(parts[0].equals("f") || parts[0].equals("o"))) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new LikerCursor(parts[0].equals("f"), Long.parseLong(parts[1]));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed cursor", ex);
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package com.backend.gjejpune.demo.service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.gjejpune.demo.model.UserInbox;
+import com.backend.gjejpune.demo.model.UserSnapshot;
+import com.backend.gjejpune.demo.notification.Notification;
+import com.backend.gjejpune.demo.notification.Notification.Type;
+import com.backend.gjejpune.demo.notification.NotificationInbox;
+import com.backend.gjejpune.demo.payload.response.NotificationResponse;
+import com.backend.gjejpune.demo.payload.response.NotificationsResponse;
+import com.backend.gjejpune.demo.repository.UserInboxRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Notifications of likes and comments on a user's posts and of friend requests, kept in a
+ * capped {@link NotificationInbox} per user instead of being computed from likes and comments.
+ *
+ * Events are applied to the recipient's inbox in memory once the transaction causing them
+ * commits, and also queued. A background job writes the queued events of many inboxes in one
+ * transaction: it reads each stored inbox, replays the events on it and saves it, so the stored
+ * inbox also takes in events other nodes have written, and a failed or conflicting write is
+ * simply replayed on the next run. Publishing an event never touches the database, and an inbox
+ * is only read from it when its user asks for notifications.
+ */
+@Service
+public class NotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+    // Events kept per inbox while the database cannot be written; older ones are dropped
+    private static final int MAX_PENDING_EVENTS = 1000;
+
+    @Autowired
+    private UserInboxRepository userInboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Value("${notifications.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notifications.inbox-size:50}")
+    private int inboxSize;
+
+    @Value("${notifications.max-inboxes:20000}")
+    private int maxInboxes;
+
+    @Value("${notifications.reload-seconds:60}")
+    private long reloadSeconds;
+
+    @Value("${notifications.max-batch-size:200}")
+    private int maxBatchSize;
+
+    private final Map<Long, CachedInbox> inboxes = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Tell a post's author that someone liked it
+     */
+    public void postLiked(Long authorId, Long userId, Long postId) {
+        if (!authorId.equals(userId)) {
+            long at = System.currentTimeMillis();
+            afterCommit(authorId, inbox -> inbox.add(Type.LIKE, postId, userId, at));
+        }
+    }
+
+    /**
+     * Tell a post's author that someone commented on it
+     */
+    public void commentAdded(Long authorId, Long userId, Long postId) {
+        if (!authorId.equals(userId)) {
+            long at = System.currentTimeMillis();
+            afterCommit(authorId, inbox -> inbox.add(Type.COMMENT, postId, userId, at));
+        }
+    }
+
+    /**
+     * Tell a user they received a friend request
+     */
+    public void friendRequestSent(Long addresseeId, Long requesterId, Long friendshipId) {
+        long at = System.currentTimeMillis();
+        afterCommit(addresseeId, inbox -> inbox.add(Type.FRIEND_REQUEST, friendshipId, requesterId, at));
+    }
+
+    /**
+     * Tell the requester their friend request was accepted, and mark the request read for the user who accepted it
+     */
+    public void friendRequestAccepted(Long requesterId, Long addresseeId, Long friendshipId) {
+        long at = System.currentTimeMillis();
+        afterCommit(requesterId, inbox -> inbox.add(Type.FRIEND_ACCEPTED, friendshipId, addresseeId, at));
+        String requestKey = Notification.keyOf(Type.FRIEND_REQUEST, friendshipId);
+        afterCommit(addresseeId, inbox -> inbox.markRead(requestKey));
+    }
+
+    /**
+     * Drop the like and comment notifications of a deleted post
+     */
+    public void postDeleted(Long authorId, Long postId) {
+        afterCommit(authorId, inbox -> {
+            inbox.remove(Type.LIKE, postId);
+            inbox.remove(Type.COMMENT, postId);
+        });
+    }
+
+    /**
+     * Get a user's newest notifications and their number of unread ones
+     */
+    public NotificationsResponse getNotifications(Long userId, int size) {
+        if (!enabled) {
+            return new NotificationsResponse(List.of(), 0);
+        }
+
+        CachedInbox cached = loaded(userId);
+        List<Notification> newest;
+        int unreadCount;
+        synchronized (cached) {
+            newest = cached.inbox.newest(size);
+            unreadCount = cached.inbox.getUnreadCount();
+        }
+
+        List<NotificationResponse> notifications = new ArrayList<>(newest.size());
+        for (Notification notification : newest) {
+            notifications.add(toResponse(notification));
+        }
+        return new NotificationsResponse(notifications, unreadCount);
+    }
+
+    /**
+     * Get a user's number of unread notifications
+     */
+    public int getUnreadCount(Long userId) {
+        if (!enabled) {
+            return 0;
+        }
+        CachedInbox cached = loaded(userId);
+        synchronized (cached) {
+            return cached.inbox.getUnreadCount();
+        }
+    }
+
+    /**
+     * Mark one of a user's notifications read, or all of them if the key is null
+     *
+     * @return The number of unread notifications left
+     */
+    public int markRead(Long userId, String key) {
+        if (!enabled) {
+            return 0;
+        }
+        while (true) {
+            CachedInbox cached = loaded(userId);
+            synchronized (cached) {
+                if (cached.apply(inbox -> inbox.markRead(key))) {
+                    return cached.inbox.getUnreadCount();
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the events queued since the last run into the stored inboxes
+     */
+    @Scheduled(fixedDelayString = "${notifications.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<Long> dirty = new ArrayList<>();
+            for (Map.Entry<Long, CachedInbox> entry : inboxes.entrySet()) {
+                if (entry.getValue().hasPending()) {
+                    dirty.add(entry.getKey());
+                }
+            }
+            for (int from = 0; from < dirty.size(); from += maxBatchSize) {
+                flushBatch(dirty.subList(from, Math.min(dirty.size(), from + maxBatchSize)));
+            }
+            evictIfFull();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    private void flushBatch(List<Long> userIds) {
+        Map<Long, CachedInbox> holders = new HashMap<>();
+        Map<Long, List<Consumer<NotificationInbox>>> batch = new HashMap<>();
+        for (Long userId : userIds) {
+            CachedInbox cached = inboxes.get(userId);
+            List<Consumer<NotificationInbox>> events = cached != null ? cached.takePending() : null;
+            if (events != null) {
+                holders.put(userId, cached);
+                batch.put(userId, events);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<Long, NotificationInbox> merged = new TransactionTemplate(transactionManager).execute(status -> {
+                Map<Long, UserInbox> rows = new HashMap<>();
+                for (UserInbox row : userInboxRepository.findAllById(batch.keySet())) {
+                    rows.put(row.getUserId(), row);
+                }
+
+                Map<Long, NotificationInbox> result = new HashMap<>();
+                List<UserInbox> changed = new ArrayList<>();
+                for (Map.Entry<Long, List<Consumer<NotificationInbox>>> entry : batch.entrySet()) {
+                    UserInbox row = rows.computeIfAbsent(entry.getKey(), UserInbox::new);
+                    NotificationInbox inbox = decode(row);
+                    entry.getValue().forEach(event -> event.accept(inbox));
+                    row.setEntries(inbox.toBytes());
+                    row.setUnreadCount(inbox.getUnreadCount());
+                    row.setUpdatedAt(Instant.now());
+                    changed.add(row);
+                    result.put(entry.getKey(), inbox);
+                }
+                userInboxRepository.saveAll(changed);
+                return result;
+            });
+
+            // The stored inboxes now also hold the events written by other nodes
+            for (Map.Entry<Long, NotificationInbox> entry : merged.entrySet()) {
+                holders.get(entry.getKey()).flushed(entry.getValue());
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Could not write notification inboxes of {} users, retrying. Error: {}", batch.size(), ex.getMessage());
+            for (Map.Entry<Long, List<Consumer<NotificationInbox>>> entry : batch.entrySet()) {
+                holders.get(entry.getKey()).restore(entry.getValue());
+            }
+        }
+    }
+
+    // Get a user's inbox, reading the stored one if it is not in memory or has not been read for a while
+    private CachedInbox loaded(Long userId) {
+        long reloadCutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(reloadSeconds);
+        while (true) {
+            CachedInbox cached = inboxes.get(userId);
+            if (cached != null && cached.isFresh(reloadCutoff)) {
+                return cached;
+            }
+
+            // A flush finishing while the stored inbox is read installs a newer one, which the read must not replace
+            long generation = cached != null ? cached.generation : 0;
+            NotificationInbox stored = decode(userInboxRepository.findById(userId).orElse(null));
+            if (cached == null && inboxes.size() >= maxInboxes) {
+                evictIfFull();
+            }
+            cached = inboxes.computeIfAbsent(userId, id -> new CachedInbox());
+            if (cached.loaded(stored, generation)) {
+                return cached;
+            }
+        }
+    }
+
+    private NotificationInbox decode(UserInbox row) {
+        if (row == null || row.getEntries() == null) {
+            return new NotificationInbox(inboxSize);
+        }
+        try {
+            return NotificationInbox.fromBytes(row.getEntries(), inboxSize);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Discarding unreadable notification inbox of user {}. Error: {}", row.getUserId(), ex.getMessage());
+            return new NotificationInbox(inboxSize);
+        }
+    }
+
+    private NotificationResponse toResponse(Notification notification) {
+        long[] actorIds = notification.getRecentActorIds();
+        Long actorId = actorIds.length > 0 ? actorIds[0] : null;
+        Optional<UserSnapshot> actor = actorId != null ? userCache.get(actorId) : Optional.empty();
+        boolean aboutPost = notification.getType() == Type.LIKE || notification.getType() == Type.COMMENT;
+
+        return new NotificationResponse(
+                notification.getKey(),
+                notification.getType().name().toLowerCase().replace('_', '-'),
+                aboutPost ? notification.getTargetId() : null,
+                aboutPost ? null : notification.getTargetId(),
+                actorId,
+                actor.map(UserSnapshot::getUsername).orElse(null),
+                actor.map(UserSnapshot::getProfileImageUrl).orElse(null),
+                Math.max(0, notification.getActorCount() - 1),
+                notification.isRead(),
+                Instant.ofEpochMilli(notification.getUpdatedAt()));
+    }
+
+    private void publish(Long userId, Consumer<NotificationInbox> event) {
+        while (true) {
+            CachedInbox cached = inboxes.computeIfAbsent(userId, id -> new CachedInbox());
+            // An inbox being evicted takes no more events, so they go to a fresh one
+            if (cached.apply(event)) {
+                return;
+            }
+        }
+    }
+
+    // Drop inboxes without queued events until a quarter of the room is free; they are read again on next use
+    private void evictIfFull() {
+        if (inboxes.size() < maxInboxes) {
+            return;
+        }
+        int target = maxInboxes - maxInboxes / 4;
+        for (Map.Entry<Long, CachedInbox> entry : inboxes.entrySet()) {
+            if (inboxes.size() <= target) {
+                break;
+            }
+            if (entry.getValue().retireIfClean()) {
+                inboxes.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void afterCommit(Long userId, Consumer<NotificationInbox> event) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(userId, event);
+                }
+            });
+        } else {
+            publish(userId, event);
+        }
+    }
+
+    /**
+     * The inbox of one user as this node knows it, and the events not yet written. Events are
+     * queued even before the inbox is read, so publishing to a user who is not reading costs no I/O.
+     */
+    private static final class CachedInbox {
+        private NotificationInbox inbox;
+        private final Deque<Consumer<NotificationInbox>> pending = new ArrayDeque<>();
+        private boolean flushing;
+        private boolean retired;
+        private volatile long generation;
+        private long loadedAt;
+
+        private synchronized boolean apply(Consumer<NotificationInbox> event) {
+            if (retired) {
+                return false;
+            }
+            if (pending.size() >= MAX_PENDING_EVENTS) {
+                pending.removeFirst();
+            }
+            pending.addLast(event);
+            if (inbox != null) {
+                event.accept(inbox);
+            }
+            return true;
+        }
+
+        private synchronized boolean isFresh(long reloadCutoff) {
+            return inbox != null && loadedAt - reloadCutoff >= 0;
+        }
+
+        // Install a stored inbox, with the queued events on top, unless a flush installed a newer one since it was read
+        private synchronized boolean loaded(NotificationInbox stored, long readGeneration) {
+            if (retired) {
+                return false;
+            }
+            if (inbox == null || generation == readGeneration) {
+                pending.forEach(event -> event.accept(stored));
+                inbox = stored;
+                loadedAt = System.nanoTime();
+            }
+            return true;
+        }
+
+        private synchronized List<Consumer<NotificationInbox>> takePending() {
+            if (pending.isEmpty() || flushing) {
+                return null;
+            }
+            List<Consumer<NotificationInbox>> taken = new ArrayList<>(pending);
+            pending.clear();
+            flushing = true;
+            return taken;
+        }
+
+        private synchronized void flushed(NotificationInbox stored) {
+            pending.forEach(event -> event.accept(stored));
+            inbox = stored;
+            loadedAt = System.nanoTime();
+            generation++;
+            flushing = false;
+        }
+
+        // Put events back in front of the ones queued since; they are already applied to the inbox in memory
+        private synchronized void restore(List<Consumer<NotificationInbox>> events) {
+            for (int i = events.size() - 1; i >= 0 && pending.size() < MAX_PENDING_EVENTS; i--) {
+                pending.addFirst(events.get(i));
+            }
+            flushing = false;
+        }
+
+        private synchronized boolean hasPending() {
+            return !pending.isEmpty();
+        }
+
+        private synchronized boolean retireIfClean() {
+            if (!pending.isEmpty() || flushing) {
+                return false;
+            }
+            retired = true;
+            return true;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.backend.gjejpune.demo.service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 
 import com.backend.gjejpune.demo.payload.response.PagedResponse;
@@ -77,4 +78,100 @@ public class PaginationUtils {
                 nextPageUrl
         );
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Create a paged response from a slice, without counting rows
+     * 
+     * @param <T> Type of content
+     * @param content Content list
+     * @param slice Slice the content was read from
+     * @param approximateTotal Cached total for the listing, or null if unknown
+     * @param baseUrl Base URL for next page
+     * @return PagedResponse object, with totalsApproximate set unless the slice reached the end
+     */
+    public static <T> PagedResponse<T> createSlicedResponse(List<T> content, Slice<?> slice, Long approximateTotal, String baseUrl) {
+        String nextPageUrl = null;
+        if (slice.hasNext()) {
+            nextPageUrl = baseUrl + "?page=" + (slice.getNumber() + 1) + "&size=" + slice.getSize();
+        }
+        
+        long offset = slice.getPageable().getOffset();
+        long totalElements;
+        boolean approximate;
+        if (!slice.hasNext() && (slice.hasContent() || offset == 0)) {
+            // The last page tells the exact total
+            totalElements = offset + slice.getNumberOfElements();
+            approximate = false;
+        } else {
+            // At least the rows seen so far exist, plus one more if there is a next page
+            long seen = offset + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+            totalElements = approximateTotal != null ? Math.max(approximateTotal, seen) : seen;
+            approximate = true;
+        }
+        int totalPages = (int) ((totalElements + slice.getSize() - 1) / slice.getSize());
+        
+        PagedResponse<T> response = new PagedResponse<>(
+                content,
+                slice.getNumber(),
+                content.size(),
+                totalElements,
+                totalPages,
+                !slice.hasNext(),
+                nextPageUrl
+        );
+        response.setTotalsApproximate(approximate);
+        return response;
+    }
+    
+    /**
+     * Create a paged response for a cursor-paged listing filled by {@link FillToSizePager}
+     * 
+     * @param <T> Type of content
+     * @param content Content list
+     * @param nextCursor Where the next page starts, or null on the last page
+     * @param size Requested page size
+     * @param approximateTotal Cached total for the listing, or null if unknown
+     * @param baseUrl Base URL for next page
+     * @return PagedResponse object with approximate totals and the next cursor
+     */
+    public static <T> PagedResponse<T> createCursorResponse(List<T> content, PostCursor nextCursor, int size,
+            Long approximateTotal, String baseUrl) {
+        return createCursorResponse(content, nextCursor != null ? nextCursor.encode() : null, size,
+                approximateTotal, baseUrl);
+    }
+    
+    /**
+     * Create a paged response for a cursor-paged listing
+     * 
+     * @param <T> Type of content
+     * @param content Content list
+     * @param encodedCursor Token for the next page, or null on the last page
+     * @param size Requested page size
+     * @param approximateTotal Cached total for the listing, or null if unknown
+     * @param baseUrl Base URL for next page
+     * @return PagedResponse object with approximate totals and the next cursor
+     */
+    public static <T> PagedResponse<T> createCursorResponse(List<T> content, String encodedCursor, int size,
+            Long approximateTotal, String baseUrl) {
+        String nextPageUrl = null;
+        if (encodedCursor != null) {
+            nextPageUrl = baseUrl + "?cursor=" + encodedCursor + "&size=" + size;
+        }
+        
+        long totalElements = Math.max(approximateTotal != null ? approximateTotal : 0, content.size());
+        int totalPages = (int) ((totalElements + size - 1) / size);
+        
+        PagedResponse<T> response = new PagedResponse<>(
+                content,
+                0,
+                content.size(),
+                totalElements,
+                totalPages,
+                encodedCursor == null,
+                nextPageUrl
+        );
+        response.setTotalsApproximate(true);
+        response.setNextCursor(encodedCursor);
+        return response;
+    }
+}
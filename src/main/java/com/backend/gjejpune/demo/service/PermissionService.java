@@ -1,5 +1,10 @@
 package com.backend.gjejpune.demo.service;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -29,22 +34,84 @@ public class PermissionService {
             return false;
         }
         
-        boolean isOwner = post.getUser().getId().equals(userId);
-        boolean isFriend = friendshipService.areFriends(userId, post.getUser().getId());
-        
-        // User can access if:
-        // 1. The post is not private, or
-        // 2. The user is the owner of the post, or
-        // 3. The user is a friend of the post owner
-        boolean isPostAccessible = !post.isPrivate() || isOwner || isFriend;
-        
-        // User can access if:
-        // 1. The post owner's profile is not private, or
-        // 2. The user is the owner of the post, or
-        // 3. The user is a friend of the post owner
-        boolean isUserAccessible = !post.getUser().isPrivateProfile() || isOwner || isFriend;
+        // Public posts of public profiles need no friendship lookup
+        if (!needsFriendship(post, userId)) {
+            return true;
+        }
+        return friendshipService.areFriends(userId, post.getUser().getId());
+    }
+    
+    /**
+     * Check if a user can access a post from its visibility fields alone
+     * 
+     * @param authorId The ID of the post's author
+     * @param isPrivate Whether the post is private
+     * @param authorPrivateProfile Whether the author's profile is private
+     * @param userId The ID of the user trying to access the post
+     * @return true if the user can access the post, false otherwise
+     */
+    public boolean canAccessPost(Long authorId, boolean isPrivate, boolean authorPrivateProfile, Long userId) {
+        if (authorId == null || userId == null) {
+            return false;
+        }
+        if (authorId.equals(userId) || !(isPrivate || authorPrivateProfile)) {
+            return true;
+        }
+        return friendshipService.areFriends(userId, authorId);
+    }
+    
+    /**
+     * Evaluate post visibility for a whole batch. The viewer's friend list is loaded at most
+     * once, and only if some post in the batch is not public.
+     * 
+     * @param posts The posts to check access for
+     * @param userId The ID of the user trying to access the posts
+     * @return A bitset with bit i set if the user can access posts.get(i)
+     */
+    public BitSet canAccessPosts(List<Post> posts, Long userId) {
+        BitSet allowed = new BitSet(posts.size());
+        if (userId == null) {
+            return allowed;
+        }
         
-        return isPostAccessible && isUserAccessible;
+        Set<Long> friendIds = null;
+        for (int i = 0; i < posts.size(); i++) {
+            Post post = posts.get(i);
+            if (post == null) {
+                continue;
+            }
+            if (!needsFriendship(post, userId)) {
+                allowed.set(i);
+                continue;
+            }
+            if (friendIds == null) {
+                friendIds = friendshipService.getFriendIdSet(userId);
+            }
+            if (friendIds.contains(post.getUser().getId())) {
+                allowed.set(i);
+            }
+        }
+        return allowed;
+    }
+    
+    /**
+     * Keep only the posts a user can access, preserving their order
+     * 
+     * @param posts The posts to filter
+     * @param userId The ID of the user trying to access the posts
+     * @return The accessible posts
+     */
+    public List<Post> filterAccessiblePosts(List<Post> posts, Long userId) {
+        return select(posts, canAccessPosts(posts, userId));
+    }
+    
+    /**
+     * A post is visible without friendship if the viewer owns it, or if neither the post
+     * nor its owner's profile is private
+     */
+    private boolean needsFriendship(Post post, Long userId) {
+        boolean isOwner = post.getUser().getId().equals(userId);
+        return !isOwner && (post.isPrivate() || post.getUser().isPrivateProfile());
     }
     
     /**
@@ -139,4 +206,49 @@ public class PermissionService {
         // Friends can access private profiles
         return friendshipService.areFriends(userId, targetUser.getId());
     }
+    
+    /**
+     * Evaluate profile visibility for a whole batch, loading the viewer's friend list at
+     * most once
+     * 
+     * @param targetUsers The users whose profiles are being accessed
+     * @param userId The ID of the user trying to access the profiles
+     * @return A bitset with bit i set if the user can access targetUsers.get(i)
+     */
+    public BitSet canAccessUserProfiles(List<User> targetUsers, Long userId) {
+        BitSet allowed = new BitSet(targetUsers.size());
+        if (userId == null) {
+            return allowed;
+        }
+        
+        Set<Long> friendIds = null;
+        for (int i = 0; i < targetUsers.size(); i++) {
+            User targetUser = targetUsers.get(i);
+            if (targetUser == null) {
+                continue;
+            }
+            if (!targetUser.isPrivateProfile() || targetUser.getId().equals(userId)) {
+                allowed.set(i);
+                continue;
+            }
+            if (friendIds == null) {
+                friendIds = friendshipService.getFriendIdSet(userId);
+            }
+            if (friendIds.contains(targetUser.getId())) {
+                allowed.set(i);
+            }
+        }
+        return allowed;
+    }
+    
+    /**
+     * Keep the items whose bit is set, preserving their order
+     */
+    public static <T> List<T> select(List<T> items, BitSet allowed) {
+        List<T> selected = new ArrayList<>(allowed.cardinality());
+        for (int i = allowed.nextSetBit(0); i >= 0 && i < items.size(); i = allowed.nextSetBit(i + 1)) {
+            selected.add(items.get(i));
+        }
+        return selected;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.backend.gjejpune.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.gjejpune.demo.model.ArchivedPost;
+import com.backend.gjejpune.demo.model.Post;
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.repository.ArchivedCommentRepository;
+import com.backend.gjejpune.demo.repository.ArchivedLikeRepository;
+import com.backend.gjejpune.demo.repository.ArchivedPostRepository;
+import com.backend.gjejpune.demo.repository.CommentRepository;
+import com.backend.gjejpune.demo.repository.LikeRepository;
+import com.backend.gjejpune.demo.repository.PostRepository;
+
+/**
+ * Moves old posts, with their likes and comments, from the hot tables into archive tables.
+ *
+ * Each batch runs in its own transaction: the oldest posts past the cutoff are locked, their
+ * likes, comments and rows are copied with INSERT ... SELECT and then deleted from the hot
+ * tables. Archived posts stay readable through {@link #findArchivedPost(Long)} and the
+ * per-user listing, and their owner can still edit or delete them, but they no longer
+ * appear in search.
+ */
+@Service
+public class PostArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostArchiveService.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ArchivedPostRepository archivedPostRepository;
+
+    @Autowired
+    private ArchivedLikeRepository archivedLikeRepository;
+
+    @Autowired
+    private ArchivedCommentRepository archivedCommentRepository;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private PublicTimelineBuffer publicTimelineBuffer;
+    
+    @Autowired
+    private LikeCounterStore likeCounterStore;
+    
+    @Autowired
+    private EngagementFeatureStore engagementFeatureStore;
+    
+    @Autowired
+    private RequestLookupContext requestLookupContext;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.max-age-days:365}")
+    private long maxAgeDays;
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Archive posts past the configured age on the configured schedule
+     */
+    @Scheduled(initialDelayString = "${archive.initial-delay-ms:600000}",
+               fixedDelayString = "${archive.interval-ms:3600000}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        archiveOlderThan(LocalDateTime.now().minusDays(maxAgeDays));
+    }
+
+    /**
+     * Move posts created before the cutoff to the archive, one batch per transaction
+     *
+     * @param cutoff Posts created before this time are archived
+     * @return Number of posts archived, or 0 if a run is already in progress
+     */
+    public int archiveOlderThan(LocalDateTime cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Post archiving already in progress, skipping");
+            return 0;
+        }
+
+        try {
+            long startedAt = System.currentTimeMillis();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            int archived = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                Integer moved = transaction.execute(status -> archiveBatch(cutoff));
+                archived += moved;
+                if (moved < batchSize) {
+                    break;
+                }
+            }
+
+            if (archived > 0) {
+                logger.info("Archived {} posts created before {} in {}ms",
+                        archived, cutoff, System.currentTimeMillis() - startedAt);
+            }
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Find a post in the archive
+     */
+    public Optional<Post> findArchivedPost(Long postId) {
+        return archivedPostRepository.findById(postId)
+                .flatMap(archived -> requestLookupContext.findUser(archived.getUserId())
+                        .map(archived::toPost));
+    }
+
+    /**
+     * Write the edits made to a post found by {@link #findArchivedPost(Long)}
+     *
+     * @return The post as stored
+     */
+    public Post updateArchivedPost(Post post) {
+        ArchivedPost archived = archivedPostRepository.findById(post.getId())
+                .orElseThrow(() -> new RuntimeException("Error: Post not found."));
+        archived.apply(post);
+        return archivedPostRepository.save(archived).toPost(post.getUser());
+    }
+
+    /**
+     * Delete an archived post together with its archived likes and comments
+     */
+    public void deleteArchivedPost(Long postId) {
+        archivedLikeRepository.deleteByPostId(postId);
+        archivedCommentRepository.deleteByPostId(postId);
+        archivedPostRepository.deleteById(postId);
+    }
+
+    /**
+     * Get a user's archived posts, newest first
+     *
+     * @param userId The author's ID
+     * @param offset Number of archived posts to skip
+     * @param limit Maximum number of posts to return
+     */
+    public List<Post> findArchivedPosts(Long userId, long offset, int limit) {
+        return toPosts(userId, archivedPostRepository.findByUserIdNewestFirst(userId, offset, limit));
+    }
+
+    /**
+     * Get a user's archived posts ordered by (createdAt, id) descending, strictly after the cursor
+     *
+     * @param userId The author's ID
+     * @param after Where to resume, or null to start at the newest archived post
+     * @param limit Maximum number of posts to return
+     */
+    public List<Post> findArchivedPostsAfter(Long userId, PostCursor after, int limit) {
+        Pageable batch = PageRequest.of(0, limit);
+        List<ArchivedPost> archivedPosts = after == null
+                ? archivedPostRepository.findNewestByUserId(userId, batch)
+                : archivedPostRepository.findOlderThanByUserId(userId, after.getCreatedAt(), after.getId(), batch);
+        return toPosts(userId, archivedPosts);
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> postIds = postRepository.lockIdsCreatedBefore(cutoff, batchSize);
+        if (postIds.isEmpty()) {
+            return 0;
+        }
+
+        archivedLikeRepository.copyFromLikes(postIds);
+        archivedCommentRepository.copyFromComments(postIds);
+        archivedPostRepository.copyFromPosts(postIds, LocalDateTime.now());
+
+        likeRepository.deleteByPostIdIn(postIds);
+        commentRepository.deleteByPostIdIn(postIds);
+        postRepository.deleteByIdIn(postIds);
+        likeCounterStore.forget(postIds);
+        engagementFeatureStore.forget(postIds);
+
+        for (Long postId : postIds) {
+            postSearchService.remove(postId);
+            publicTimelineBuffer.postRemoved(postId);
+        }
+        return postIds.size();
+    }
+
+    private List<Post> toPosts(Long userId, List<ArchivedPost> archivedPosts) {
+        List<Post> posts = new ArrayList<>();
+        if (archivedPosts.isEmpty()) {
+            return posts;
+        }
+
+        User user = requestLookupContext.findUser(userId)
+                .orElseThrow(() -> new RuntimeException("Error: User not found."));
+        for (ArchivedPost archived : archivedPosts) {
+            posts.add(archived.toPost(user));
+        }
+        return posts;
+    }
+}
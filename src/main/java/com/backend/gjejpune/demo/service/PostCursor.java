@@ -0,0 +1,69 @@
+package com.backend.gjejpune.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.backend.gjejpune.demo.model.Post;
+
+/**
+ * Opaque resume point for post listings ordered by (createdAt, id) descending.
+ *
+ * Besides the position it carries the share of posts the viewer could see so far, so the
+ * next request can size its first batch without having to learn the selectivity again.
+ */
+public final class PostCursor {
+
+    private final LocalDateTime createdAt;
+    private final long id;
+    private final int selectivityPercent;
+
+    public PostCursor(LocalDateTime createdAt, long id, int selectivityPercent) {
+        this.createdAt = createdAt;
+        this.id = id;
+        this.selectivityPercent = Math.max(1, Math.min(100, selectivityPercent));
+    }
+
+    public static PostCursor after(Post post, int selectivityPercent) {
+        return new PostCursor(post.getCreatedAt(), post.getId(), selectivityPercent);
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getSelectivityPercent() {
+        return selectivityPercent;
+    }
+
+    /**
+     * Encode as a URL-safe token
+     */
+    public String encode() {
+        String raw = createdAt + "|" + id + "|" + selectivityPercent;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a token produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException If the token is malformed
+     */
+    public static PostCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new PostCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed cursor", ex);
+        }
+    }
+}
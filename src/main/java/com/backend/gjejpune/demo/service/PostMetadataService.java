@@ -1,12 +1,18 @@
 package com.backend.gjejpune.demo.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.backend.gjejpune.demo.model.Post;
-import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.repository.ArchivedCommentRepository;
+import com.backend.gjejpune.demo.repository.ArchivedLikeRepository;
 import com.backend.gjejpune.demo.repository.CommentRepository;
 import com.backend.gjejpune.demo.repository.LikeRepository;
 
@@ -22,15 +28,57 @@ public class PostMetadataService {
     @Autowired
     private CommentRepository commentRepository;
     
+    @Autowired
+    private LikeCounterStore likeCounterStore;
+    
+    @Autowired
+    private LikeIngestBuffer likeIngestBuffer;
+    
+    @Autowired
+    private ArchivedLikeRepository archivedLikeRepository;
+    
+    @Autowired
+    private ArchivedCommentRepository archivedCommentRepository;
+    
+    @Autowired
+    private PostViewService postViewService;
+    
     /**
      * Populate metadata (like and comment counts) for a list of posts
      * 
      * @param posts List of posts to populate metadata for
-     * @param currentUser The current user
+     * @param currentUserId The ID of the current user
      */
-    public void populatePostMetadata(List<Post> posts, User currentUser) {
+    public void populatePostMetadata(List<Post> posts, Long currentUserId) {
+        postViewService.populateViews(posts);
+        
+        // Archived posts are filled one by one, hot posts with one grouped query per kind
+        List<Long> postIds = new ArrayList<>();
+        for (Post post : posts) {
+            if (post.isArchived()) {
+                populatePostMetadata(post, currentUserId);
+            } else {
+                postIds.add(post.getId());
+            }
+        }
+        if (postIds.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, Long> commentCounts = new HashMap<>();
+        for (Object[] row : commentRepository.countGroupedByPostId(postIds)) {
+            commentCounts.put((Long) row[0], (Long) row[1]);
+        }
+        Set<Long> likedIds = new HashSet<>(likeRepository.findLikedPostIds(currentUserId, postIds));
+        
         for (Post post : posts) {
-            populatePostMetadata(post, currentUser);
+            if (post.isArchived()) {
+                continue;
+            }
+            post.setLikeCount(likeIngestBuffer.mergedCount(post.getId(), likeCounterStore.getCount(post.getId())));
+            post.setCommentCount(commentCounts.getOrDefault(post.getId(), 0L));
+            Boolean pending = likeIngestBuffer.pendingState(post.getId(), currentUserId);
+            post.setLikedByCurrentUser(pending != null ? pending : likedIds.contains(post.getId()));
         }
     }
     
@@ -38,16 +86,27 @@ public class PostMetadataService {
      * Populate metadata (like and comment counts) for a single post
      * 
      * @param post Post to populate metadata for
-     * @param currentUser The current user
+     * @param currentUserId The ID of the current user
      */
-    public void populatePostMetadata(Post post, User currentUser) {
+    public void populatePostMetadata(Post post, Long currentUserId) {
+        postViewService.populateViews(List.of(post));
+        
+        // Likes and comments of archived posts were moved along with them
+        if (post.isArchived()) {
+            post.setLikeCount(archivedLikeRepository.countByPostId(post.getId()));
+            post.setCommentCount(archivedCommentRepository.countByPostId(post.getId()));
+            post.setLikedByCurrentUser(archivedLikeRepository.existsByUserIdAndPostId(currentUserId, post.getId()));
+            return;
+        }
+        
         // Set like count
-        post.setLikeCount(likeRepository.countByPost(post));
+        post.setLikeCount(likeIngestBuffer.mergedCount(post.getId(), likeCounterStore.getCount(post.getId())));
         
         // Set comment count
-        post.setCommentCount(commentRepository.countByPost(post));
+        post.setCommentCount(commentRepository.countByPostId(post.getId()));
         
         // Check if current user has liked the post
-        post.setLikedByCurrentUser(likeRepository.existsByUserAndPost(currentUser, post));
+        Boolean pending = likeIngestBuffer.pendingState(post.getId(), currentUserId);
+        post.setLikedByCurrentUser(pending != null ? pending : likeRepository.existsByUserIdAndPostId(currentUserId, post.getId()));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,285 @@
+package com.backend.gjejpune.demo.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.gjejpune.demo.model.Post;
+import com.backend.gjejpune.demo.repository.PostRepository;
+import com.backend.gjejpune.demo.search.FullTextIndex;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the on-disk full-text index of post titles and content in sync with the posts table.
+ *
+ * Changes are applied to the index only after the surrounding transaction commits, are
+ * flushed to a new segment periodically, and segments are merged in the background once
+ * there are too many of them.
+ *
+ * Changes this node never saw, made by other nodes or lost in a crash before a flush, are
+ * picked up by a reconcile at startup and on a schedule: posts updated since the watermark
+ * stored with the index (less a safety margin) are reindexed, and if the index still holds a
+ * different number of posts than the database, it is compared post by post with the table.
+ * An index without a watermark is rebuilt from scratch.
+ */
+@Service
+public class PostSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchService.class);
+
+    private static final int LOAD_CHUNK_SIZE = 1000;
+    private static final String WATERMARK_FILE = "watermark";
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Value("${search.index-dir:./index/posts}")
+    private String indexDir;
+
+    @Value("${search.max-segments:8}")
+    private int maxSegments;
+
+    @Value("${search.reconcile-margin-seconds:300}")
+    private long reconcileMarginSeconds;
+
+    private volatile FullTextIndex index;
+
+    private volatile boolean ready = false;
+
+    private Path directory;
+
+    // Every post changed before this time is known to be in the index on disk
+    private volatile LocalDateTime watermark;
+
+    private final AtomicBoolean reconciling = new AtomicBoolean(false);
+
+    /**
+     * Open the index once the application has started, rebuilding it if it is missing and catching it up otherwise
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() {
+        long startedAt = System.currentTimeMillis();
+        directory = Paths.get(indexDir).toAbsolutePath().normalize();
+
+        try {
+            FullTextIndex opened = new FullTextIndex(directory);
+            opened.open();
+            index = opened;
+            watermark = readWatermark();
+            if (watermark == null) {
+                logger.info("Post search index has no watermark, rebuilding");
+                rebuild();
+            } else {
+                catchUp();
+            }
+            ready = true;
+            logger.info("Post search index opened with {} documents in {} segments in {}ms",
+                    index.liveDocCount(), index.segmentCount(), System.currentTimeMillis() - startedAt);
+        } catch (IOException ex) {
+            logger.error("Could not open post search index at {}. Error: {}", directory, ex.getMessage());
+        }
+    }
+
+    /**
+     * Pick up changes this node did not apply itself
+     */
+    @Scheduled(initialDelayString = "${search.reconcile-interval-ms:300000}", fixedDelayString = "${search.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!ready || !reconciling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            catchUp();
+        } catch (IOException ex) {
+            logger.error("Could not reconcile post search index. Error: {}", ex.getMessage());
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    // Reindex posts changed since the watermark, then drop posts that no longer exist if the counts differ
+    private void catchUp() throws IOException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = watermark.minusSeconds(reconcileMarginSeconds);
+
+        Pageable chunk = PageRequest.of(0, LOAD_CHUNK_SIZE);
+        Long afterId = 0L;
+        int changed = 0;
+        List<Object[]> rows;
+        do {
+            rows = postRepository.findSearchFieldsChangedSince(since, afterId, chunk);
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                index.index(afterId, (String) row[1], (String) row[2]);
+            }
+            changed += rows.size();
+        } while (rows.size() == LOAD_CHUNK_SIZE);
+
+        int removed = 0;
+        if (index.liveDocCount() != postRepository.count()) {
+            // Posts older than the watermark that the index lacks, e.g. restored from a backup, are indexed too
+            Set<Long> stale = index.liveDocIds();
+            List<Long> missing = new ArrayList<>();
+            afterId = 0L;
+            List<Long> ids;
+            do {
+                ids = postRepository.findIdsAfter(afterId, chunk);
+                for (Long id : ids) {
+                    if (!stale.remove(id)) {
+                        missing.add(id);
+                    }
+                    afterId = id;
+                }
+            } while (ids.size() == LOAD_CHUNK_SIZE);
+            for (Long id : stale) {
+                index.delete(id);
+            }
+            for (Post post : postRepository.findAllById(missing)) {
+                index.index(post.getId(), post.getTitle(), post.getContent());
+            }
+            removed = stale.size();
+            changed += missing.size();
+        }
+
+        index.flush();
+        writeWatermark(startedAt);
+        if (changed > 0 || removed > 0) {
+            logger.info("Post search index caught up: {} posts reindexed, {} removed", changed, removed);
+        }
+    }
+
+    private void rebuild() throws IOException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        index.clear();
+
+        Pageable chunk = PageRequest.of(0, LOAD_CHUNK_SIZE);
+        Long afterId = 0L;
+        List<Object[]> rows;
+        do {
+            rows = postRepository.findSearchFieldsAfter(afterId, chunk);
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                index.index(afterId, (String) row[1], (String) row[2]);
+            }
+            index.flush();
+        } while (rows.size() == LOAD_CHUNK_SIZE);
+
+        index.merge(1);
+        writeWatermark(startedAt);
+    }
+
+    private LocalDateTime readWatermark() throws IOException {
+        try {
+            return LocalDateTime.parse(Files.readString(directory.resolve(WATERMARK_FILE)).trim());
+        } catch (NoSuchFileException | DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    // Only called once the changes it covers are flushed to segments
+    private void writeWatermark(LocalDateTime time) throws IOException {
+        Path temporary = directory.resolve(WATERMARK_FILE + ".tmp");
+        Files.writeString(temporary, time.toString());
+        Files.move(temporary, directory.resolve(WATERMARK_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        watermark = time;
+    }
+
+    /**
+     * Write buffered changes to disk and merge segments when there are too many
+     */
+    @Scheduled(initialDelayString = "${search.flush-interval-ms:10000}", fixedDelayString = "${search.flush-interval-ms:10000}")
+    public void flushAndMerge() {
+        if (!ready) {
+            return;
+        }
+        try {
+            index.flush();
+            if (index.merge(maxSegments)) {
+                logger.info("Merged post search index into one segment with {} documents", index.liveDocCount());
+            }
+        } catch (IOException ex) {
+            logger.error("Could not flush post search index. Error: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flushAndMerge();
+    }
+
+    /**
+     * Add or refresh a post in the index once the current transaction commits
+     */
+    public void index(Post post) {
+        Long postId = post.getId();
+        String title = post.getTitle();
+        String content = post.getContent();
+        afterCommit(() -> index.index(postId, title, content));
+    }
+
+    /**
+     * Remove a post from the index once the current transaction commits
+     */
+    public void remove(Long postId) {
+        afterCommit(() -> index.delete(postId));
+    }
+
+    /**
+     * Check whether the index has been opened
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Find post ids matching the query, best matches first
+     *
+     * @param query The search text
+     * @param limit Maximum number of ids to return
+     * @return Ranked post ids
+     */
+    public List<Long> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    private void afterCommit(Runnable change) {
+        if (index == null) {
+            // Not opened yet, the startup consistency check will pick the change up from the database
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
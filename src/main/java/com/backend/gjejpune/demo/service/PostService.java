@@ -1,13 +1,26 @@
 package com.backend.gjejpune.demo.service;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -15,22 +28,34 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.backend.gjejpune.demo.model.Post;
+import com.backend.gjejpune.demo.model.PostChange;
+import com.backend.gjejpune.demo.model.PostChange.ChangeType;
 import com.backend.gjejpune.demo.model.User;
 import com.backend.gjejpune.demo.payload.request.PostRequest;
+import com.backend.gjejpune.demo.payload.response.FeedChangesResponse;
 import com.backend.gjejpune.demo.payload.response.MessageResponse;
 import com.backend.gjejpune.demo.payload.response.PagedResponse;
+import com.backend.gjejpune.demo.payload.response.PostCountersResponse;
+import com.backend.gjejpune.demo.repository.CommentRepository;
+import com.backend.gjejpune.demo.repository.LikeRepository;
 import com.backend.gjejpune.demo.repository.PostRepository;
-import com.backend.gjejpune.demo.repository.UserRepository;
 
 @Service
 public class PostService {
     private static final Logger logger = LoggerFactory.getLogger(PostService.class);
+    private static final int MAX_SEARCH_RESULTS = 300;
     
     @Autowired
     private PostRepository postRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private LikeRepository likeRepository;
+    
+    @Autowired
+    private RequestLookupContext requestLookupContext;
+    
+    @Autowired
+    private UserCache userCache;
     
     @Autowired
     private FileStorageService fileStorageService;
@@ -44,13 +69,78 @@ public class PostService {
     @Autowired
     private PostMetadataService postMetadataService;
     
+    @Autowired
+    private PostSearchService postSearchService;
+    
+    @Autowired
+    private PostArchiveService postArchiveService;
+    
+    @Autowired
+    private ApproximateCountService approximateCountService;
+    
+    @Autowired
+    private PublicTimelineBuffer publicTimelineBuffer;
+    
+    @Autowired
+    private LikeCounterStore likeCounterStore;
+    
+    @Autowired
+    private LikeIngestBuffer likeIngestBuffer;
+    
+    @Autowired
+    private PostViewService postViewService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private EngagementFeatureStore engagementFeatureStore;
+    
+    @Autowired
+    private EventStreamService eventStreamService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private FeedRanker feedRanker;
+    
+    @Autowired
+    private FeedChangeLog feedChangeLog;
+    
+    @Autowired
+    private CommentRepository commentRepository;
+    
     /**
-     * Get all posts with pagination, respecting privacy settings
+     * Get all posts with pagination, respecting privacy settings.
+     * 
+     * The first page and any page requested by cursor are filled to the requested size
+     * with visible posts; an explicit page number keeps the classic offset behaviour.
      */
-    public PagedResponse<Post> getAllPosts(int page, int size, Long currentUserId) {
-        User currentUser = userRepository.findById(currentUserId)
+    @Transactional(readOnly = true)
+    public PagedResponse<Post> getAllPosts(int page, int size, PostCursor cursor, Long currentUserId) {
+        userCache.get(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
+        if (cursor != null || page == 0) {
+            // The newest pages come from the in-memory public timeline while it covers them
+            FillToSizePager.Result result = readPublicTimeline(size, cursor, currentUserId);
+            if (result == null) {
+                result = FillToSizePager.fill(size, cursor,
+                        (after, limit) -> after == null
+                                ? postRepository.findNewest(PageRequest.of(0, limit))
+                                : postRepository.findOlderThan(after.getCreatedAt(), after.getId(), PageRequest.of(0, limit)),
+                        batch -> permissionService.canAccessPosts(batch, currentUserId));
+                postMetadataService.populatePostMetadata(result.getContent(), currentUserId);
+            }
+            postViewService.recordViews(result.getContent(), currentUserId);
+            
+            Long approximateTotal = approximateCountService.getTotal(
+                    ApproximateCountService.CountKind.ALL_POSTS, ApproximateCountService.GLOBAL);
+            return PaginationUtils.createCursorResponse(result.getContent(), result.getNextCursor(), size,
+                    approximateTotal, "/api/posts");
+        }
+        
         // Create pageable object for pagination
         Pageable pageable = PaginationUtils.createPageable(page, size);
         
@@ -58,25 +148,86 @@ public class PostService {
         Page<Post> postPage = postRepository.findAll(pageable);
         
         // Filter posts based on privacy settings and friendship
-        List<Post> filteredPosts = postPage.getContent().stream()
-            .filter(post -> permissionService.canAccessPost(post, currentUserId))
-            .collect(Collectors.toList());
+        List<Post> filteredPosts = permissionService.filterAccessiblePosts(postPage.getContent(), currentUserId);
         
         // Populate like and comment counts for each post
-        postMetadataService.populatePostMetadata(filteredPosts, currentUser);
+        postMetadataService.populatePostMetadata(filteredPosts, currentUserId);
+        postViewService.recordViews(filteredPosts, currentUserId);
         
         return PaginationUtils.createPagedResponse(filteredPosts, postPage, "/api/posts");
     }
     
+    /**
+     * Serve a timeline page from the in-memory public timeline, merged with the private posts
+     * and private-profile posts the viewer can see, which the timeline leaves out
+     * 
+     * @return The page with its metadata populated, or null if it reaches past the timeline
+     */
+    private FillToSizePager.Result readPublicTimeline(int size, PostCursor cursor, Long currentUserId) {
+        List<Post> publicPosts = publicTimelineBuffer.read(cursor, size);
+        if (publicPosts == null) {
+            return null;
+        }
+        
+        // Only the viewer's own and their friends' posts can be visible without being public
+        Set<Long> authorIds = new HashSet<>(friendshipService.getFriendIdSet(currentUserId));
+        authorIds.add(currentUserId);
+        Pageable batch = PageRequest.of(0, size);
+        List<Post> restrictedPosts = cursor == null
+                ? postRepository.findNewestRestrictedByUserIdIn(authorIds, batch)
+                : postRepository.findOlderRestrictedByUserIdIn(authorIds, cursor.getCreatedAt(), cursor.getId(), batch);
+        
+        // Both lists are newest first, so merge them and keep the newest size posts
+        List<Post> posts = new ArrayList<>(size);
+        List<Long> publicIds = new ArrayList<>();
+        List<Post> restrictedTaken = new ArrayList<>();
+        int publicIndex = 0;
+        int restrictedIndex = 0;
+        while (posts.size() < size && (publicIndex < publicPosts.size() || restrictedIndex < restrictedPosts.size())) {
+            boolean takePublic = restrictedIndex >= restrictedPosts.size()
+                    || (publicIndex < publicPosts.size() && isNewer(publicPosts.get(publicIndex), restrictedPosts.get(restrictedIndex)));
+            if (takePublic) {
+                Post timelinePost = publicPosts.get(publicIndex++);
+                publicIds.add(timelinePost.getId());
+                posts.add(timelinePost);
+            } else {
+                Post restricted = restrictedPosts.get(restrictedIndex++);
+                restrictedTaken.add(restricted);
+                posts.add(restricted);
+            }
+        }
+        
+        // Counts of timeline posts are already set, only the viewer's likes and the view counts are looked up
+        if (!publicIds.isEmpty()) {
+            postViewService.populateViews(posts);
+            Set<Long> likedIds = new HashSet<>(likeRepository.findLikedPostIds(currentUserId, publicIds));
+            for (Post post : posts) {
+                Boolean pending = likeIngestBuffer.pendingState(post.getId(), currentUserId);
+                post.setLikedByCurrentUser(pending != null ? pending : likedIds.contains(post.getId()));
+                post.setLikeCount(likeIngestBuffer.mergedCount(post.getId(), post.getLikesCount()));
+            }
+        }
+        postMetadataService.populatePostMetadata(restrictedTaken, currentUserId);
+        
+        // A short page means both sources ran out
+        PostCursor nextCursor = posts.size() < size ? null : PostCursor.after(posts.get(posts.size() - 1), 100);
+        return new FillToSizePager.Result(posts, nextCursor);
+    }
+    
+    private static boolean isNewer(Post first, Post second) {
+        int byTime = first.getCreatedAt().compareTo(second.getCreatedAt());
+        return byTime != 0 ? byTime > 0 : first.getId() > second.getId();
+    }
+    
     /**
      * Get a single post by ID, respecting privacy settings
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getPostById(Long id, Long currentUserId) {
-        User currentUser = userRepository.findById(currentUserId)
+        userCache.get(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Error: Post not found."));
+        Post post = findPostIncludingArchive(id);
         
         // Check if user has permission to view this post
         if (!permissionService.canAccessPost(post, currentUserId)) {
@@ -85,8 +236,11 @@ public class PostService {
                     .body(new MessageResponse("Error: You don't have permission to view this post."));
         }
         
+        // Count the view first, so the viewer is included in the count they see
+        postViewService.recordView(post, currentUserId);
+        
         // Populate like and comment counts
-        postMetadataService.populatePostMetadata(post, currentUser);
+        postMetadataService.populatePostMetadata(post, currentUserId);
         
         return new ResponseEntity<>(post, HttpStatus.OK);
     }
@@ -94,31 +248,35 @@ public class PostService {
     /**
      * Get current user's posts with pagination
      */
+    @Transactional(readOnly = true)
     public PagedResponse<Post> getCurrentUserPosts(int page, int size, Long currentUserId) {
-        User user = userRepository.findById(currentUserId)
+        userCache.get(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
         // Create pageable object for pagination
         Pageable pageable = PaginationUtils.createPageable(page, size);
         
-        // Get paginated posts for current user
-        Page<Post> postPage = postRepository.findByUser(user, pageable);
+        // Get a slice of posts for current user; the total comes from the approximate count cache
+        Slice<Post> postSlice = findPostsByUserIncludingArchive(currentUserId, pageable);
+        Long approximateTotal = approximateCountService.getTotal(
+                ApproximateCountService.CountKind.POSTS_BY_USER, currentUserId, postSlice);
         
         // Populate like and comment counts for each post
-        List<Post> posts = postPage.getContent();
-        postMetadataService.populatePostMetadata(posts, user);
+        List<Post> posts = postSlice.getContent();
+        postMetadataService.populatePostMetadata(posts, currentUserId);
         
-        return PaginationUtils.createPagedResponse(posts, postPage, "/api/posts/my-posts");
+        return PaginationUtils.createSlicedResponse(posts, postSlice, approximateTotal, "/api/posts/my-posts");
     }
     
     /**
      * Get posts by user ID with pagination, respecting privacy settings
      */
-    public ResponseEntity<?> getPostsByUserId(Long userId, int page, int size, Long currentUserId) {
-        User currentUser = userRepository.findById(currentUserId)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getPostsByUserId(Long userId, int page, int size, PostCursor cursor, Long currentUserId) {
+        userCache.get(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
-        User targetUser = userRepository.findById(userId)
+        User targetUser = requestLookupContext.findUser(userId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
         // Check if the target user has a private profile and is not the current user or a friend
@@ -128,36 +286,100 @@ public class PostService {
                     .body(new MessageResponse("Error: This user has a private profile."));
         }
         
+        // Fill the page with visible posts when starting out or resuming from a cursor
+        if (cursor != null || page == 0) {
+            boolean isOwner = userId.equals(currentUserId);
+            FillToSizePager.Result result = FillToSizePager.fill(size, cursor,
+                    (after, limit) -> findPostsByUserAfter(userId, after, limit),
+                    batch -> isOwner ? allSet(batch.size()) : permissionService.canAccessPosts(batch, currentUserId));
+            
+            postMetadataService.populatePostMetadata(result.getContent(), currentUserId);
+            Long approximateTotal = approximateCountService.getTotal(
+                    ApproximateCountService.CountKind.POSTS_BY_USER, userId);
+            return ResponseEntity.ok(PaginationUtils.createCursorResponse(result.getContent(), result.getNextCursor(),
+                    size, approximateTotal, "/api/posts/user/" + userId));
+        }
+        
         // Create pageable object for pagination
         Pageable pageable = PaginationUtils.createPageable(page, size);
         
-        // Get paginated posts for target user
-        Page<Post> postPage = postRepository.findByUser(targetUser, pageable);
+        // Get a slice of posts for target user; the total comes from the approximate count cache
+        Slice<Post> postSlice = findPostsByUserIncludingArchive(userId, pageable);
+        Long approximateTotal = approximateCountService.getTotal(
+                ApproximateCountService.CountKind.POSTS_BY_USER, userId, postSlice);
         
         // Filter posts based on privacy settings if not the owner
-        List<Post> filteredPosts = postPage.getContent();
+        List<Post> filteredPosts = postSlice.getContent();
         if (!userId.equals(currentUserId)) {
-            filteredPosts = filteredPosts.stream()
-                .filter(post -> !post.isPrivate() || permissionService.canAccessPost(post, currentUserId))
-                .collect(Collectors.toList());
+            filteredPosts = permissionService.filterAccessiblePosts(filteredPosts, currentUserId);
         }
         
         // Populate like and comment counts for each post
-        postMetadataService.populatePostMetadata(filteredPosts, currentUser);
+        postMetadataService.populatePostMetadata(filteredPosts, currentUserId);
         
-        return ResponseEntity.ok(PaginationUtils.createPagedResponse(
+        return ResponseEntity.ok(PaginationUtils.createSlicedResponse(
                 filteredPosts, 
-                postPage, 
+                postSlice, 
+                approximateTotal,
                 "/api/posts/user/" + userId
         ));
     }
     
+    /**
+     * Read a keyset batch of a user's posts, continuing into the archive once the hot posts run out
+     */
+    private List<Post> findPostsByUserAfter(Long userId, PostCursor after, int limit) {
+        List<Post> posts = after == null
+                ? postRepository.findNewestByUserId(userId, PageRequest.of(0, limit))
+                : postRepository.findOlderThanByUserId(userId, after.getCreatedAt(), after.getId(), PageRequest.of(0, limit));
+        if (posts.size() < limit) {
+            // Archived posts are all older than the hot ones, so the keyset order carries over
+            PostCursor archiveStart = posts.isEmpty() ? after : PostCursor.after(posts.get(posts.size() - 1), 100);
+            posts = new ArrayList<>(posts);
+            posts.addAll(postArchiveService.findArchivedPostsAfter(userId, archiveStart, limit - posts.size()));
+        }
+        return posts;
+    }
+    
+    private static BitSet allSet(int size) {
+        BitSet bits = new BitSet(size);
+        bits.set(0, size);
+        return bits;
+    }
+    
+    /**
+     * Get a slice of a user's posts, newest first, continuing into the archive once the
+     * hot posts run out. Nothing is counted unless the page starts past the last hot post.
+     */
+    private Slice<Post> findPostsByUserIncludingArchive(Long userId, Pageable pageable) {
+        Slice<Post> hotSlice = postRepository.findSliceByUserId(userId, pageable);
+        if (hotSlice.hasNext()) {
+            return hotSlice;
+        }
+        
+        // The hot posts end on this page, so the rest of it comes from the archive
+        long hotTotal = hotSlice.hasContent()
+                ? pageable.getOffset() + hotSlice.getNumberOfElements()
+                : postRepository.countByUserId(userId);
+        int remaining = pageable.getPageSize() - hotSlice.getNumberOfElements();
+        long archiveOffset = Math.max(0, pageable.getOffset() - hotTotal);
+        List<Post> archived = postArchiveService.findArchivedPosts(userId, archiveOffset, remaining + 1);
+        if (archived.isEmpty()) {
+            return hotSlice;
+        }
+        
+        boolean hasNext = archived.size() > remaining;
+        List<Post> posts = new ArrayList<>(hotSlice.getContent());
+        posts.addAll(hasNext ? archived.subList(0, remaining) : archived);
+        return new SliceImpl<>(posts, pageable, hasNext);
+    }
+    
     /**
      * Create a new post
      */
     @Transactional
     public ResponseEntity<?> createPost(PostRequest postRequest, Long currentUserId) {
-        User user = userRepository.findById(currentUserId)
+        User user = requestLookupContext.findUser(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
         Post post = new Post();
@@ -174,6 +396,12 @@ public class PostService {
         post.setTitle(title);
         
         post = postRepository.save(post);
+        postSearchService.index(post);
+        publicTimelineBuffer.postCreated(post);
+        feedChangeLog.record(post.getId(), ChangeType.CREATED);
+        eventStreamService.postCreated(currentUserId, post.getId(), post.isPrivate());
+        approximateCountService.adjust(ApproximateCountService.CountKind.POSTS_BY_USER, currentUserId, 1);
+        approximateCountService.adjust(ApproximateCountService.CountKind.ALL_POSTS, ApproximateCountService.GLOBAL, 1);
         
         return new ResponseEntity<>(post, HttpStatus.CREATED);
     }
@@ -183,7 +411,7 @@ public class PostService {
      */
     @Transactional
     public ResponseEntity<?> createPostWithImage(String title, String content, Boolean isPrivate, MultipartFile image, Long currentUserId) {
-        User user = userRepository.findById(currentUserId)
+        User user = requestLookupContext.findUser(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
         // Create a new post
@@ -213,6 +441,12 @@ public class PostService {
         }
         
         post = postRepository.save(post);
+        postSearchService.index(post);
+        publicTimelineBuffer.postCreated(post);
+        feedChangeLog.record(post.getId(), ChangeType.CREATED);
+        eventStreamService.postCreated(currentUserId, post.getId(), post.isPrivate());
+        approximateCountService.adjust(ApproximateCountService.CountKind.POSTS_BY_USER, currentUserId, 1);
+        approximateCountService.adjust(ApproximateCountService.CountKind.ALL_POSTS, ApproximateCountService.GLOBAL, 1);
         
         return new ResponseEntity<>(post, HttpStatus.CREATED);
     }
@@ -222,8 +456,7 @@ public class PostService {
      */
     @Transactional
     public ResponseEntity<?> updatePost(Long id, PostRequest postRequest, Long currentUserId) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Error: Post not found."));
+        Post post = findPostIncludingArchive(id);
         
         // Check if the current user is the owner of the post
         if (!permissionService.canModifyPost(post, currentUserId)) {
@@ -237,9 +470,7 @@ public class PostService {
         post.setImageUrl(postRequest.getImageUrl());
         post.setPrivate(postRequest.isPrivate());
         
-        post = postRepository.save(post);
-        
-        return new ResponseEntity<>(post, HttpStatus.OK);
+        return new ResponseEntity<>(savePost(post), HttpStatus.OK);
     }
     
     /**
@@ -247,8 +478,7 @@ public class PostService {
      */
     @Transactional
     public ResponseEntity<?> updatePostWithImage(Long id, String title, String content, Boolean isPrivate, MultipartFile image, Long currentUserId) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Error: Post not found."));
+        Post post = findPostIncludingArchive(id);
         
         // Check if the current user is the owner of the post
         if (!permissionService.canModifyPost(post, currentUserId)) {
@@ -283,9 +513,26 @@ public class PostService {
             }
         }
         
+        return new ResponseEntity<>(savePost(post), HttpStatus.OK);
+    }
+    
+    // Old posts are moved to the archive, so fall back to it on a miss
+    private Post findPostIncludingArchive(Long id) {
+        return postRepository.findById(id)
+                .or(() -> postArchiveService.findArchivedPost(id))
+                .orElseThrow(() -> new RuntimeException("Error: Post not found."));
+    }
+    
+    // Store an edited post in the table it lives in
+    private Post savePost(Post post) {
+        if (post.isArchived()) {
+            return postArchiveService.updateArchivedPost(post);
+        }
         post = postRepository.save(post);
-        
-        return new ResponseEntity<>(post, HttpStatus.OK);
+        postSearchService.index(post);
+        publicTimelineBuffer.postUpdated(post);
+        feedChangeLog.record(post.getId(), ChangeType.UPDATED);
+        return post;
     }
     
     /**
@@ -293,8 +540,7 @@ public class PostService {
      */
     @Transactional
     public ResponseEntity<?> deletePost(Long id, Long currentUserId) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Error: Post not found."));
+        Post post = findPostIncludingArchive(id);
         
         // Check if the current user is the owner of the post
         if (!permissionService.canModifyPost(post, currentUserId)) {
@@ -303,17 +549,78 @@ public class PostService {
                     .body(new MessageResponse("Error: You don't have permission to delete this post."));
         }
         
-        // Delete the post
-        postRepository.delete(post);
+        if (post.isArchived()) {
+            // Archived posts are no longer in the search index, the timeline or the feed change log
+            postArchiveService.deleteArchivedPost(post.getId());
+        } else {
+            // Delete the post, logging it first since the log entry reads the post's author
+            feedChangeLog.record(post.getId(), ChangeType.DELETED);
+            postRepository.delete(post);
+            postSearchService.remove(post.getId());
+            publicTimelineBuffer.postRemoved(post.getId());
+        }
+        likeCounterStore.forget(List.of(post.getId()));
+        postViewService.forget(post.getId());
+        trendingService.forget(post.getId());
+        engagementFeatureStore.forget(List.of(post.getId()));
+        notificationService.postDeleted(post.getUser().getId(), post.getId());
+        approximateCountService.adjust(ApproximateCountService.CountKind.POSTS_BY_USER, post.getUser().getId(), -1);
+        if (!post.isArchived()) {
+            // The global total counts hot posts only, while the per-user one includes the archive
+            approximateCountService.adjust(ApproximateCountService.CountKind.ALL_POSTS, ApproximateCountService.GLOBAL, -1);
+        }
         
         return ResponseEntity.ok(new MessageResponse("Post deleted successfully!"));
     }
     
     /**
-     * Get posts for the user's feed (posts from friends)
+     * Get the posts with the most recent engagement that the user may see, best first.
+     * The ranking is kept in memory; only the ranked posts themselves are read.
      */
-    public ResponseEntity<?> getFeedPosts(int page, int size, Long currentUserId) {
-        User currentUser = userRepository.findById(currentUserId)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getTrendingPosts(int size, Long currentUserId) {
+        userCache.get(currentUserId)
+                .orElseThrow(() -> new RuntimeException("Error: User not found."));
+        
+        List<Long> ranking = trendingService.getRanking();
+        List<Post> trending = new ArrayList<>(size);
+        
+        // Read the ranking in batches until the page is full of posts the user may see
+        for (int from = 0; from < ranking.size() && trending.size() < size; from += size) {
+            List<Long> ids = ranking.subList(from, Math.min(ranking.size(), from + size));
+            Map<Long, Post> byId = postRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Post::getId, post -> post));
+            
+            // Deleted and archived posts are simply missing
+            List<Post> batch = ids.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            for (Post post : permissionService.filterAccessiblePosts(batch, currentUserId)) {
+                if (trending.size() < size) {
+                    trending.add(post);
+                }
+            }
+        }
+        
+        // Populate like and comment counts for each post
+        postMetadataService.populatePostMetadata(trending, currentUserId);
+        
+        return ResponseEntity.ok(trending);
+    }
+    
+    /**
+     * Get posts for the user's feed (posts from friends).
+     * 
+     * With ranking enabled the newest feed posts are ordered by the configured scorer and
+     * paged through by cursor, followed by the older posts newest first; otherwise the whole
+     * feed is newest first and paged by number.
+     * 
+     * @param cursor Where a ranked feed resumes, or null for its first page
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getFeedPosts(int page, int size, FeedCursor cursor, Long currentUserId) {
+        userCache.get(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
         
         // Get IDs of friends
@@ -322,6 +629,10 @@ public class PostService {
         // Add current user's ID to include their posts in the feed
         friendIds.add(currentUserId);
         
+        if (feedRanker.isEnabled()) {
+            return getRankedFeedPosts(friendIds, cursor, size, currentUserId);
+        }
+        
         // Create pageable object for pagination
         Pageable pageable = PaginationUtils.createPageable(page, size);
         
@@ -340,7 +651,8 @@ public class PostService {
             .collect(Collectors.toList());
         
         // Populate like and comment counts for each post
-        postMetadataService.populatePostMetadata(filteredPosts, currentUser);
+        postMetadataService.populatePostMetadata(filteredPosts, currentUserId);
+        postViewService.recordViews(filteredPosts, currentUserId);
         
         return ResponseEntity.ok(PaginationUtils.createPagedResponse(
                 filteredPosts, 
@@ -348,4 +660,219 @@ public class PostService {
                 "/api/posts/feed"
         ));
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Get what changed in the user's feed since a mark: new and edited posts, posts to drop,
+     * and the current counts of posts whose likes or comments changed
+     * 
+     * @param since The mark returned by the previous call, or null to only get the current mark
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getFeedChanges(FeedChangeMark since, Long currentUserId) {
+        userCache.get(currentUserId)
+                .orElseThrow(() -> new RuntimeException("Error: User not found."));
+        
+        if (since == null) {
+            return ResponseEntity.ok(new FeedChangesResponse(List.of(), List.of(), List.of(),
+                    feedChangeLog.currentMark().encode(), false));
+        }
+        
+        List<Long> authorIds = friendshipService.getFriendIds(currentUserId);
+        authorIds.add(currentUserId);
+        
+        FeedChangeMark next = feedChangeLog.nextMark(since);
+        List<PostChange> changes = feedChangeLog.readAfter(since, authorIds);
+        if (changes == null) {
+            return ResponseEntity.ok(new FeedChangesResponse(List.of(), List.of(), List.of(), next.encode(), true));
+        }
+        
+        // The log comes collapsed to one entry per post, saying what the client has to do with it
+        Set<Long> deletedIds = new LinkedHashSet<>();
+        Set<Long> editedIds = new LinkedHashSet<>();
+        Set<Long> engagedIds = new LinkedHashSet<>();
+        for (PostChange change : changes) {
+            switch (change.getType()) {
+                case DELETED:
+                    deletedIds.add(change.getPostId());
+                    break;
+                case CREATED:
+                case UPDATED:
+                    editedIds.add(change.getPostId());
+                    break;
+                default:
+                    engagedIds.add(change.getPostId());
+            }
+        }
+        Set<Long> changedIds = new LinkedHashSet<>(editedIds);
+        changedIds.addAll(engagedIds);
+        Map<Long, Post> byId = postRepository.findAllById(changedIds).stream()
+                .collect(Collectors.toMap(Post::getId, post -> post));
+        
+        // Posts that are gone or no longer in the feed are dropped by the client
+        List<Post> posts = new ArrayList<>();
+        List<Post> engaged = new ArrayList<>();
+        for (Long postId : changedIds) {
+            Post post = byId.get(postId);
+            if (post == null || (post.isPrivate() && !post.getUser().getId().equals(currentUserId))) {
+                deletedIds.add(postId);
+            } else if (editedIds.contains(postId)) {
+                posts.add(post);
+            } else {
+                engaged.add(post);
+            }
+        }
+        postMetadataService.populatePostMetadata(posts, currentUserId);
+        
+        List<PostCountersResponse> counters = new ArrayList<>(engaged.size());
+        if (!engaged.isEmpty()) {
+            Map<Long, Long> commentCounts = new HashMap<>();
+            for (Object[] row : commentRepository.countGroupedByPostId(engaged.stream().map(Post::getId).collect(Collectors.toList()))) {
+                commentCounts.put((Long) row[0], (Long) row[1]);
+            }
+            for (Post post : engaged) {
+                long likesCount = likeIngestBuffer.mergedCount(post.getId(), likeCounterStore.getCount(post.getId()));
+                counters.add(new PostCountersResponse(post.getId(), likesCount, commentCounts.getOrDefault(post.getId(), 0L)));
+            }
+        }
+        
+        return ResponseEntity.ok(new FeedChangesResponse(posts, new ArrayList<>(deletedIds), counters, next.encode(), false));
+    }
+    
+    /**
+     * Return one page of the ranked feed. The first page ranks the newest feed posts, reading
+     * only their IDs, authors and creation times, and keeps the ranking for the pages after it.
+     * Once the ranking is used up, or has expired, the posts older than it follow newest first.
+     */
+    private ResponseEntity<?> getRankedFeedPosts(List<Long> authorIds, FeedCursor cursor, int size, Long currentUserId) {
+        FeedRanker.Snapshot snapshot;
+        int offset;
+        if (cursor == null) {
+            List<Object[]> candidates = postRepository.findFeedCandidates(authorIds, currentUserId,
+                    PageRequest.of(0, feedRanker.getMaxCandidates()));
+            snapshot = feedRanker.snapshot(candidates, currentUserId);
+            offset = 0;
+        } else if (cursor.isRanked()) {
+            snapshot = feedRanker.getSnapshot(currentUserId, cursor.getSnapshotId());
+            offset = cursor.getOffset();
+            if (snapshot == null) {
+                // The ranking is gone; rather than rank again and repeat posts, go on below it
+                FeedCursor older = cursor.getCreatedAt() != null
+                        ? FeedCursor.olderThan(cursor.getCreatedAt(), cursor.getId()) : null;
+                return getOlderFeedPosts(authorIds, older, size, currentUserId);
+            }
+        } else {
+            return getOlderFeedPosts(authorIds, cursor, size, currentUserId);
+        }
+        
+        List<Long> ranked = snapshot.getPostIds();
+        int from = Math.min(offset, ranked.size());
+        int to = Math.min(ranked.size(), from + size);
+        List<Long> pageIds = ranked.subList(from, to);
+        Map<Long, Post> byId = postRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Post::getId, post -> post));
+        // Posts deleted or made private since the ranking was made are left out
+        List<Post> posts = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .filter(post -> !post.isPrivate() || post.getUser().getId().equals(currentUserId))
+                .collect(Collectors.toList());
+        
+        FeedCursor nextCursor;
+        if (to < ranked.size()) {
+            nextCursor = FeedCursor.ranked(snapshot.getId(), to, snapshot.getEdgeCreatedAt(), snapshot.getEdgeId());
+        } else if (snapshot.getEdgeId() != null) {
+            nextCursor = FeedCursor.olderThan(snapshot.getEdgeCreatedAt(), snapshot.getEdgeId());
+        } else {
+            nextCursor = null;
+        }
+        
+        // Populate like and comment counts for each post
+        postMetadataService.populatePostMetadata(posts, currentUserId);
+        postViewService.recordViews(posts, currentUserId);
+        
+        return ResponseEntity.ok(PaginationUtils.createCursorResponse(posts,
+                nextCursor != null ? nextCursor.encode() : null, size, (long) ranked.size(), "/api/posts/feed"));
+    }
+    
+    /**
+     * Return one page of the feed posts older than the ranking, newest first
+     * 
+     * @param cursor The post to continue after, or null if nothing is older than the ranking
+     */
+    private ResponseEntity<?> getOlderFeedPosts(List<Long> authorIds, FeedCursor cursor, int size, Long currentUserId) {
+        List<Post> posts = new ArrayList<>(size);
+        FeedCursor nextCursor = null;
+        if (cursor != null) {
+            // One row more than the page tells whether another page follows
+            List<Post> rows = postRepository.findOlderFeedPosts(authorIds, currentUserId,
+                    cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, size + 1));
+            posts.addAll(rows.subList(0, Math.min(size, rows.size())));
+            if (rows.size() > size) {
+                Post last = posts.get(size - 1);
+                nextCursor = FeedCursor.olderThan(last.getCreatedAt(), last.getId());
+            }
+        }
+        
+        // Populate like and comment counts for each post
+        postMetadataService.populatePostMetadata(posts, currentUserId);
+        postViewService.recordViews(posts, currentUserId);
+        
+        return ResponseEntity.ok(PaginationUtils.createCursorResponse(posts,
+                nextCursor != null ? nextCursor.encode() : null, size, null, "/api/posts/feed"));
+    }
+    
+    /**
+     * Full-text search over post titles and content, best matches first, respecting privacy settings
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> searchPosts(String query, int page, int size, Long currentUserId) {
+        if (query == null || query.trim().isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse("Error: Search query cannot be empty."));
+        }
+        if (!postSearchService.isReady()) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new MessageResponse("Error: Search is still starting up, please try again shortly."));
+        }
+        
+        userCache.get(currentUserId)
+                .orElseThrow(() -> new RuntimeException("Error: User not found."));
+        
+        List<Long> rankedIds = postSearchService.search(query, MAX_SEARCH_RESULTS);
+        Map<Long, Post> postsById = postRepository.findAllById(rankedIds).stream()
+                .collect(Collectors.toMap(Post::getId, post -> post));
+        List<Post> rankedPosts = rankedIds.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        
+        // Evaluate visibility for all hits at once, loading the friend list a single time
+        List<Post> visiblePosts = permissionService.filterAccessiblePosts(rankedPosts, currentUserId);
+        
+        int fromIndex = (int) Math.min((long) page * size, visiblePosts.size());
+        int toIndex = Math.min(fromIndex + size, visiblePosts.size());
+        List<Post> posts = new ArrayList<>(visiblePosts.subList(fromIndex, toIndex));
+        
+        // Populate like and comment counts for the requested page only
+        postMetadataService.populatePostMetadata(posts, currentUserId);
+        
+        boolean last = toIndex >= visiblePosts.size();
+        String nextPageUrl = null;
+        if (!last) {
+            nextPageUrl = "/api/posts/search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8)
+                    + "&page=" + (page + 1) + "&size=" + size;
+        }
+        
+        return ResponseEntity.ok(new PagedResponse<>(
+                posts,
+                page,
+                posts.size(),
+                visiblePosts.size(),
+                (visiblePosts.size() + size - 1) / size,
+                last,
+                nextPageUrl
+        ));
+    }
+}
\ No newline at end of file
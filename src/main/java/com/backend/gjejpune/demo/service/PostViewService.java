@@ -0,0 +1,344 @@
+package com.backend.gjejpune.demo.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.gjejpune.demo.model.Post;
+import com.backend.gjejpune.demo.model.PostViewSketch;
+import com.backend.gjejpune.demo.repository.PostViewSketchRepository;
+import com.backend.gjejpune.demo.sketch.HyperLogLog;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Counts the distinct users who have seen a post, without writing a row per view.
+ *
+ * Feed and detail reads add the viewer to a HyperLogLog sketch of the post kept in memory.
+ * A background job merges the views recorded since its last run into the stored sketch of
+ * each post, so reads never wait on a write. Since merging sketches is idempotent, every node
+ * can flush its own views into the same row, and a failed flush is simply retried.
+ */
+@Service
+public class PostViewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostViewService.class);
+
+    @Autowired
+    private PostViewSketchRepository postViewSketchRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Value("${views.enabled:true}")
+    private boolean enabled;
+
+    @Value("${views.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${views.reload-seconds:60}")
+    private long reloadSeconds;
+
+    @Value("${views.max-batch-size:500}")
+    private int maxBatchSize;
+
+    private final Map<Long, ViewSketch> sketches = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Record that a user has seen a post
+     */
+    public void recordView(Post post, Long viewerId) {
+        recordViews(List.of(post), viewerId);
+    }
+
+    /**
+     * Record that a user has seen each of the posts. Authors viewing their own posts are not counted.
+     */
+    public void recordViews(List<Post> posts, Long viewerId) {
+        if (!enabled) {
+            return;
+        }
+        for (Post post : posts) {
+            if (post.getUser() != null && viewerId.equals(post.getUser().getId())) {
+                continue;
+            }
+            while (true) {
+                ViewSketch sketch = sketches.computeIfAbsent(post.getId(), id -> new ViewSketch());
+                long newViewers = sketch.add(viewerId);
+                // An evicted sketch may already have been checked for unflushed views, so add again to a fresh one
+                if (!sketch.retired) {
+                    trendingService.recordViews(post.getId(), newViewers);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the estimated number of distinct viewers on each post, loading the stored sketches
+     * that are missing or have not been reloaded for a while in one query
+     */
+    public void populateViews(List<Post> posts) {
+        if (!enabled || posts.isEmpty()) {
+            return;
+        }
+
+        long reloadCutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(reloadSeconds);
+        List<Long> stale = new ArrayList<>();
+        for (Post post : posts) {
+            ViewSketch sketch = sketches.get(post.getId());
+            if (sketch == null || !sketch.loaded || sketch.loadedAt - reloadCutoff < 0) {
+                stale.add(post.getId());
+            }
+        }
+        if (!stale.isEmpty()) {
+            load(stale);
+        }
+
+        for (Post post : posts) {
+            ViewSketch sketch = sketches.get(post.getId());
+            post.setUniqueViews(sketch != null ? sketch.estimate() : 0);
+        }
+    }
+
+    /**
+     * Drop the views of a deleted post
+     */
+    public void forget(Long postId) {
+        ViewSketch sketch = sketches.remove(postId);
+        if (sketch != null) {
+            sketch.retired = true;
+        }
+        postViewSketchRepository.deleteById(postId);
+    }
+
+    /**
+     * Merge the views recorded since the last run into the stored sketches
+     */
+    @Scheduled(fixedDelayString = "${views.flush-interval-ms:30000}")
+    public void flush() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<Long> dirty = new ArrayList<>();
+            for (Map.Entry<Long, ViewSketch> entry : sketches.entrySet()) {
+                if (entry.getValue().hasUnflushed()) {
+                    dirty.add(entry.getKey());
+                }
+            }
+            for (int from = 0; from < dirty.size(); from += maxBatchSize) {
+                flushBatch(dirty.subList(from, Math.min(dirty.size(), from + maxBatchSize)));
+            }
+            evictIfFull();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    private void load(List<Long> postIds) {
+        List<PostViewSketch> rows;
+        try {
+            rows = postViewSketchRepository.findAllById(postIds);
+        } catch (RuntimeException ex) {
+            // View counts are informational, so show what is in memory rather than fail the read
+            logger.warn("Could not load view sketches. Error: {}", ex.getMessage());
+            return;
+        }
+
+        Map<Long, HyperLogLog> stored = new HashMap<>();
+        for (PostViewSketch row : rows) {
+            stored.put(row.getPostId(), HyperLogLog.fromBytes(row.getRegisters()));
+        }
+        if (sketches.size() + postIds.size() > maxEntries) {
+            evictIfFull();
+        }
+        for (Long postId : postIds) {
+            sketches.computeIfAbsent(postId, id -> new ViewSketch()).loaded(stored.get(postId));
+        }
+    }
+
+    private void flushBatch(List<Long> postIds) {
+        Map<Long, HyperLogLog> batch = new HashMap<>();
+        for (Long postId : postIds) {
+            ViewSketch sketch = sketches.get(postId);
+            HyperLogLog unflushed = sketch != null ? sketch.takeUnflushed() : null;
+            if (unflushed != null) {
+                batch.put(postId, unflushed);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<PostViewSketch> saved = new TransactionTemplate(transactionManager).execute(status -> {
+                Map<Long, PostViewSketch> rows = new HashMap<>();
+                for (PostViewSketch row : postViewSketchRepository.findAllById(batch.keySet())) {
+                    rows.put(row.getPostId(), row);
+                }
+
+                List<PostViewSketch> changed = new ArrayList<>();
+                for (Map.Entry<Long, HyperLogLog> entry : batch.entrySet()) {
+                    PostViewSketch row = rows.get(entry.getKey());
+                    if (row == null) {
+                        changed.add(new PostViewSketch(entry.getKey(), entry.getValue().toBytes()));
+                        continue;
+                    }
+                    HyperLogLog merged = HyperLogLog.fromBytes(row.getRegisters());
+                    merged.merge(entry.getValue());
+                    row.setRegisters(merged.toBytes());
+                    row.setUpdatedAt(Instant.now());
+                    changed.add(row);
+                }
+                return postViewSketchRepository.saveAll(changed);
+            });
+
+            // The stored sketches now also hold the views flushed by other nodes
+            for (PostViewSketch row : saved) {
+                ViewSketch sketch = sketches.get(row.getPostId());
+                if (sketch != null) {
+                    sketch.loaded(HyperLogLog.fromBytes(row.getRegisters()));
+                }
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Could not write view sketches of {} posts, retrying. Error: {}", batch.size(), ex.getMessage());
+            for (Map.Entry<Long, HyperLogLog> entry : batch.entrySet()) {
+                requeue(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void requeue(Long postId, HyperLogLog unflushed) {
+        while (true) {
+            ViewSketch sketch = sketches.computeIfAbsent(postId, id -> new ViewSketch());
+            sketch.restore(unflushed);
+            if (!sketch.retired) {
+                return;
+            }
+        }
+    }
+
+    // Drop sketches without unflushed views until a quarter of the room is free; they are reloaded on next use
+    private void evictIfFull() {
+        if (sketches.size() < maxEntries) {
+            return;
+        }
+        int target = maxEntries - maxEntries / 4;
+        for (Map.Entry<Long, ViewSketch> entry : sketches.entrySet()) {
+            if (sketches.size() <= target) {
+                break;
+            }
+            ViewSketch sketch = entry.getValue();
+            if (sketch.hasUnflushed()) {
+                continue;
+            }
+            sketch.retired = true;
+            sketches.remove(entry.getKey(), sketch);
+            // Views that raced in before the sketch was retired go back into a fresh one
+            HyperLogLog unflushed = sketch.takeUnflushed();
+            if (unflushed != null) {
+                requeue(entry.getKey(), unflushed);
+            }
+        }
+    }
+
+    /**
+     * Views of one post: every viewer known to this node and those not yet flushed.
+     * Both sketches are allocated on first use, so posts nobody has viewed cost almost nothing.
+     */
+    private static final class ViewSketch {
+        private HyperLogLog combined;
+        private HyperLogLog unflushed;
+        private long estimate;
+        private volatile boolean loaded;
+        private volatile long loadedAt;
+        private volatile boolean retired;
+
+        // Returns by how much the estimate grew, which on average is one per viewer not seen before
+        private synchronized long add(long viewerId) {
+            if (unflushed == null) {
+                unflushed = new HyperLogLog();
+            }
+            unflushed.add(viewerId);
+            long before = estimate();
+            if (combined == null) {
+                combined = new HyperLogLog();
+            }
+            if (!combined.add(viewerId)) {
+                return 0;
+            }
+            estimate = -1;
+            return Math.max(0, estimate() - before);
+        }
+
+        private synchronized void loaded(HyperLogLog stored) {
+            if (stored != null) {
+                mergeIntoCombined(stored);
+            }
+            loadedAt = System.nanoTime();
+            loaded = true;
+        }
+
+        private synchronized void restore(HyperLogLog views) {
+            if (unflushed == null) {
+                unflushed = new HyperLogLog();
+            }
+            unflushed.merge(views);
+            mergeIntoCombined(views);
+        }
+
+        private synchronized HyperLogLog takeUnflushed() {
+            HyperLogLog taken = unflushed;
+            unflushed = null;
+            return taken;
+        }
+
+        private synchronized boolean hasUnflushed() {
+            return unflushed != null;
+        }
+
+        private synchronized long estimate() {
+            if (combined == null) {
+                return 0;
+            }
+            if (estimate < 0) {
+                estimate = combined.estimate();
+            }
+            return estimate;
+        }
+
+        private void mergeIntoCombined(HyperLogLog views) {
+            if (combined == null) {
+                combined = new HyperLogLog();
+            }
+            combined.merge(views);
+            estimate = -1;
+        }
+    }
+}
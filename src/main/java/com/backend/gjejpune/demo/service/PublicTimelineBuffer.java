@@ -0,0 +1,452 @@
+package com.backend.gjejpune.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.gjejpune.demo.model.Post;
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.repository.CommentRepository;
+import com.backend.gjejpune.demo.repository.LikeRepository;
+import com.backend.gjejpune.demo.repository.PostRepository;
+
+/**
+ * In-memory ring of the newest public posts by public profiles, so the first pages of the
+ * public timeline can be served without reading the posts table.
+ *
+ * Appends claim a slot with an atomic sequence number and overwrite whatever was there;
+ * readers scan the slots without locking. The newest post ever pushed out of the ring is
+ * kept as the coverage floor: every public post newer than the floor is in the ring, so a
+ * page that lies entirely above it is complete. Posts and authors are held as detached
+ * copies with like and comment counters, and changes are applied once their transaction
+ * commits. Posts and authors dropped while a rebuild is loading are remembered as tombstones
+ * and dropped from the new ring too, so a rebuild cannot bring back a post deleted under it.
+ */
+@Service
+public class PublicTimelineBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicTimelineBuffer.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Value("${timeline.buffer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${timeline.buffer.capacity:1024}")
+    private int capacity;
+
+    private final Object rebuildLock = new Object();
+
+    private volatile Ring ring;
+
+    // Set while a rebuild is loading, collects what it must not bring back
+    private volatile Tombstones tombstones;
+
+    /**
+     * Fill the ring once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reload the ring from the database. Posts appended to the old ring while the reload
+     * was running are carried over.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long startedAt = System.currentTimeMillis();
+            Ring previous = ring;
+            long previousEnd = previous != null ? previous.nextSequence.get() : 0;
+            Tombstones removed = new Tombstones();
+            tombstones = removed;
+
+            int slots = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            List<Post> posts = postRepository.findNewestPublic(PageRequest.of(0, slots));
+            List<Long> postIds = new ArrayList<>();
+            for (Post post : posts) {
+                postIds.add(post.getId());
+            }
+            Map<Long, Long> likes = toCounts(postIds.isEmpty() ? List.of() : likeRepository.countGroupedByPostId(postIds));
+            Map<Long, Long> comments = toCounts(postIds.isEmpty() ? List.of() : commentRepository.countGroupedByPostId(postIds));
+
+            // Append oldest first, and only vouch for posts newer than the oldest one loaded when the query was cut off
+            Ring fresh = new Ring(slots);
+            for (int i = posts.size() - 1; i >= 0; i--) {
+                Post post = posts.get(i);
+                fresh.append(snapshotOf(post), likes.getOrDefault(post.getId(), 0L), comments.getOrDefault(post.getId(), 0L));
+            }
+            if (posts.size() == slots) {
+                fresh.floor.set(PostCursor.after(posts.get(posts.size() - 1), 100));
+            }
+            removed.applyTo(fresh);
+            ring = fresh;
+
+            if (previous != null) {
+                long end = previous.nextSequence.get();
+                for (long sequence = Math.max(previousEnd, end - previous.slots.length()); sequence < end; sequence++) {
+                    Entry entry = previous.slots.get(previous.indexOf(sequence));
+                    if (entry != null && entry.sequence == sequence && !entry.removed
+                            && !fresh.byPostId.containsKey(entry.postId)) {
+                        fresh.append(entry.snapshot, entry.likes.get(), entry.comments.get());
+                    }
+                }
+            }
+
+            // Removals from here on see the complete fresh ring; the ones before left a tombstone
+            tombstones = null;
+            removed.applyTo(fresh);
+
+            logger.info("Public timeline buffer loaded {} posts in {}ms", posts.size(), System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    /**
+     * Get per-request copies of the newest public posts strictly after the cursor
+     *
+     * @param after Where to resume, or null to start at the newest post
+     * @param limit Maximum number of posts to return
+     * @return Up to limit posts, newest first, with like and comment counts set, or null if
+     *         the ring cannot answer without possibly skipping a post
+     */
+    public List<Post> read(PostCursor after, int limit) {
+        Ring current = ring;
+        if (!enabled || current == null) {
+            return null;
+        }
+
+        PostCursor floor = current.floor.get();
+        List<Entry> live = new ArrayList<>();
+        for (int i = 0; i < current.slots.length(); i++) {
+            Entry entry = current.slots.get(i);
+            if (entry != null && !entry.removed
+                    && (floor == null || isOlder(floor, entry))
+                    && (after == null || isOlder(entry, after))) {
+                live.add(entry);
+            }
+        }
+        if ((live.size() < limit && floor != null) || current.floor.get() != floor) {
+            // The page runs below the floor, or a post was pushed out while scanning
+            return null;
+        }
+
+        live.sort((a, b) -> compare(b.createdAt, b.postId, a.createdAt, a.postId));
+        List<Post> posts = new ArrayList<>(Math.min(limit, live.size()));
+        for (int i = 0; i < live.size() && i < limit; i++) {
+            Entry entry = live.get(i);
+            Post post = copyOf(entry.snapshot, entry.snapshot.getUser());
+            post.setLikeCount(entry.likes.get());
+            post.setCommentCount(entry.comments.get());
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    /**
+     * Add a newly created post once the current transaction commits
+     */
+    public void postCreated(Post post) {
+        Post snapshot = snapshotOf(post);
+        afterCommit(() -> {
+            Ring current = ring;
+            if (current != null && isListed(snapshot)) {
+                current.append(snapshot, 0, 0);
+            }
+        });
+    }
+
+    /**
+     * Refresh an edited post once the current transaction commits, adding or removing it
+     * if its privacy changed
+     */
+    public void postUpdated(Post post) {
+        Post snapshot = snapshotOf(post);
+        afterCommit(() -> {
+            Ring current = ring;
+            if (current == null) {
+                return;
+            }
+            Entry existing = current.byPostId.get(snapshot.getId());
+            if (!isListed(snapshot)) {
+                remove(snapshot.getId());
+            } else if (existing != null) {
+                existing.snapshot = snapshot;
+            } else {
+                PostCursor floor = current.floor.get();
+                if (floor == null || isOlder(floor, snapshot.getCreatedAt(), snapshot.getId())) {
+                    current.append(snapshot, likeRepository.countByPostId(snapshot.getId()),
+                            commentRepository.countByPostId(snapshot.getId()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop a deleted or archived post once the current transaction commits
+     */
+    public void postRemoved(Long postId) {
+        afterCommit(() -> remove(postId));
+    }
+
+    /**
+     * Apply a profile change once the current transaction commits. Going private drops the
+     * user's posts; going public reloads the ring, since their older posts may belong in it.
+     *
+     * @param user The updated user
+     * @param wasPrivateProfile Whether the profile was private before the change
+     */
+    public void userUpdated(User user, boolean wasPrivateProfile) {
+        User snapshot = copyOf(user);
+        afterCommit(() -> {
+            if (snapshot.isPrivateProfile()) {
+                removeByUserId(snapshot.getId());
+                return;
+            }
+            Ring current = ring;
+            if (current == null) {
+                return;
+            }
+            if (wasPrivateProfile) {
+                rebuild();
+            } else {
+                for (Entry entry : current.byPostId.values()) {
+                    if (entry.snapshot.getUser().getId().equals(snapshot.getId())) {
+                        entry.snapshot = copyOf(entry.snapshot, snapshot);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Shift a post's like counter once the current transaction commits
+     */
+    public void adjustLikes(Long postId, long delta) {
+        afterCommit(() -> {
+            Ring current = ring;
+            Entry entry = current != null ? current.byPostId.get(postId) : null;
+            if (entry != null) {
+                entry.likes.addAndGet(delta);
+            }
+        });
+    }
+
+    /**
+     * Shift a post's comment counter once the current transaction commits
+     */
+    public void adjustComments(Long postId, long delta) {
+        afterCommit(() -> {
+            Ring current = ring;
+            Entry entry = current != null ? current.byPostId.get(postId) : null;
+            if (entry != null) {
+                entry.comments.addAndGet(delta);
+            }
+        });
+    }
+
+    // Leave a tombstone for a running rebuild before touching the ring, so one of the two drops the post
+    private void remove(Long postId) {
+        Tombstones loading = tombstones;
+        if (loading != null) {
+            loading.postIds.add(postId);
+        }
+        Ring current = ring;
+        if (current != null) {
+            current.remove(postId);
+        }
+    }
+
+    private void removeByUserId(Long userId) {
+        Tombstones loading = tombstones;
+        if (loading != null) {
+            loading.userIds.add(userId);
+        }
+        Ring current = ring;
+        if (current != null) {
+            current.removeByUserId(userId);
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static boolean isListed(Post post) {
+        return post.getCreatedAt() != null && !post.isPrivate() && !post.getUser().isPrivateProfile();
+    }
+
+    // Each isOlder checks whether the first key sorts strictly before the second in (createdAt, id) order
+    private static boolean isOlder(Entry entry, PostCursor cursor) {
+        return compare(entry.createdAt, entry.postId, cursor.getCreatedAt(), cursor.getId()) < 0;
+    }
+
+    private static boolean isOlder(PostCursor cursor, Entry entry) {
+        return isOlder(cursor, entry.createdAt, entry.postId);
+    }
+
+    private static boolean isOlder(PostCursor cursor, LocalDateTime createdAt, long postId) {
+        return compare(cursor.getCreatedAt(), cursor.getId(), createdAt, postId) < 0;
+    }
+
+    private static int compare(LocalDateTime createdAt1, long id1, LocalDateTime createdAt2, long id2) {
+        int byTime = createdAt1.compareTo(createdAt2);
+        return byTime != 0 ? byTime : Long.compare(id1, id2);
+    }
+
+    private static Map<Long, Long> toCounts(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    private static Post snapshotOf(Post post) {
+        return copyOf(post, copyOf(post.getUser()));
+    }
+
+    private static Post copyOf(Post post, User author) {
+        Post copy = new Post(post.getTitle(), post.getContent(), post.getImageUrl(), author, post.isPrivate());
+        copy.setId(post.getId());
+        copy.setCreatedAt(post.getCreatedAt());
+        copy.setUpdatedAt(post.getUpdatedAt());
+        return copy;
+    }
+
+    // Only the fields that are serialized with a post; the password is never copied
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setUsername(user.getUsername());
+        copy.setEmail(user.getEmail());
+        copy.setPhoneNumber(user.getPhoneNumber());
+        copy.setAvatarUrl(user.getAvatarUrl());
+        copy.setFullName(user.getFullName());
+        copy.setBio(user.getBio());
+        copy.setPrivateProfile(user.isPrivateProfile());
+        return copy;
+    }
+
+    private static final class Ring {
+        private final AtomicReferenceArray<Entry> slots;
+        private final int mask;
+        private final AtomicLong nextSequence = new AtomicLong();
+        private final Map<Long, Entry> byPostId = new ConcurrentHashMap<>();
+        private final AtomicReference<PostCursor> floor = new AtomicReference<>();
+
+        private Ring(int size) {
+            this.slots = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        private int indexOf(long sequence) {
+            return (int) (sequence & mask);
+        }
+
+        private void append(Post snapshot, long likes, long comments) {
+            long sequence = nextSequence.getAndIncrement();
+            Entry entry = new Entry(sequence, snapshot, likes, comments);
+            Entry evicted = slots.getAndSet(indexOf(sequence), entry);
+            if (evicted != null && byPostId.remove(evicted.postId, evicted)) {
+                // A live post left the ring, so nothing at or below it can be vouched for any more
+                PostCursor evictedAt = new PostCursor(evicted.createdAt, evicted.postId, 100);
+                floor.accumulateAndGet(evictedAt, (current, candidate) ->
+                        current == null || compare(candidate.getCreatedAt(), candidate.getId(),
+                                current.getCreatedAt(), current.getId()) > 0 ? candidate : current);
+            }
+
+            Entry replaced = byPostId.put(entry.postId, entry);
+            if (replaced != null) {
+                replaced.removed = true;
+            }
+        }
+
+        private void remove(Long postId) {
+            Entry entry = byPostId.remove(postId);
+            if (entry != null) {
+                entry.removed = true;
+            }
+        }
+
+        private void removeByUserId(Long userId) {
+            for (Entry entry : byPostId.values()) {
+                if (entry.snapshot.getUser().getId().equals(userId)) {
+                    remove(entry.postId);
+                }
+            }
+        }
+    }
+
+    private static final class Tombstones {
+        private final Set<Long> postIds = ConcurrentHashMap.newKeySet();
+        private final Set<Long> userIds = ConcurrentHashMap.newKeySet();
+
+        private void applyTo(Ring ring) {
+            for (Long postId : postIds) {
+                ring.remove(postId);
+            }
+            for (Long userId : userIds) {
+                ring.removeByUserId(userId);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final long postId;
+        private final LocalDateTime createdAt;
+        private final AtomicLong likes;
+        private final AtomicLong comments;
+        private volatile Post snapshot;
+        private volatile boolean removed;
+
+        private Entry(long sequence, Post snapshot, long likes, long comments) {
+            this.sequence = sequence;
+            this.postId = snapshot.getId();
+            this.createdAt = snapshot.getCreatedAt();
+            this.likes = new AtomicLong(likes);
+            this.comments = new AtomicLong(comments);
+            this.snapshot = snapshot;
+        }
+    }
+}
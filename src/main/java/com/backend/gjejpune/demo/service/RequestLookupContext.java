@@ -0,0 +1,118 @@
+package com.backend.gjejpune.demo.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.repository.FriendshipRepository;
+import com.backend.gjejpune.demo.repository.UserRepository;
+
+/**
+ * Memoizes user and friendship lookups for the lifetime of one HTTP request.
+ *
+ * The memo is stored as a request attribute, so it is discarded with the request and never
+ * shared between users. Outside of a request (scheduled jobs, startup listeners) every call
+ * goes straight to the database.
+ */
+@Component
+public class RequestLookupContext {
+
+    private static final String MEMO_ATTRIBUTE = RequestLookupContext.class.getName() + ".MEMO";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    /**
+     * Find a user by ID, at most once per request
+     */
+    public Optional<User> findUser(Long userId) {
+        Memo memo = currentMemo();
+        if (memo == null || userId == null) {
+            return userRepository.findById(userId);
+        }
+        return memo.users.computeIfAbsent(userId, id -> userRepository.findById(id));
+    }
+
+    /**
+     * Check whether two users are accepted friends, at most once per pair and request
+     */
+    public boolean areFriends(Long userId1, Long userId2) {
+        Memo memo = currentMemo();
+        if (memo == null) {
+            return friendshipRepository.existsAcceptedBetween(userId1, userId2);
+        }
+
+        // A friend set loaded for either user already holds the answer
+        Set<Long> friendsOfFirst = memo.friendIds.get(userId1);
+        if (friendsOfFirst != null) {
+            return friendsOfFirst.contains(userId2);
+        }
+        Set<Long> friendsOfSecond = memo.friendIds.get(userId2);
+        if (friendsOfSecond != null) {
+            return friendsOfSecond.contains(userId1);
+        }
+        return memo.friendPairs.computeIfAbsent(pairKey(userId1, userId2),
+                key -> friendshipRepository.existsAcceptedBetween(userId1, userId2));
+    }
+
+    /**
+     * Get the IDs of a user's accepted friends, at most once per request
+     */
+    public Set<Long> getFriendIds(Long userId) {
+        Memo memo = currentMemo();
+        if (memo == null) {
+            return new HashSet<>(friendshipRepository.findAcceptedFriendIds(userId));
+        }
+        return memo.friendIds.computeIfAbsent(userId,
+                id -> Collections.unmodifiableSet(new HashSet<>(friendshipRepository.findAcceptedFriendIds(id))));
+    }
+
+    /**
+     * Forget everything memoized about the friendship between two users after it changed
+     */
+    public void invalidateFriendship(Long userId1, Long userId2) {
+        Memo memo = currentMemo();
+        if (memo == null) {
+            return;
+        }
+        memo.friendPairs.remove(pairKey(userId1, userId2));
+        memo.friendIds.remove(userId1);
+        memo.friendIds.remove(userId2);
+    }
+
+    private Memo currentMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+
+        Memo memo = (Memo) attributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new Memo();
+            attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+    }
+
+    private static String pairKey(Long userId1, Long userId2) {
+        return userId1 <= userId2 ? userId1 + ":" + userId2 : userId2 + ":" + userId1;
+    }
+
+    private static final class Memo {
+        private final Map<Long, Optional<User>> users = new HashMap<>();
+        private final Map<String, Boolean> friendPairs = new HashMap<>();
+        private final Map<Long, Set<Long>> friendIds = new HashMap<>();
+    }
+}
@@ -0,0 +1,234 @@
+package com.backend.gjejpune.demo.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.gjejpune.demo.sketch.CountMinSketch;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Ranks posts by recent engagement entirely in memory.
+ *
+ * Likes, comments and new viewers are added, weighted, to a Count-Min Sketch per time bucket.
+ * A post's score sums its estimate in every bucket, each bucket weighted less than the one
+ * after it, so engagement fades out over the window instead of dropping off at its edge.
+ * Only the top k posts are kept by id, so memory stays fixed however many posts get engagement.
+ * When a bucket ends, the oldest one is cleared and reused and the top k are scored again.
+ */
+@Service
+public class TrendingService {
+
+    @Value("${trending.enabled:true}")
+    private boolean enabled;
+
+    @Value("${trending.bucket-count:12}")
+    private int bucketCount;
+
+    @Value("${trending.decay:0.8}")
+    private double decay;
+
+    @Value("${trending.top-k:200}")
+    private int topK;
+
+    @Value("${trending.sketch-width:2048}")
+    private int sketchWidth;
+
+    @Value("${trending.sketch-depth:4}")
+    private int sketchDepth;
+
+    @Value("${trending.weight.like:3}")
+    private long likeWeight;
+
+    @Value("${trending.weight.comment:5}")
+    private long commentWeight;
+
+    @Value("${trending.weight.view:1}")
+    private long viewWeight;
+
+    private CountMinSketch[] buckets;
+    private double[] bucketWeights;
+    private volatile int head;
+
+    // The top k posts and their scores; reads are lock-free, changes hold the lock
+    private final Map<Long, Double> candidates = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private volatile double minScore;
+    private Long minPostId;
+    private volatile List<Long> ranking = List.of();
+    private volatile boolean rankingStale;
+
+    @PostConstruct
+    public void init() {
+        buckets = new CountMinSketch[bucketCount];
+        bucketWeights = new double[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new CountMinSketch(sketchWidth, sketchDepth);
+            bucketWeights[i] = Math.pow(decay, i);
+        }
+    }
+
+    /**
+     * Count a like once the current transaction commits
+     */
+    public void recordLike(Long postId) {
+        recordLikes(postId, 1);
+    }
+
+    /**
+     * Count a batch of new likes of a post once the current transaction commits
+     */
+    public void recordLikes(Long postId, long count) {
+        afterCommit(() -> record(postId, likeWeight * count));
+    }
+
+    /**
+     * Count a comment once the current transaction commits
+     */
+    public void recordComment(Long postId) {
+        afterCommit(() -> record(postId, commentWeight));
+    }
+
+    /**
+     * Count users seeing a post for the first time
+     */
+    public void recordViews(Long postId, long newViewers) {
+        if (enabled && newViewers > 0) {
+            record(postId, viewWeight * newViewers);
+        }
+    }
+
+    /**
+     * Get the IDs of the highest-scoring posts, best first
+     */
+    public List<Long> getRanking() {
+        if (rankingStale) {
+            synchronized (lock) {
+                if (rankingStale) {
+                    List<Map.Entry<Long, Double>> entries = new ArrayList<>(candidates.entrySet());
+                    entries.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()));
+                    List<Long> ids = new ArrayList<>(entries.size());
+                    for (Map.Entry<Long, Double> entry : entries) {
+                        ids.add(entry.getKey());
+                    }
+                    ranking = List.copyOf(ids);
+                    rankingStale = false;
+                }
+            }
+        }
+        return ranking;
+    }
+
+    /**
+     * Drop a deleted post from the ranking
+     */
+    public void forget(Long postId) {
+        afterCommit(() -> {
+            synchronized (lock) {
+                if (candidates.remove(postId) != null) {
+                    updateMin();
+                    rankingStale = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * Start a new bucket, clearing the oldest one, and rescore the top posts
+     */
+    @Scheduled(fixedDelayString = "${trending.bucket-ms:300000}", initialDelayString = "${trending.bucket-ms:300000}")
+    public void rotate() {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (lock) {
+            int next = (head + 1) % bucketCount;
+            buckets[next].clear();
+            head = next;
+
+            candidates.replaceAll((postId, score) -> score(postId));
+            candidates.values().removeIf(score -> score <= 0);
+            updateMin();
+            rankingStale = true;
+        }
+    }
+
+    private void record(Long postId, long weight) {
+        buckets[head].add(postId, weight);
+        double score = score(postId);
+        // Most events are for posts that are neither ranked nor close, and need no lock
+        if (!candidates.containsKey(postId) && candidates.size() >= topK && score <= minScore) {
+            return;
+        }
+
+        synchronized (lock) {
+            // Score again, a rotation may have run since
+            score = score(postId);
+            if (candidates.containsKey(postId) || candidates.size() < topK) {
+                candidates.put(postId, score);
+            } else if (score > minScore) {
+                candidates.remove(minPostId);
+                candidates.put(postId, score);
+            } else {
+                return;
+            }
+            // Scores only grow between rotations, so the minimum moves only if it was the one replaced or raised
+            if (minPostId == null || score < minScore) {
+                minPostId = postId;
+                minScore = score;
+            } else if (postId.equals(minPostId) || !candidates.containsKey(minPostId)) {
+                updateMin();
+            }
+            rankingStale = true;
+        }
+    }
+
+    private double score(Long postId) {
+        int current = head;
+        double score = 0;
+        for (int age = 0; age < bucketCount; age++) {
+            score += bucketWeights[age] * buckets[(current - age + bucketCount) % bucketCount].estimate(postId);
+        }
+        return score;
+    }
+
+    // Find the lowest ranked post; holds the lock
+    private void updateMin() {
+        Long lowestId = null;
+        double lowest = Double.MAX_VALUE;
+        for (Map.Entry<Long, Double> entry : candidates.entrySet()) {
+            if (entry.getValue() < lowest) {
+                lowest = entry.getValue();
+                lowestId = entry.getKey();
+            }
+        }
+        minPostId = lowestId;
+        minScore = lowestId != null ? lowest : 0;
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
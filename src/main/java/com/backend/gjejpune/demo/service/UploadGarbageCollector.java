@@ -0,0 +1,299 @@
+package com.backend.gjejpune.demo.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.backend.gjejpune.demo.repository.ArchivedPostRepository;
+import com.backend.gjejpune.demo.repository.PostRepository;
+import com.backend.gjejpune.demo.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Background mark-and-sweep collector for uploaded files that are no longer referenced.
+ *
+ * The mark phase streams post images (hot and archived) and user avatars in id-ordered chunks to build the
+ * set of live files. The sweep phase walks the upload directory lazily, under an I/O rate
+ * limit, and only removes files older than the grace period so in-flight uploads whose
+ * post or profile has not been saved yet are never touched.
+ *
+ * A cycle runs on its own thread, since the rate limit sleeps and a walk of a large upload
+ * directory takes a while; the shared scheduler only starts it.
+ */
+@Service
+public class UploadGarbageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadGarbageCollector.class);
+
+    private static final int MARK_CHUNK_SIZE = 500;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private ArchivedPostRepository archivedPostRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Value("${file.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.gc.dry-run:true}")
+    private boolean dryRun;
+
+    @Value("${file.gc.grace-period-minutes:60}")
+    private long gracePeriodMinutes;
+
+    @Value("${file.gc.max-files-per-second:200}")
+    private int maxFilesPerSecond;
+
+    @Value("${file.gc.batch-size:100}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile CollectionReport lastReport;
+
+    private ExecutorService worker;
+
+    @PostConstruct
+    public void init() {
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upload-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Start a collection cycle on the configured schedule, without holding a scheduler thread while it runs
+     */
+    @Scheduled(initialDelayString = "${file.gc.initial-delay-ms:300000}",
+               fixedDelayString = "${file.gc.interval-ms:21600000}")
+    public void scheduledCollect() {
+        if (!enabled || running.get()) {
+            return;
+        }
+        try {
+            worker.execute(() -> collect(dryRun));
+        } catch (RejectedExecutionException ex) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * Run a single mark-and-sweep cycle
+     *
+     * @param dryRun If true, orphaned files are only reported and never deleted
+     * @return The report for this cycle, or the previous report if a cycle is already running
+     */
+    public CollectionReport collect(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Upload garbage collection already in progress, skipping");
+            return lastReport;
+        }
+
+        try {
+            long startedAt = System.currentTimeMillis();
+
+            Set<String> liveFiles = markLiveFiles();
+            CollectionReport report = sweep(liveFiles, dryRun, startedAt);
+
+            lastReport = report;
+            logger.info("Upload garbage collection {}: scanned={}, live={}, recent={}, orphaned={}, deleted={}, bytes={}, took={}ms",
+                    dryRun ? "dry run" : "finished",
+                    report.getScannedFiles(), liveFiles.size(), report.getSkippedRecentFiles(),
+                    report.getOrphanedFiles(), report.getDeletedFiles(), report.getOrphanedBytes(),
+                    report.getDurationMillis());
+            return report;
+        } catch (IOException ex) {
+            logger.error("Upload garbage collection failed. Error: {}", ex.getMessage());
+            return lastReport;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Get the report of the last completed cycle
+     */
+    public CollectionReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Build the set of referenced files from post images and user avatars, one chunk at a time
+     */
+    private Set<String> markLiveFiles() {
+        Set<String> liveFiles = new HashSet<>();
+        markChunked(postRepository::findImageUrlsAfter, liveFiles);
+        markChunked(archivedPostRepository::findImageUrlsAfter, liveFiles);
+        markChunked(userRepository::findAvatarUrlsAfter, liveFiles);
+        return liveFiles;
+    }
+
+    private void markChunked(BiFunction<Long, Pageable, List<Object[]>> chunkLoader, Set<String> liveFiles) {
+        Pageable chunk = PageRequest.of(0, MARK_CHUNK_SIZE);
+        Long afterId = 0L;
+
+        List<Object[]> rows;
+        do {
+            rows = chunkLoader.apply(afterId, chunk);
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                String fileName = fileStorageService.resolveStoredFileName((String) row[1]);
+                if (fileName != null) {
+                    liveFiles.add(fileName);
+                }
+            }
+        } while (rows.size() == MARK_CHUNK_SIZE);
+    }
+
+    /**
+     * Walk the upload directory and remove (or report) unreferenced files older than the grace period
+     */
+    private CollectionReport sweep(Set<String> liveFiles, boolean dryRun, long startedAt) throws IOException {
+        Path root = fileStorageService.getFileStoragePath();
+        Instant cutoff = Instant.now().minus(gracePeriodMinutes, ChronoUnit.MINUTES);
+        CollectionReport report = new CollectionReport(dryRun);
+
+        long sweepStartedAt = System.currentTimeMillis();
+        try (Stream<Path> paths = Files.walk(root)) {
+            Iterator<Path> iterator = paths.filter(Files::isRegularFile).iterator();
+            // Stop early when interrupted by shutdown
+            while (iterator.hasNext() && !Thread.currentThread().isInterrupted()) {
+                Path file = iterator.next();
+                report.scannedFiles++;
+
+                String fileName = root.relativize(file).toString().replace('\\', '/');
+                if (!liveFiles.contains(fileName)) {
+                    sweepFile(file, fileName, cutoff, dryRun, report);
+                }
+
+                if (report.scannedFiles % batchSize == 0) {
+                    throttle(report.scannedFiles, sweepStartedAt);
+                }
+            }
+        }
+
+        report.durationMillis = System.currentTimeMillis() - startedAt;
+        return report;
+    }
+
+    private void sweepFile(Path file, String fileName, Instant cutoff, boolean dryRun, CollectionReport report) {
+        try {
+            if (Files.getLastModifiedTime(file).toInstant().isAfter(cutoff)) {
+                report.skippedRecentFiles++;
+                return;
+            }
+
+            long size = Files.size(file);
+            report.orphanedFiles++;
+            report.orphanedBytes += size;
+
+            if (dryRun) {
+                logger.info("Orphaned upload (dry run): {} ({} bytes)", fileName, size);
+            } else if (fileStorageService.deleteStoredFile(fileName)) {
+                report.deletedFiles++;
+            }
+        } catch (IOException ex) {
+            logger.error("Could not inspect file {}. Error: {}", fileName, ex.getMessage());
+        }
+    }
+
+    /**
+     * Sleep long enough to keep the sweep under the configured files-per-second budget
+     */
+    private void throttle(long processedFiles, long sweepStartedAt) {
+        if (maxFilesPerSecond <= 0) {
+            return;
+        }
+
+        long expectedMillis = processedFiles * 1000 / maxFilesPerSecond;
+        long elapsedMillis = System.currentTimeMillis() - sweepStartedAt;
+        if (expectedMillis > elapsedMillis) {
+            try {
+                Thread.sleep(expectedMillis - elapsedMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Summary of a single collection cycle
+     */
+    public static class CollectionReport {
+        private final boolean dryRun;
+        private long scannedFiles;
+        private long skippedRecentFiles;
+        private long orphanedFiles;
+        private long orphanedBytes;
+        private long deletedFiles;
+        private long durationMillis;
+
+        CollectionReport(boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+
+        public boolean isDryRun() {
+            return dryRun;
+        }
+
+        public long getScannedFiles() {
+            return scannedFiles;
+        }
+
+        public long getSkippedRecentFiles() {
+            return skippedRecentFiles;
+        }
+
+        public long getOrphanedFiles() {
+            return orphanedFiles;
+        }
+
+        public long getOrphanedBytes() {
+            return orphanedBytes;
+        }
+
+        public long getDeletedFiles() {
+            return deletedFiles;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+    }
+}
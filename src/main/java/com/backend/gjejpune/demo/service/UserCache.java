@@ -0,0 +1,245 @@
+package com.backend.gjejpune.demo.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.model.UserSnapshot;
+import com.backend.gjejpune.demo.payload.response.CacheStatsResponse;
+import com.backend.gjejpune.demo.repository.UserRepository;
+
+/**
+ * Bounded read-through cache of immutable user snapshots, shared by all requests.
+ *
+ * Lookups take no lock: entries live in concurrent maps and a hit only stamps its entry's
+ * access time. Once the cache is full, one writer at a time evicts the least recently used
+ * tenth of the entries, so eviction is approximately LRU and its cost is spread over many
+ * misses. Entries also expire after a fixed time to live. Code that changes a user must call
+ * {@link #invalidate(Long)}; the entry is dropped immediately and again after the transaction
+ * commits, and a load that overlapped an invalidation takes its own entry back out, so a
+ * concurrent reader cannot put the old row back in between.
+ *
+ * With read/write routing enabled a miss may be served by a lagging replica, so a user is
+ * not cached again until the routing pin window has passed since it was invalidated.
+ */
+@Service
+public class UserCache {
+
+    // Share of the entries dropped by one eviction pass
+    private static final int EVICTION_DIVISOR = 10;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${cache.users.max-size:10000}")
+    private int maxSize;
+
+    @Value("${cache.users.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.datasource.routing.enabled:false}")
+    private boolean routingEnabled;
+
+    @Value("${app.datasource.routing.pin-window-ms:5000}")
+    private long pinWindowMs;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Long> idsByUsername = new ConcurrentHashMap<>();
+    private final Map<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+
+    // Held by the one writer evicting; lookups never take it
+    private final ReentrantLock evicting = new ReentrantLock();
+
+    // Bumped on every invalidation; a load that overlapped one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Get a user by ID, loading it from the database on a miss
+     */
+    public Optional<UserSnapshot> get(Long userId) {
+        UserSnapshot cached = lookup(userId);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        return userRepository.findById(userId).map(user -> put(user, loadGeneration));
+    }
+
+    /**
+     * Get a user by username, loading it from the database on a miss
+     */
+    public Optional<UserSnapshot> getByUsername(String username) {
+        Long userId = idsByUsername.get(username);
+        UserSnapshot cached = userId != null ? lookup(userId) : null;
+        // The username may have moved to another user since the mapping was read
+        if (cached != null && cached.getUsername().equals(username)) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        return userRepository.findByUsername(username).map(user -> put(user, loadGeneration));
+    }
+
+    /**
+     * Drop a user from the cache after it changed
+     */
+    public void invalidate(Long userId) {
+        remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Get hit, miss and eviction counters
+     */
+    public CacheStatsResponse getStats() {
+        return new CacheStatsResponse("users", entries.size(), maxSize, hits.get(), misses.get(),
+                evictions.get(), expirations.get(), invalidations.get());
+    }
+
+    private UserSnapshot lookup(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (now - entry.loadedAt > TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+            if (drop(userId, entry)) {
+                expirations.incrementAndGet();
+            }
+            return null;
+        }
+        entry.accessedAt = now;
+        return entry.snapshot;
+    }
+
+    private UserSnapshot put(User user, long loadGeneration) {
+        UserSnapshot snapshot = UserSnapshot.of(user);
+        if (generation.get() != loadGeneration || withinReplicaLag(snapshot.getId())) {
+            return snapshot;
+        }
+
+        Entry entry = new Entry(snapshot, System.nanoTime());
+        Entry previous = entries.put(snapshot.getId(), entry);
+        if (previous != null && !previous.snapshot.getUsername().equals(snapshot.getUsername())) {
+            idsByUsername.remove(previous.snapshot.getUsername(), snapshot.getId());
+        }
+        idsByUsername.put(snapshot.getUsername(), snapshot.getId());
+
+        // An invalidation that ran while this entry went in may have missed it, so take it back out
+        if (generation.get() != loadGeneration) {
+            drop(snapshot.getId(), entry);
+        } else {
+            evictIfFull();
+        }
+        return snapshot;
+    }
+
+    private void remove(Long userId) {
+        // Bumped first, so a load putting its entry concurrently sees it afterwards
+        generation.incrementAndGet();
+        if (routingEnabled) {
+            long now = System.nanoTime();
+            if (invalidatedAt.size() >= maxSize) {
+                invalidatedAt.values().removeIf(at -> now - at >= TimeUnit.MILLISECONDS.toNanos(pinWindowMs));
+            }
+            invalidatedAt.put(userId, now);
+        }
+        Entry entry = entries.remove(userId);
+        if (entry != null) {
+            idsByUsername.remove(entry.snapshot.getUsername(), userId);
+        }
+        invalidations.incrementAndGet();
+    }
+
+    // Remove an entry unless it has been replaced, and report whether it was
+    private boolean drop(Long userId, Entry entry) {
+        if (!entries.remove(userId, entry)) {
+            return false;
+        }
+        idsByUsername.remove(entry.snapshot.getUsername(), userId);
+        return true;
+    }
+
+    // Evict the least recently used entries once the cache is over its size; other writers skip while one does
+    private void evictIfFull() {
+        if (entries.size() <= maxSize || !evicting.tryLock()) {
+            return;
+        }
+        try {
+            int excess = entries.size() - maxSize;
+            if (excess <= 0) {
+                return;
+            }
+            int target = excess + Math.max(1, maxSize / EVICTION_DIVISOR);
+            long[] accessTimes = entries.values().stream().mapToLong(entry -> entry.accessedAt).sorted().toArray();
+            if (accessTimes.length == 0) {
+                return;
+            }
+            long cutoff = accessTimes[Math.min(target, accessTimes.length) - 1];
+            int evicted = 0;
+            for (Map.Entry<Long, Entry> candidate : entries.entrySet()) {
+                if (evicted >= target) {
+                    break;
+                }
+                if (candidate.getValue().accessedAt - cutoff <= 0 && drop(candidate.getKey(), candidate.getValue())) {
+                    evicted++;
+                }
+            }
+            evictions.addAndGet(evicted);
+        } finally {
+            evicting.unlock();
+        }
+    }
+
+    private boolean withinReplicaLag(Long userId) {
+        Long at = invalidatedAt.get(userId);
+        if (at == null) {
+            return false;
+        }
+        if (System.nanoTime() - at < TimeUnit.MILLISECONDS.toNanos(pinWindowMs)) {
+            return true;
+        }
+        invalidatedAt.remove(userId, at);
+        return false;
+    }
+
+    private static final class Entry {
+        private final UserSnapshot snapshot;
+        private final long loadedAt;
+        private volatile long accessedAt;
+
+        private Entry(UserSnapshot snapshot, long loadedAt) {
+            this.snapshot = snapshot;
+            this.loadedAt = loadedAt;
+            this.accessedAt = loadedAt;
+        }
+    }
+}
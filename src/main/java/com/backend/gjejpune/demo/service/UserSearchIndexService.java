@@ -0,0 +1,106 @@
+package com.backend.gjejpune.demo.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.repository.UserRepository;
+import com.backend.gjejpune.demo.search.TrigramIndex;
+
+/**
+ * Keeps the in-memory trigram index of usernames and full names in sync with the users table
+ */
+@Service
+public class UserSearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndexService.class);
+
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    private volatile boolean ready = false;
+
+    /**
+     * Build the index from the users table once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        Pageable chunk = PageRequest.of(0, LOAD_CHUNK_SIZE);
+        Long afterId = 0L;
+
+        List<Object[]> rows;
+        do {
+            rows = userRepository.findSearchFieldsAfter(afterId, chunk);
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                index.put(afterId, (String) row[1], (String) row[2]);
+            }
+        } while (rows.size() == LOAD_CHUNK_SIZE);
+
+        ready = true;
+        logger.info("User search index built with {} users in {}ms", index.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Add or refresh a user in the index after sign-up or a profile change, once the current transaction commits
+     */
+    public void index(User user) {
+        long userId = user.getId();
+        String username = user.getUsername();
+        String fullName = user.getFullName();
+        afterCommit(() -> index.put(userId, username, fullName));
+    }
+
+    /**
+     * Remove a user from the index once the current transaction commits
+     */
+    public void remove(Long userId) {
+        afterCommit(() -> index.remove(userId));
+    }
+
+    /**
+     * Check whether the initial build has finished
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Find user ids matching the query, best matches first
+     *
+     * @param query The search text
+     * @param limit Maximum number of ids to return
+     * @return Ranked user ids
+     */
+    public List<Long> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
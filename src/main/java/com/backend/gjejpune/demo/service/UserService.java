@@ -1,8 +1,12 @@
 package com.backend.gjejpune.demo.service;
 
 import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +20,7 @@ import org.springframework.web.multipart.MultipartFile;
 import com.backend.gjejpune.demo.model.User;
 import com.backend.gjejpune.demo.payload.request.UpdateProfileRequest;
 import com.backend.gjejpune.demo.payload.response.MessageResponse;
+import com.backend.gjejpune.demo.payload.response.PagedResponse;
 import com.backend.gjejpune.demo.payload.response.UserProfileResponse;
 import com.backend.gjejpune.demo.repository.UserRepository;
 import com.backend.gjejpune.demo.exception.ForbiddenProfileException;
@@ -23,6 +28,8 @@ import com.backend.gjejpune.demo.exception.ForbiddenProfileException;
 @Service
 public class UserService {
     
+    private static final int MAX_SEARCH_RESULTS = 200;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -38,9 +45,22 @@ public class UserService {
     @Autowired
     private PermissionService permissionService;
     
+    @Autowired
+    private UserSearchIndexService userSearchIndexService;
+    
+    @Autowired
+    private UserSuggestService userSuggestService;
+    
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private PublicTimelineBuffer publicTimelineBuffer;
+    
     /**
      * Get current user profile
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getCurrentUserProfile(Long currentUserId) {
         User user = userRepository.findById(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
@@ -61,6 +81,7 @@ public class UserService {
     /**
      * Get user profile by ID
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getUserProfileById(Long userId, Long currentUserId) {
         // Check if the requested user exists
         User user = userRepository.findById(userId)
@@ -97,6 +118,7 @@ public class UserService {
     public ResponseEntity<?> updateUserProfile(UpdateProfileRequest updateProfileRequest, Long currentUserId) {
         User user = userRepository.findById(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
+        boolean wasPrivateProfile = user.isPrivateProfile();
 
         // Update user profile fields
         if (updateProfileRequest.getFullName() != null) {
@@ -112,6 +134,10 @@ public class UserService {
         }
 
         userRepository.save(user);
+        userCache.invalidate(user.getId());
+        userSearchIndexService.index(user);
+        userSuggestService.index(user);
+        publicTimelineBuffer.userUpdated(user, wasPrivateProfile);
 
         return ResponseEntity.ok(new MessageResponse("Profile updated successfully!"));
     }
@@ -129,6 +155,7 @@ public class UserService {
 
         User user = userRepository.findById(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found."));
+        boolean wasPrivateProfile = user.isPrivateProfile();
 
         // Update user profile fields
         if (fullName != null) {
@@ -165,6 +192,10 @@ public class UserService {
         }
 
         userRepository.save(user);
+        userCache.invalidate(user.getId());
+        userSearchIndexService.index(user);
+        userSuggestService.index(user);
+        publicTimelineBuffer.userUpdated(user, wasPrivateProfile);
 
         return ResponseEntity.ok(new MessageResponse("Profile updated successfully!"));
     }
@@ -187,30 +218,61 @@ public class UserService {
         // Update password
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userCache.invalidate(user.getId());
 
         return ResponseEntity.ok(new MessageResponse("Password changed successfully!"));
     }
     
     /**
-     * Search users by username or full name
+     * Suggest users whose username or name starts with the prefix, served from memory
+     */
+    public ResponseEntity<?> suggestUsers(String prefix) {
+        return ResponseEntity.ok(userSuggestService.suggest(prefix));
+    }
+    
+    /**
+     * Search users by username or full name, best matches first, with pagination
      */
-    public ResponseEntity<?> searchUsers(String query, Long currentUserId) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> searchUsers(String query, int page, int size, Long currentUserId) {
         if (query == null || query.trim().isEmpty()) {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(new MessageResponse("Error: Search query cannot be empty."));
         }
 
-        List<User> users = userRepository.findByUsernameContainingIgnoreCaseOrFullNameContainingIgnoreCase(query, query);
+        // Rank matches with the in-memory index, falling back to the database while it is still loading
+        List<Long> rankedIds;
+        if (userSearchIndexService.isReady()) {
+            rankedIds = userSearchIndexService.search(query, MAX_SEARCH_RESULTS);
+        } else {
+            rankedIds = userRepository.findByUsernameContainingIgnoreCaseOrFullNameContainingIgnoreCase(query, query)
+                    .stream()
+                    .map(User::getId)
+                    .limit(MAX_SEARCH_RESULTS)
+                    .collect(Collectors.toList());
+        }
+
+        int fromIndex = (int) Math.min((long) page * size, rankedIds.size());
+        int toIndex = Math.min(fromIndex + size, rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(fromIndex, toIndex);
+
+        // Load only the users on the requested page
+        Map<Long, User> usersById = userRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+
+        List<User> pageUsers = pageIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        // Skip private profiles that the current user cannot access, loading the friend list at most once
+        List<User> visibleUsers = PermissionService.select(pageUsers, permissionService.canAccessUserProfiles(pageUsers, currentUserId));
+
         List<UserProfileResponse> userProfiles = new ArrayList<>();
 
-        for (User user : users) {
+        for (User user : visibleUsers) {
             boolean isCurrentUser = user.getId().equals(currentUserId);
-            
-            // Skip private profiles that the current user cannot access
-            if (!isCurrentUser && user.isPrivateProfile() && !permissionService.canAccessUserProfile(user, currentUserId)) {
-                continue;
-            }
 
             UserProfileResponse profileResponse = new UserProfileResponse(
                     user.getId(),
@@ -224,6 +286,21 @@ public class UserService {
             userProfiles.add(profileResponse);
         }
 
-        return ResponseEntity.ok(userProfiles);
+        boolean last = toIndex >= rankedIds.size();
+        String nextPageUrl = null;
+        if (!last) {
+            nextPageUrl = "/api/user/search?query=" + URLEncoder.encode(query, StandardCharsets.UTF_8)
+                    + "&page=" + (page + 1) + "&size=" + size;
+        }
+
+        return ResponseEntity.ok(new PagedResponse<>(
+                userProfiles,
+                page,
+                userProfiles.size(),
+                rankedIds.size(),
+                (rankedIds.size() + size - 1) / size,
+                last,
+                nextPageUrl
+        ));
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
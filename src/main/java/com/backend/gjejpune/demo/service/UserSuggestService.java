@@ -0,0 +1,161 @@
+package com.backend.gjejpune.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.payload.response.UserSuggestionResponse;
+import com.backend.gjejpune.demo.repository.FriendshipRepository;
+import com.backend.gjejpune.demo.repository.UserRepository;
+import com.backend.gjejpune.demo.search.SuggestionTrie;
+
+/**
+ * Serves username autocomplete from an in-memory radix trie ranked by friend count.
+ *
+ * Keys are the lower-cased username and each full name token. Private profiles are left
+ * out, since suggestions are answered without a friendship lookup.
+ */
+@Service
+public class UserSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSuggestService.class);
+
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    private final SuggestionTrie trie = new SuggestionTrie(MAX_SUGGESTIONS);
+
+    private final Map<Long, UserSuggestionResponse> suggestions = new ConcurrentHashMap<>();
+
+    private final Map<Long, Long> friendCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Build the trie from the users and friendships tables once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : friendshipRepository.countAcceptedByRequester()) {
+            counts.merge((Long) row[0], (Long) row[1], Long::sum);
+        }
+        for (Object[] row : friendshipRepository.countAcceptedByAddressee()) {
+            counts.merge((Long) row[0], (Long) row[1], Long::sum);
+        }
+        friendCounts.putAll(counts);
+
+        Pageable chunk = PageRequest.of(0, LOAD_CHUNK_SIZE);
+        Long afterId = 0L;
+
+        List<Object[]> rows;
+        do {
+            rows = userRepository.findSuggestFieldsAfter(afterId, chunk);
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                index(afterId, (String) row[1], (String) row[2], (String) row[3], (Boolean) row[4]);
+            }
+        } while (rows.size() == LOAD_CHUNK_SIZE);
+
+        logger.info("User suggestion trie built with {} users in {}ms", suggestions.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Add or refresh a user after sign-up or a profile change, once the current transaction commits
+     */
+    public void index(User user) {
+        Long userId = user.getId();
+        String username = user.getUsername();
+        String fullName = user.getFullName();
+        String avatarUrl = user.getProfileImageUrl();
+        boolean privateProfile = user.isPrivateProfile();
+        afterCommit(() -> index(userId, username, fullName, avatarUrl, privateProfile));
+    }
+
+    /**
+     * Record a gained or lost friendship for both users, once the current transaction commits
+     */
+    public void friendshipChanged(Long userId1, Long userId2, boolean accepted) {
+        long delta = accepted ? 1 : -1;
+        afterCommit(() -> {
+            for (Long userId : new Long[] { userId1, userId2 }) {
+                long count = friendCounts.merge(userId, delta, (current, change) -> Math.max(0, current + change));
+                trie.updateScore(userId, count);
+            }
+        });
+    }
+
+    /**
+     * Get up to ten public users whose username or a name token starts with the prefix
+     *
+     * @param prefix The text typed so far
+     * @return Suggestions ordered by friend count
+     */
+    public List<UserSuggestionResponse> suggest(String prefix) {
+        List<UserSuggestionResponse> results = new ArrayList<>();
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return results;
+        }
+
+        for (Long userId : trie.suggest(prefix.trim().toLowerCase(Locale.ROOT))) {
+            UserSuggestionResponse suggestion = suggestions.get(userId);
+            if (suggestion != null) {
+                results.add(suggestion);
+            }
+        }
+        return results;
+    }
+
+    private void index(Long userId, String username, String fullName, String avatarUrl, Boolean privateProfile) {
+        if (Boolean.TRUE.equals(privateProfile)) {
+            trie.remove(userId);
+            suggestions.remove(userId);
+            return;
+        }
+
+        List<String> keys = new ArrayList<>();
+        keys.add(username.toLowerCase(Locale.ROOT));
+        if (fullName != null) {
+            for (String token : fullName.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                keys.add(token);
+            }
+        }
+
+        suggestions.put(userId, new UserSuggestionResponse(userId, username, fullName, avatarUrl));
+        trie.put(userId, keys, friendCounts.getOrDefault(userId, 0L));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
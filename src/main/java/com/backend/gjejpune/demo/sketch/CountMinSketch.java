@@ -0,0 +1,76 @@
+package com.backend.gjejpune.demo.sketch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch estimating how often each id was counted, in memory that does not grow
+ * with the number of ids.
+ *
+ * Every id maps to one counter in each row, and its estimate is the smallest of them, so an
+ * estimate is never below the true count and exceeds it only by what colliding ids added.
+ * Counters are atomic, so any number of threads may add and read concurrently.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width Counters per row, rounded up to a power of two
+     * @param depth Number of rows, each hashing ids independently
+     */
+    public CountMinSketch(int width, int depth) {
+        this.width = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.counters = new AtomicLongArray(this.width * depth);
+    }
+
+    /**
+     * Add a positive amount to an id's count
+     */
+    public void add(long id, long amount) {
+        long hash = mix(id);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(index(row, first, second), amount);
+        }
+    }
+
+    /**
+     * Estimate an id's count, never below the amount actually added
+     */
+    public long estimate(long id) {
+        long hash = mix(id);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(row, first, second)));
+        }
+        return min;
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    // Row positions derived from two halves of one hash, which is as good as independent hashes
+    private int index(int row, int first, int second) {
+        int combined = first + row * second;
+        return row * width + ((combined ^ (combined >>> 16)) & (width - 1));
+    }
+
+    // 64-bit finalizer of MurmurHash3
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93e7ec12953L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
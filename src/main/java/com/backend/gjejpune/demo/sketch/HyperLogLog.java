@@ -0,0 +1,118 @@
+package com.backend.gjejpune.demo.sketch;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct ids added to it.
+ *
+ * The sketch keeps 2^12 one-byte registers, so it takes 4 KB whatever the number of ids, with
+ * a standard error of about 1.6%. Adding an id that was already seen never changes it, and two
+ * sketches are merged by taking the larger of each pair of registers, so sketches filled on
+ * different nodes or at different times combine into the sketch of the union of their ids.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public class HyperLogLog {
+
+    private static final int PRECISION = 12;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Restore a sketch from {@link #toBytes()}
+     *
+     * @throws IllegalArgumentException If the bytes were not written by a sketch of this size
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != REGISTERS) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch");
+        }
+        return new HyperLogLog(bytes.clone());
+    }
+
+    /**
+     * Add an id to the sketch
+     *
+     * @return Whether the sketch changed
+     */
+    public boolean add(long id) {
+        long hash = mix(id);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Position of the first set bit among the remaining bits, capped so it fits the register
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Fold another sketch into this one
+     */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Estimate the number of distinct ids added
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        // Small cardinalities are counted more accurately from the share of empty registers
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+
+    // 64-bit finalizer of MurmurHash3, so sequential ids spread over all registers
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93e7ec12953L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
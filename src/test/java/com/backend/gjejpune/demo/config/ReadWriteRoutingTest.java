@@ -0,0 +1,113 @@
+package com.backend.gjejpune.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.gjejpune.demo.security.services.UserDetailsImpl;
+
+/**
+ * Checks which pool each transaction runs on, with the primary and the two replicas on
+ * separate in-memory databases so the database name tells them apart
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.jpa.open-in-view=false",
+    "app.datasource.routing.enabled=true",
+    "app.datasource.routing.pin-window-ms=60000",
+    "app.datasource.routing.replicas[0].url=jdbc:h2:mem:routingreplica0;DB_CLOSE_DELAY=-1;MODE=MySQL",
+    "app.datasource.routing.replicas[0].username=sa",
+    "app.datasource.routing.replicas[1].url=jdbc:h2:mem:routingreplica1;DB_CLOSE_DELAY=-1;MODE=MySQL",
+    "app.datasource.routing.replicas[1].username=sa"
+})
+class ReadWriteRoutingTest {
+
+    private static final List<String> REPLICAS = List.of("ROUTINGREPLICA0", "ROUTINGREPLICA1");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void writeTransactionsRunOnThePrimary() {
+        String primary = databaseIn(readWrite);
+
+        assertTrue(!REPLICAS.contains(primary), "a read-write transaction ran on replica " + primary);
+        assertEquals(primary, databaseIn(readWrite));
+    }
+
+    @Test
+    void readOnlyTransactionsAreSpreadOverTheReplicas() {
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            used.add(databaseIn(readOnly));
+        }
+
+        assertEquals(Set.copyOf(REPLICAS), used);
+    }
+
+    @Test
+    void readsOfAUserWhoJustWroteStayOnThePrimary() {
+        signIn(4242L);
+        String primary = databaseIn(readWrite);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(primary, databaseIn(readOnly));
+        }
+
+        signIn(4343L);
+        assertTrue(REPLICAS.contains(databaseIn(readOnly)), "a user without recent writes should read from a replica");
+    }
+
+    @Test
+    void routingRefusesOpenInView() {
+        assertThrows(IllegalStateException.class, () -> DataSourceRoutingConfig.requireOpenInViewDisabled(true));
+        DataSourceRoutingConfig.requireOpenInViewDisabled(false);
+    }
+
+    // Name of the database the transaction's connection points at
+    private String databaseIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class)).toUpperCase();
+    }
+
+    private void signIn(Long userId) {
+        UserDetailsImpl principal = new UserDetailsImpl(userId, "user" + userId, "user" + userId + "@example.com", "password", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,37 @@
+package com.backend.gjejpune.demo.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Repeated feed and profile requests with the second-level and query caches switched off, as a baseline
+ */
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class CacheDisabledStatisticsTest extends CacheStatisticsTestSupport {
+
+    @Test
+    void repeatedProfileGoesToTheDatabase() {
+        Snapshot first = measure(() -> userController.getUserById(friend.getId()));
+        Snapshot second = measure(() -> userController.getUserById(friend.getId()));
+
+        assertEquals(0L, second.secondLevelCacheHits());
+        assertEquals(0L, second.queryCacheHits());
+        assertEquals(first.statements(), second.statements());
+    }
+
+    @Test
+    void repeatedFeedGoesToTheDatabase() {
+        measure(() -> postController.getFeedPosts(0, 30, null));
+        Snapshot second = measure(() -> postController.getFeedPosts(0, 30, null));
+
+        assertEquals(0L, second.secondLevelCacheHits());
+        assertEquals(0L, second.queryCacheHits());
+        assertTrue(second.statements() > 0);
+    }
+}
@@ -0,0 +1,33 @@
+package com.backend.gjejpune.demo.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Repeated feed and profile requests with the second-level and query caches on, as configured
+ */
+class CacheEnabledStatisticsTest extends CacheStatisticsTestSupport {
+
+    @Test
+    void repeatedProfileIsServedFromTheCache() {
+        Snapshot first = measure(() -> userController.getUserById(friend.getId()));
+        Snapshot second = measure(() -> userController.getUserById(friend.getId()));
+
+        assertTrue(statistics.isStatisticsEnabled());
+        assertTrue(second.secondLevelCacheHits() > 0, "a repeated profile should load its user from the second-level cache");
+        assertTrue(second.statements() < first.statements(),
+                "expected fewer statements on the repeat, got " + first.statements() + " then " + second.statements());
+    }
+
+    @Test
+    void repeatedFeedIsServedFromTheCache() {
+        Snapshot first = measure(() -> postController.getFeedPosts(0, 30, null));
+        Snapshot second = measure(() -> postController.getFeedPosts(0, 30, null));
+
+        assertTrue(second.secondLevelCacheHits() + second.queryCacheHits() > 0,
+                "a repeated feed should hit the second-level or query cache");
+        assertTrue(second.statements() <= first.statements(),
+                "expected no more statements on the repeat, got " + first.statements() + " then " + second.statements());
+    }
+}
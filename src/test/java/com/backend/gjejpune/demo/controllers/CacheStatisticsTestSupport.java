@@ -0,0 +1,106 @@
+package com.backend.gjejpune.demo.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.backend.gjejpune.demo.model.Friendship;
+import com.backend.gjejpune.demo.model.Friendship.FriendshipStatus;
+import com.backend.gjejpune.demo.model.Post;
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.repository.FriendshipRepository;
+import com.backend.gjejpune.demo.repository.PostRepository;
+import com.backend.gjejpune.demo.repository.UserRepository;
+import com.backend.gjejpune.demo.security.services.UserDetailsImpl;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Sets up a viewer with a private-profile friend who has a few posts, and measures what one
+ * feed or profile request costs according to Hibernate's statistics
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+abstract class CacheStatisticsTestSupport {
+
+    private static final int POSTS_PER_FRIEND = 5;
+
+    @Autowired
+    protected PostController postController;
+
+    @Autowired
+    protected UserController userController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    protected Statistics statistics;
+    protected User viewer;
+    protected User friend;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        viewer = saveUser();
+        friend = saveUser();
+        friend.setPrivateProfile(true);
+        friend = userRepository.save(friend);
+
+        Friendship friendship = new Friendship(viewer, friend);
+        friendship.setStatus(FriendshipStatus.ACCEPTED);
+        friendshipRepository.save(friendship);
+        for (int i = 0; i < POSTS_PER_FRIEND; i++) {
+            postRepository.save(new Post("Post " + i, "Content " + i, friend));
+        }
+        // Start every test from cold caches, as saving the rows above put them in the cache
+        entityManagerFactory.getCache().evictAll();
+
+        UserDetailsImpl principal = UserDetailsImpl.build(viewer);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // Run one request against cleared statistics and return what it cost
+    protected Snapshot measure(Supplier<ResponseEntity<?>> request) {
+        statistics.clear();
+        ResponseEntity<?> response = request.get();
+        assertEquals(200, response.getStatusCode().value());
+        return new Snapshot(statistics.getPrepareStatementCount(), statistics.getSecondLevelCacheHitCount(),
+                statistics.getQueryCacheHitCount());
+    }
+
+    private User saveUser() {
+        String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(new User(name, name + "@example.com", "password"));
+    }
+
+    protected record Snapshot(long statements, long secondLevelCacheHits, long queryCacheHits) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.backend.gjejpune.demo.notification;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.gjejpune.demo.notification.Notification.Type;
+
+/**
+ * Checks collapsing, capacity trimming and the unread count of an inbox, and that an inbox
+ * survives its stored form
+ */
+class NotificationInboxTest {
+
+    @Test
+    void eventsAboutOneTargetCollapseIntoOneEntry() {
+        NotificationInbox inbox = new NotificationInbox(10);
+        inbox.add(Type.LIKE, 42, 1, 100);
+        inbox.add(Type.LIKE, 42, 2, 200);
+        inbox.add(Type.LIKE, 42, 1, 300);
+
+        List<Notification> entries = inbox.newest(10);
+        assertEquals(1, entries.size());
+        assertEquals(2, entries.get(0).getActorCount());
+        assertArrayEquals(new long[] { 1, 2 }, entries.get(0).getRecentActorIds());
+        assertEquals(300, entries.get(0).getUpdatedAt());
+        assertEquals(1, inbox.getUnreadCount());
+    }
+
+    @Test
+    void roundTripKeepsEveryEntry() {
+        NotificationInbox inbox = new NotificationInbox(10);
+        inbox.add(Type.LIKE, 42, 1, 100);
+        inbox.add(Type.LIKE, 42, 2, 150);
+        inbox.add(Type.LIKE, 42, 3, 160);
+        inbox.add(Type.LIKE, 42, 4, 170);
+        inbox.add(Type.COMMENT, 42, 5, 200);
+        inbox.add(Type.FRIEND_REQUEST, 7, 6, 300);
+        inbox.markRead(Notification.keyOf(Type.COMMENT, 42));
+
+        NotificationInbox restored = NotificationInbox.fromBytes(inbox.toBytes(), 10);
+
+        assertEquals(inbox.getUnreadCount(), restored.getUnreadCount());
+        List<Notification> expected = inbox.newest(10);
+        List<Notification> actual = restored.newest(10);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getKey(), actual.get(i).getKey());
+            assertArrayEquals(expected.get(i).getRecentActorIds(), actual.get(i).getRecentActorIds());
+            assertEquals(expected.get(i).getActorCount(), actual.get(i).getActorCount());
+            assertEquals(expected.get(i).isRead(), actual.get(i).isRead());
+            assertEquals(expected.get(i).getUpdatedAt(), actual.get(i).getUpdatedAt());
+        }
+        assertEquals(4, actual.get(2).getActorCount());
+        assertEquals(Notification.MAX_RECENT_ACTORS, actual.get(2).getRecentActorIds().length);
+    }
+
+    @Test
+    void oldestEntriesFallOutWhenFull() {
+        NotificationInbox inbox = new NotificationInbox(3);
+        for (long postId = 1; postId <= 5; postId++) {
+            inbox.add(Type.LIKE, postId, 100, postId);
+        }
+
+        assertEquals(List.of("like:5", "like:4", "like:3"), keys(inbox));
+        assertEquals(3, inbox.getUnreadCount());
+
+        // A new event moves its entry to the front, so it outlives older ones
+        inbox.add(Type.LIKE, 3, 101, 6);
+        inbox.add(Type.COMMENT, 9, 100, 7);
+        assertEquals(List.of("comment:9", "like:3", "like:5"), keys(inbox));
+    }
+
+    @Test
+    void readingIntoASmallerInboxKeepsTheNewest() {
+        NotificationInbox inbox = new NotificationInbox(5);
+        for (long postId = 1; postId <= 5; postId++) {
+            inbox.add(Type.LIKE, postId, 100, postId);
+        }
+        inbox.markRead(Notification.keyOf(Type.LIKE, 1));
+        inbox.markRead(Notification.keyOf(Type.LIKE, 4));
+
+        NotificationInbox restored = NotificationInbox.fromBytes(inbox.toBytes(), 2);
+
+        assertEquals(List.of("like:5", "like:4"), keys(restored));
+        // The dropped entries no longer count, read or not
+        assertEquals(1, restored.getUnreadCount());
+    }
+
+    @Test
+    void unreadCountFollowsEveryChange() {
+        NotificationInbox inbox = new NotificationInbox(3);
+        inbox.add(Type.LIKE, 1, 100, 1);
+        inbox.add(Type.LIKE, 2, 100, 2);
+        inbox.add(Type.COMMENT, 1, 100, 3);
+        assertEquals(3, inbox.getUnreadCount());
+
+        inbox.markRead(Notification.keyOf(Type.LIKE, 1));
+        inbox.markRead(Notification.keyOf(Type.LIKE, 1));
+        assertEquals(2, inbox.getUnreadCount());
+
+        // A new event on a read entry makes it unread again
+        inbox.add(Type.LIKE, 1, 101, 4);
+        assertEquals(3, inbox.getUnreadCount());
+
+        inbox.remove(Type.LIKE, 2);
+        inbox.remove(Type.LIKE, 2);
+        assertEquals(2, inbox.getUnreadCount());
+
+        // Trimming an unread entry uncounts it
+        inbox.add(Type.LIKE, 3, 100, 5);
+        inbox.add(Type.LIKE, 4, 100, 6);
+        assertEquals(3, inbox.getUnreadCount());
+
+        inbox.markRead(null);
+        assertEquals(0, inbox.getUnreadCount());
+        assertTrue(inbox.newest(3).stream().allMatch(Notification::isRead));
+    }
+
+    @Test
+    void corruptBytesAreRejected() {
+        byte[] bytes = new NotificationInbox(3).toBytes();
+        bytes[0] = 9;
+        assertThrows(IllegalArgumentException.class, () -> NotificationInbox.fromBytes(bytes, 3));
+
+        NotificationInbox inbox = new NotificationInbox(3);
+        inbox.add(Type.LIKE, 1, 100, 1);
+        byte[] full = inbox.toBytes();
+        assertThrows(IllegalArgumentException.class,
+                () -> NotificationInbox.fromBytes(Arrays.copyOf(full, full.length - 1), 3));
+        assertFalse(NotificationInbox.fromBytes(full, 3).newest(1).isEmpty());
+    }
+
+    private static List<String> keys(NotificationInbox inbox) {
+        return inbox.newest(Integer.MAX_VALUE).stream().map(Notification::getKey).toList();
+    }
+}
@@ -0,0 +1,52 @@
+package com.backend.gjejpune.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+    @Test
+    void findsBestMatchesAnywhereInTheCandidateList() {
+        TrigramIndex index = new TrigramIndex();
+        // Many weak matches with low ids come before the exact and prefix matches in every posting list
+        for (long id = 1; id <= 500; id++) {
+            index.put(id, "user" + id, "Mark Markson");
+        }
+        index.put(1000, "mark", "Someone");
+        index.put(1001, "markus", "Someone Else");
+
+        List<Long> results = index.search("mark", 3);
+
+        assertEquals(List.of(1000L, 1001L), results.subList(0, 2));
+        assertEquals(3, results.size());
+    }
+
+    @Test
+    void shortQueriesMatchWordPrefixesOnly() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "anna", "Anna Smith");
+        index.put(2, "banana", "Bob Nana");
+        index.put(3, "tom", "Tom Anderson");
+
+        List<Long> results = index.search("an", 10);
+
+        assertTrue(results.contains(1L));
+        assertTrue(results.contains(3L));
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    void removedUsersAreNotFound() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "mark", "Mark");
+        index.put(2, "marko", "Marko");
+        index.remove(1);
+
+        assertEquals(List.of(2L), index.search("mark", 10));
+        assertEquals(1, index.size());
+    }
+}
@@ -0,0 +1,151 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.backend.gjejpune.demo.model.ArchivedPost;
+import com.backend.gjejpune.demo.model.Comment;
+import com.backend.gjejpune.demo.model.Like;
+import com.backend.gjejpune.demo.model.Post;
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.payload.request.PostRequest;
+import com.backend.gjejpune.demo.repository.ArchivedCommentRepository;
+import com.backend.gjejpune.demo.repository.ArchivedLikeRepository;
+import com.backend.gjejpune.demo.repository.ArchivedPostRepository;
+import com.backend.gjejpune.demo.repository.CommentRepository;
+import com.backend.gjejpune.demo.repository.LikeRepository;
+import com.backend.gjejpune.demo.repository.PostRepository;
+import com.backend.gjejpune.demo.repository.UserRepository;
+
+/**
+ * Archives a post with a like and a comment, then edits and deletes it through the same
+ * service methods the API uses for hot posts
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ArchivedPostWriteTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostArchiveService postArchiveService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ArchivedPostRepository archivedPostRepository;
+
+    @Autowired
+    private ArchivedLikeRepository archivedLikeRepository;
+
+    @Autowired
+    private ArchivedCommentRepository archivedCommentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private User other;
+    private Long postId;
+
+    @BeforeEach
+    void setUp() {
+        owner = saveUser();
+        other = saveUser();
+
+        Post post = postRepository.save(new Post("Old title", "Old content", owner));
+        postId = post.getId();
+        likeRepository.save(new Like(other, post));
+        commentRepository.save(new Comment("Nice", other, post));
+
+        // Backdate the post past the archive age, then move it
+        LocalDateTime longAgo = LocalDateTime.now().minusYears(3);
+        jdbcTemplate.update("UPDATE posts SET created_at = ? WHERE id = ?", Timestamp.valueOf(longAgo), postId);
+        postArchiveService.archiveOlderThan(longAgo.plusDays(1));
+
+        assertFalse(postRepository.existsById(postId));
+        assertTrue(archivedPostRepository.existsById(postId));
+        assertEquals(1L, archivedLikeRepository.countByPostId(postId));
+        assertEquals(1L, archivedCommentRepository.countByPostId(postId));
+    }
+
+    @Test
+    void ownerCanEditAnArchivedPost() {
+        PostRequest request = new PostRequest();
+        request.setTitle("Old title");
+        request.setContent("New content");
+        request.setPrivate(true);
+
+        ResponseEntity<?> response = postService.updatePost(postId, request, owner.getId());
+
+        assertEquals(200, response.getStatusCode().value());
+        Post updated = (Post) response.getBody();
+        assertTrue(updated.isArchived());
+        assertEquals("New content", updated.getContent());
+
+        ArchivedPost stored = archivedPostRepository.findById(postId).orElseThrow();
+        assertEquals("New content", stored.getContent());
+        assertTrue(stored.isPrivate());
+        assertFalse(postRepository.existsById(postId));
+    }
+
+    @Test
+    void ownerCanEditAnArchivedPostWithImageForm() {
+        ResponseEntity<?> response = postService.updatePostWithImage(postId, "New title", null, true, null, owner.getId());
+
+        assertEquals(200, response.getStatusCode().value());
+        ArchivedPost stored = archivedPostRepository.findById(postId).orElseThrow();
+        assertEquals("New title", stored.getTitle());
+        assertEquals("Old content", stored.getContent());
+        assertTrue(stored.isPrivate());
+    }
+
+    @Test
+    void othersCannotEditOrDeleteAnArchivedPost() {
+        PostRequest request = new PostRequest();
+        request.setContent("Hijacked");
+
+        assertEquals(403, postService.updatePost(postId, request, other.getId()).getStatusCode().value());
+        assertEquals(403, postService.deletePost(postId, other.getId()).getStatusCode().value());
+        assertEquals("Old content", archivedPostRepository.findById(postId).orElseThrow().getContent());
+    }
+
+    @Test
+    void deletingAnArchivedPostRemovesItsArchivedLikesAndComments() {
+        ResponseEntity<?> response = postService.deletePost(postId, owner.getId());
+
+        assertEquals(200, response.getStatusCode().value());
+        assertFalse(archivedPostRepository.existsById(postId));
+        assertEquals(0L, archivedLikeRepository.countByPostId(postId));
+        assertEquals(0L, archivedCommentRepository.countByPostId(postId));
+    }
+
+    private User saveUser() {
+        String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(new User(name, name + "@example.com", "password"));
+    }
+}
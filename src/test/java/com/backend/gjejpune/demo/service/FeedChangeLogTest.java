@@ -0,0 +1,165 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.gjejpune.demo.model.PostChange;
+import com.backend.gjejpune.demo.model.PostChange.ChangeType;
+import com.backend.gjejpune.demo.repository.PostChangeRepository;
+
+/**
+ * Checks that marks stop below entries whose transaction is still open, that the settled entry
+ * is not looked up on every call, and that collapsed rows are read as one change per post
+ */
+class FeedChangeLogTest {
+
+    private final AtomicLong nextId = new AtomicLong(0);
+    private final AtomicLong newestSettled = new AtomicLong(0);
+    private final AtomicInteger settledLookups = new AtomicInteger();
+    private final List<Object[]> collapsedRows = new ArrayList<>();
+
+    private FeedChangeLog log;
+
+    @BeforeEach
+    void setUp() {
+        PostChangeRepository repository = (PostChangeRepository) Proxy.newProxyInstance(
+                PostChangeRepository.class.getClassLoader(), new Class<?>[] { PostChangeRepository.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "append":
+                            nextId.incrementAndGet();
+                            return 1;
+                        case "findLastInsertId":
+                            return nextId.get();
+                        case "findNewestIdsBefore":
+                            settledLookups.incrementAndGet();
+                            return newestSettled.get() > 0 ? List.of(newestSettled.get()) : List.of();
+                        case "findMinId":
+                            return nextId.get() > 0 ? 1L : null;
+                        case "findCollapsedByAuthorIdInAfter":
+                            return collapsedRows.subList(0, Math.min(collapsedRows.size(), (Integer) args[2]));
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        log = new FeedChangeLog();
+        ReflectionTestUtils.setField(log, "postChangeRepository", repository);
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "settleMs", 2000L);
+        ReflectionTestUtils.setField(log, "maxEntries", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void markStopsBelowAnOpenTransactionUntilItCompletes() {
+        List<TransactionSynchronization> slow = inTransaction(() -> log.record(10L, ChangeType.UPDATED));
+        log.record(11L, ChangeType.CREATED);
+        log.record(12L, ChangeType.ENGAGEMENT);
+
+        // Everything is past the settle time, but entry 1 may still commit below the mark
+        newestSettled.set(3);
+        log.refreshSettled();
+        assertEquals(0L, log.currentMark().getChangeId());
+
+        complete(slow, TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(3L, log.currentMark().getChangeId());
+    }
+
+    @Test
+    void rolledBackEntryNoLongerHoldsTheMark() {
+        log.record(10L, ChangeType.CREATED);
+        List<TransactionSynchronization> failed = inTransaction(() -> log.record(11L, ChangeType.UPDATED));
+        newestSettled.set(2);
+        log.refreshSettled();
+
+        assertEquals(1L, log.currentMark().getChangeId());
+
+        complete(failed, TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(2L, log.currentMark().getChangeId());
+    }
+
+    @Test
+    void settledEntryIsReadOnceThenRefreshedInTheBackground() {
+        newestSettled.set(5);
+
+        log.currentMark();
+        log.currentMark();
+        log.nextMark(new FeedChangeMark(0));
+        assertEquals(1, settledLookups.get());
+
+        // A lagging lookup never moves the mark back
+        newestSettled.set(4);
+        log.refreshSettled();
+        assertEquals(5L, log.currentMark().getChangeId());
+        newestSettled.set(8);
+        log.refreshSettled();
+        assertEquals(8L, log.currentMark().getChangeId());
+    }
+
+    @Test
+    void collapsedRowsAreReadAsOneChangePerPost() {
+        log.record(1L, ChangeType.CREATED);
+        collapsedRows.add(new Object[] { 7L, 4L, 0 });
+        collapsedRows.add(new Object[] { 8L, 6L, 1 });
+        collapsedRows.add(new Object[] { 9L, 9L, 2 });
+
+        List<PostChange> changes = log.readAfter(new FeedChangeMark(0), List.of(1L));
+
+        assertEquals(3, changes.size());
+        assertEquals(7L, (long) changes.get(0).getPostId());
+        assertEquals(4L, (long) changes.get(0).getId());
+        assertEquals(ChangeType.ENGAGEMENT, changes.get(0).getType());
+        assertEquals(ChangeType.UPDATED, changes.get(1).getType());
+        assertEquals(ChangeType.DELETED, changes.get(2).getType());
+    }
+
+    @Test
+    void morePostsThanTheLimitAskForAReset() {
+        log.record(1L, ChangeType.CREATED);
+        for (long postId = 1; postId <= 4; postId++) {
+            collapsedRows.add(new Object[] { postId, postId, 1 });
+        }
+
+        assertNull(log.readAfter(new FeedChangeMark(0), List.of(1L)));
+    }
+
+    // Runs the action with transaction synchronization on and hands back what it registered
+    private static List<TransactionSynchronization> inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(List<TransactionSynchronization> synchronizations, int status) {
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Round trips both kinds of feed cursor through their token form
+ */
+class FeedCursorTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123456000);
+
+    @Test
+    void rankedCursorRoundTrip() {
+        FeedCursor decoded = FeedCursor.decode(FeedCursor.ranked(-42L, 30, CREATED_AT, 17L).encode());
+
+        assertTrue(decoded.isRanked());
+        assertEquals(-42L, (long) decoded.getSnapshotId());
+        assertEquals(30, decoded.getOffset());
+        assertEquals(CREATED_AT, decoded.getCreatedAt());
+        assertEquals(17L, (long) decoded.getId());
+    }
+
+    @Test
+    void rankedCursorOverTheWholeFeedHasNoEdge() {
+        FeedCursor decoded = FeedCursor.decode(FeedCursor.ranked(5L, 10, null, null).encode());
+
+        assertTrue(decoded.isRanked());
+        assertNull(decoded.getCreatedAt());
+        assertNull(decoded.getId());
+    }
+
+    @Test
+    void olderCursorRoundTrip() {
+        FeedCursor decoded = FeedCursor.decode(FeedCursor.olderThan(CREATED_AT, 99L).encode());
+
+        assertFalse(decoded.isRanked());
+        assertNull(decoded.getSnapshotId());
+        assertEquals(CREATED_AT, decoded.getCreatedAt());
+        assertEquals(99L, (long) decoded.getId());
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(token("R|1|2|-")));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(token("R|1|-5|-|-")));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(token("R|1|2|-|7")));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(token("C|yesterday|7")));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(token("X|2024-05-06T07:08:09|7")));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
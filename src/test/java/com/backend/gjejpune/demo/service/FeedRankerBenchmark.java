@@ -0,0 +1,81 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.gjejpune.demo.ranking.EngagementFeedScorer;
+
+/**
+ * Times FeedRanker.rank over a full candidate window with populated features.
+ * Run with {@code ./gradlew benchmark}; the regular test task leaves it out.
+ */
+@Tag("benchmark")
+class FeedRankerBenchmark {
+
+    private static final int CANDIDATES = 1000;
+    private static final int AUTHORS = 150;
+    private static final int WARMUP_ROUNDS = 2000;
+    private static final int MEASURED_ROUNDS = 5000;
+
+    @Test
+    void rankFullWindow() {
+        Random random = new Random(7);
+        EngagementFeatureStore features = new EngagementFeatureStore();
+        ReflectionTestUtils.setField(features, "velocityHalfLifeMinutes", 60L);
+        ReflectionTestUtils.setField(features, "affinityHalfLifeDays", 14L);
+        ReflectionTestUtils.setField(features, "maxPosts", 100000);
+        ReflectionTestUtils.setField(features, "maxViewers", 50000);
+        ReflectionTestUtils.setField(features, "maxAuthorsPerViewer", 200);
+
+        // Half the candidates have engagement and the viewer has interacted with every author
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> candidates = new ArrayList<>(CANDIDATES);
+        for (long postId = 1; postId <= CANDIDATES; postId++) {
+            long authorId = 1 + random.nextInt(AUTHORS);
+            candidates.add(new Object[] { postId, authorId, now.minusMinutes(postId * 7) });
+            if (postId % 2 == 0) {
+                features.likesAdded(postId, 1 + random.nextInt(50));
+                features.commentAdded(postId, 1_000_000L + postId, authorId);
+            }
+        }
+        Long viewerId = 42L;
+        for (long authorId = 1; authorId <= AUTHORS; authorId++) {
+            features.userLiked(viewerId, authorId);
+        }
+
+        EngagementFeedScorer scorer = new EngagementFeedScorer();
+        ReflectionTestUtils.setField(scorer, "likeWeight", 1.0);
+        ReflectionTestUtils.setField(scorer, "commentWeight", 2.0);
+        ReflectionTestUtils.setField(scorer, "affinityWeight", 0.5);
+        ReflectionTestUtils.setField(scorer, "gravity", 1.5);
+        FeedRanker ranker = new FeedRanker();
+        ReflectionTestUtils.setField(ranker, "engagementFeatureStore", features);
+        ReflectionTestUtils.setField(ranker, "scorers", Map.of("engagement", scorer));
+        ReflectionTestUtils.setField(ranker, "scorerName", "engagement");
+        ReflectionTestUtils.setField(ranker, "maxCandidates", CANDIDATES);
+        ranker.init();
+
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            checksum += ranker.rank(candidates, viewerId).get(0);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            checksum += ranker.rank(candidates, viewerId).get(0);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(CANDIDATES, ranker.rank(candidates, viewerId).size());
+        System.out.printf("FeedRanker.rank, %d candidates: %.3f ms per call (checksum %d)%n",
+                CANDIDATES, elapsed / 1e6 / MEASURED_ROUNDS, checksum);
+    }
+}
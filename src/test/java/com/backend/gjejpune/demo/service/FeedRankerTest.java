@@ -0,0 +1,145 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.gjejpune.demo.ranking.EngagementFeedScorer;
+import com.backend.gjejpune.demo.ranking.RecencyFeedScorer;
+
+/**
+ * Ranks candidate rows without a database and checks how the ranking snapshots are kept
+ */
+class FeedRankerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    private FeedRanker ranker;
+    private EngagementFeatureStore features;
+
+    @BeforeEach
+    void setUp() {
+        features = new EngagementFeatureStore();
+        ReflectionTestUtils.setField(features, "velocityHalfLifeMinutes", 60L);
+        ReflectionTestUtils.setField(features, "affinityHalfLifeDays", 14L);
+        ReflectionTestUtils.setField(features, "maxPosts", 1000);
+        ReflectionTestUtils.setField(features, "maxViewers", 1000);
+        ReflectionTestUtils.setField(features, "maxAuthorsPerViewer", 100);
+        ranker = ranker("engagement", 3, 30L, 10);
+    }
+
+    @Test
+    void engagementOutranksAFewHoursOfAge() {
+        features.likesAdded(3L, 50);
+
+        // Post 1 is the newest, post 3 the oldest
+        List<Long> ranked = ranker.rank(candidates(1, 2, 3), 100L);
+
+        assertEquals(List.of(3L, 1L, 2L), ranked);
+    }
+
+    @Test
+    void recentScorerKeepsNewestFirst() {
+        ranker = ranker("recent", 3, 30L, 10);
+        features.likesAdded(3L, 50);
+
+        assertEquals(List.of(1L, 2L, 3L), ranker.rank(candidates(1, 2, 3), 100L));
+    }
+
+    @Test
+    void fullWindowRemembersItsOldestPost() {
+        FeedRanker.Snapshot full = ranker.snapshot(candidates(1, 2, 3), 100L);
+        FeedRanker.Snapshot partial = ranker.snapshot(candidates(1, 2), 101L);
+
+        assertEquals(3L, (long) full.getEdgeId());
+        assertEquals(createdAt(3), full.getEdgeCreatedAt());
+        assertNull(partial.getEdgeId());
+        assertNull(partial.getEdgeCreatedAt());
+    }
+
+    @Test
+    void snapshotStaysTheSameWhileScoresMove() {
+        FeedRanker.Snapshot snapshot = ranker.snapshot(candidates(1, 2, 3), 100L);
+        features.likesAdded(3L, 50);
+
+        FeedRanker.Snapshot kept = ranker.getSnapshot(100L, snapshot.getId());
+
+        assertSame(snapshot, kept);
+        assertEquals(List.of(1L, 2L, 3L), kept.getPostIds());
+    }
+
+    @Test
+    void startingOverReplacesTheViewersSnapshot() {
+        FeedRanker.Snapshot first = ranker.snapshot(candidates(1, 2, 3), 100L);
+        FeedRanker.Snapshot second = ranker.snapshot(candidates(1, 2, 3), 100L);
+
+        assertNull(ranker.getSnapshot(100L, first.getId()));
+        assertNotNull(ranker.getSnapshot(100L, second.getId()));
+        // Another viewer cannot read it
+        assertNull(ranker.getSnapshot(200L, second.getId()));
+    }
+
+    @Test
+    void expiredSnapshotIsGone() {
+        ranker = ranker("engagement", 3, 0L, 10);
+        FeedRanker.Snapshot snapshot = ranker.snapshot(candidates(1, 2, 3), 100L);
+
+        assertNull(ranker.getSnapshot(100L, snapshot.getId()));
+    }
+
+    @Test
+    void snapshotsAreBounded() {
+        ranker = ranker("engagement", 3, 30L, 2);
+        FeedRanker.Snapshot first = ranker.snapshot(candidates(1), 100L);
+        FeedRanker.Snapshot second = ranker.snapshot(candidates(1), 101L);
+        FeedRanker.Snapshot third = ranker.snapshot(candidates(1), 102L);
+
+        // None had expired, so the older ones were dropped to make room
+        assertNull(ranker.getSnapshot(100L, first.getId()));
+        assertNull(ranker.getSnapshot(101L, second.getId()));
+        assertNotNull(ranker.getSnapshot(102L, third.getId()));
+    }
+
+    private FeedRanker ranker(String scorerName, int maxCandidates, long ttlMinutes, int maxSnapshots) {
+        EngagementFeedScorer engagement = new EngagementFeedScorer();
+        ReflectionTestUtils.setField(engagement, "likeWeight", 1.0);
+        ReflectionTestUtils.setField(engagement, "commentWeight", 2.0);
+        ReflectionTestUtils.setField(engagement, "affinityWeight", 0.5);
+        ReflectionTestUtils.setField(engagement, "gravity", 1.5);
+
+        FeedRanker created = new FeedRanker();
+        ReflectionTestUtils.setField(created, "engagementFeatureStore", features);
+        ReflectionTestUtils.setField(created, "scorers", Map.of("engagement", engagement, "recent", new RecencyFeedScorer()));
+        ReflectionTestUtils.setField(created, "enabled", true);
+        ReflectionTestUtils.setField(created, "scorerName", scorerName);
+        ReflectionTestUtils.setField(created, "maxCandidates", maxCandidates);
+        ReflectionTestUtils.setField(created, "snapshotTtlMinutes", ttlMinutes);
+        ReflectionTestUtils.setField(created, "maxSnapshots", maxSnapshots);
+        created.init();
+        return created;
+    }
+
+    // Rows of (post ID, author ID, createdAt) the way the candidate query returns them, newest first
+    private static List<Object[]> candidates(long... postIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (long postId : postIds) {
+            rows.add(new Object[] { postId, 10L, createdAt(postId) });
+        }
+        return rows;
+    }
+
+    // Post n was created n hours ago
+    private static LocalDateTime createdAt(long postId) {
+        return NOW.minusHours(postId);
+    }
+}
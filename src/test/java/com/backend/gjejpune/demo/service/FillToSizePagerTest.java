@@ -0,0 +1,193 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.gjejpune.demo.model.Post;
+
+/**
+ * Pages through generated listings with the pager and compares the result with filtering
+ * the whole listing at once
+ */
+class FillToSizePagerTest {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int MAX_ROWS_SCANNED = 1000;
+
+    @Test
+    void matchesFilteringEverythingOnRandomListings() {
+        Random random = new Random(42);
+        for (int round = 0; round < 300; round++) {
+            int rows = random.nextInt(1500);
+            double visibleShare = random.nextInt(5) == 0 ? 0.01 : random.nextDouble();
+            int size = 1 + random.nextInt(40);
+            // Often fewer distinct timestamps than rows, so ties on createdAt are common
+            List<Post> listing = listing(rows, 1 + random.nextInt(rows + 1), random);
+            Set<Long> visible = new HashSet<>();
+            for (Post post : listing) {
+                if (random.nextDouble() < visibleShare) {
+                    visible.add(post.getId());
+                }
+            }
+
+            assertPagesMatchBaseline(listing, visible, size);
+        }
+    }
+
+    @Test
+    void allHiddenEndsWithEmptyPagesAndNoCursor() {
+        List<Post> listing = listing(2500, 2500, new Random(1));
+
+        List<FillToSizePager.Result> pages = assertPagesMatchBaseline(listing, Set.of(), 20);
+
+        // The budget cuts each request short, so it takes three requests to see the end
+        assertEquals(3, pages.size());
+        for (FillToSizePager.Result page : pages) {
+            assertTrue(page.getContent().isEmpty());
+        }
+        assertNotNull(pages.get(0).getNextCursor());
+        assertEquals(1, pages.get(0).getNextCursor().getSelectivityPercent());
+    }
+
+    @Test
+    void allHiddenInShortListingReturnsOneEmptyPage() {
+        List<Post> listing = listing(50, 50, new Random(2));
+
+        List<FillToSizePager.Result> pages = assertPagesMatchBaseline(listing, Set.of(), 10);
+
+        assertEquals(1, pages.size());
+        assertNull(pages.get(0).getNextCursor());
+    }
+
+    @Test
+    void partiallyVisibleLastBatchIsReturnedWithoutCursor() {
+        List<Post> listing = listing(35, 35, new Random(3));
+        Set<Long> visible = new HashSet<>();
+        for (int i = 0; i < listing.size(); i += 4) {
+            visible.add(listing.get(i).getId());
+        }
+
+        List<FillToSizePager.Result> pages = assertPagesMatchBaseline(listing, visible, 5);
+
+        FillToSizePager.Result last = pages.get(pages.size() - 1);
+        assertTrue(last.getContent().size() < 5);
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void exactFitNeedsOneMoreEmptyRequest() {
+        List<Post> listing = listing(20, 20, new Random(4));
+        Set<Long> visible = listing.stream().map(Post::getId).collect(Collectors.toSet());
+
+        List<FillToSizePager.Result> pages = assertPagesMatchBaseline(listing, visible, 10);
+
+        // The second page ends exactly at the last row, which the pager cannot tell from a full batch
+        assertEquals(3, pages.size());
+        assertNotNull(pages.get(1).getNextCursor());
+        assertTrue(pages.get(2).getContent().isEmpty());
+    }
+
+    @Test
+    void emptyListing() {
+        List<FillToSizePager.Result> pages = assertPagesMatchBaseline(new ArrayList<>(), Set.of(), 10);
+
+        assertEquals(1, pages.size());
+        assertTrue(pages.get(0).getContent().isEmpty());
+        assertNull(pages.get(0).getNextCursor());
+    }
+
+    // Follow the cursors to the end and check every page against the baseline
+    private List<FillToSizePager.Result> assertPagesMatchBaseline(List<Post> listing, Set<Long> visible, int size) {
+        List<Long> expected = listing.stream()
+                .filter(post -> visible.contains(post.getId()))
+                .map(Post::getId)
+                .collect(Collectors.toList());
+
+        List<FillToSizePager.Result> pages = new ArrayList<>();
+        List<Long> actual = new ArrayList<>();
+        PostCursor cursor = null;
+        do {
+            long[] loaded = new long[1];
+            FillToSizePager.Result page = FillToSizePager.fill(size, cursor,
+                    (after, limit) -> {
+                        assertTrue(limit > 0 && limit <= MAX_ROWS_SCANNED, "batch limit " + limit);
+                        List<Post> batch = after(listing, after, limit);
+                        loaded[0] += batch.size();
+                        return batch;
+                    },
+                    batch -> {
+                        BitSet accessible = new BitSet(batch.size());
+                        for (int i = 0; i < batch.size(); i++) {
+                            accessible.set(i, visible.contains(batch.get(i).getId()));
+                        }
+                        return accessible;
+                    });
+
+            assertTrue(page.getContent().size() <= size);
+            assertTrue(loaded[0] <= MAX_ROWS_SCANNED, "one request read " + loaded[0] + " rows");
+            if (page.getNextCursor() != null && page.getContent().size() < size) {
+                // A short page with a cursor is only allowed once the scan budget is spent
+                assertEquals(MAX_ROWS_SCANNED, loaded[0]);
+            }
+            for (Post post : page.getContent()) {
+                actual.add(post.getId());
+            }
+            pages.add(page);
+            cursor = page.getNextCursor();
+            if (cursor != null) {
+                // Round trip the cursor like a client would
+                cursor = PostCursor.decode(cursor.encode());
+            }
+            assertTrue(pages.size() <= listing.size() + 2, "paging did not terminate");
+        } while (cursor != null);
+
+        assertEquals(expected, actual);
+        return pages;
+    }
+
+    // Posts newest first by (createdAt, id), spread over the given number of distinct timestamps
+    private static List<Post> listing(int rows, int timestamps, Random random) {
+        List<Post> posts = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Post post = new Post();
+            post.setId((long) i + 1);
+            post.setCreatedAt(EPOCH.plusSeconds(random.nextInt(Math.max(1, timestamps))));
+            posts.add(post);
+        }
+        posts.sort(Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId).reversed());
+        return posts;
+    }
+
+    // What the repository's keyset query returns: rows strictly after the cursor, up to the limit
+    private static List<Post> after(List<Post> listing, PostCursor cursor, int limit) {
+        List<Post> batch = new ArrayList<>();
+        for (Post post : listing) {
+            if (batch.size() == limit) {
+                break;
+            }
+            if (cursor == null || isAfter(post, cursor)) {
+                batch.add(post);
+            }
+        }
+        return batch;
+    }
+
+    private static boolean isAfter(Post post, PostCursor cursor) {
+        int byTime = post.getCreatedAt().compareTo(cursor.getCreatedAt());
+        return byTime < 0 || (byTime == 0 && post.getId() < cursor.getId());
+    }
+}
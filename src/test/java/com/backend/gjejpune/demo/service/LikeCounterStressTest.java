@@ -0,0 +1,187 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.gjejpune.demo.model.Post;
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.payload.response.LikeStatusResponse;
+import com.backend.gjejpune.demo.repository.LikeRepository;
+import com.backend.gjejpune.demo.repository.PostRepository;
+import com.backend.gjejpune.demo.repository.UserRepository;
+
+/**
+ * Likes and unlikes one post from many threads, with counts being dropped and reloaded at the
+ * same time, and checks that the counter store ends up agreeing with the rows
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "likes.buffer.enabled=false")
+class LikeCounterStressTest {
+
+    private static final int USERS = 20;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 300;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LikeCounterStore likeCounterStore;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long postId;
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User author = saveUser();
+        postId = postRepository.save(new Post("Stress", "Liked a lot", author)).getId();
+        userIds.clear();
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(saveUser().getId());
+        }
+    }
+
+    @Test
+    void parallelLikesAndUnlikesKeepTheCountEqualToTheRows() throws Exception {
+        // Cached before the storm, so only committed deltas move it from here
+        assertEquals(0L, likeCounterStore.getCount(postId));
+
+        runStorm(false);
+
+        assertEquals(likeRepository.countByPostId(postId), likeCounterStore.getCount(postId));
+    }
+
+    @Test
+    void countsReloadedDuringTheStormAreNeverCachedStale() throws Exception {
+        runStorm(true);
+
+        likeCounterStore.loadMisses();
+        assertEquals(likeRepository.countByPostId(postId), likeCounterStore.getCount(postId));
+    }
+
+    @Test
+    void missInsideATransactionIsLoadedByTheBatch() {
+        likeService.likePost(postId, userIds.get(0));
+        likeService.likePost(postId, userIds.get(1));
+        likeCounterStore.forget(List.of(postId));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long inTransaction = transaction.execute(status -> likeCounterStore.getCount(postId));
+        assertEquals(2L, inTransaction);
+
+        likeCounterStore.loadMisses();
+        likeService.unlikePost(postId, userIds.get(0));
+        assertEquals(1L, likeCounterStore.getCount(postId));
+        assertEquals(1L, likeRepository.countByPostId(postId));
+    }
+
+    @Test
+    void repeatedLikeIsNotCountedTwice() {
+        assertEquals(1L, reportedCount(likeService.likePost(postId, userIds.get(0))));
+        assertEquals(1L, reportedCount(likeService.likePost(postId, userIds.get(0))));
+
+        assertEquals(1L, likeRepository.countByPostId(postId));
+        assertEquals(1L, likeCounterStore.getCount(postId));
+    }
+
+    @Test
+    void reportedCountIncludesTheOwnChangeOnceWhetherCachedOrNot() {
+        // Not cached: counted on the transaction's own connection, which already sees the like
+        likeCounterStore.forget(List.of(postId));
+        assertEquals(1L, reportedCount(likeService.likePost(postId, userIds.get(0))));
+        likeCounterStore.forget(List.of(postId));
+        assertEquals(0L, reportedCount(likeService.unlikePost(postId, userIds.get(0))));
+
+        // Cached: the committed count plus the change
+        assertEquals(0L, likeCounterStore.getCount(postId));
+        assertEquals(1L, reportedCount(likeService.likePost(postId, userIds.get(0))));
+        assertEquals(2L, reportedCount(likeService.likePost(postId, userIds.get(1))));
+        assertEquals(1L, reportedCount(likeService.unlikePost(postId, userIds.get(0))));
+        assertEquals(1L, reportedCount(likeService.unlikePost(postId, userIds.get(0))));
+    }
+
+    private void runStorm(boolean reloadWhileRunning) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                writers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    start.await();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        Long userId = userIds.get(random.nextInt(USERS));
+                        if (random.nextBoolean()) {
+                            likeService.likePost(postId, userId);
+                        } else {
+                            likeService.unlikePost(postId, userId);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> reloader = executor.submit(() -> {
+                start.await();
+                while (reloadWhileRunning && running.get()) {
+                    likeCounterStore.forget(List.of(postId));
+                    likeCounterStore.getCount(postId);
+                    likeCounterStore.loadMisses();
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            reloader.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long reportedCount(ResponseEntity<?> response) {
+        return ((LikeStatusResponse) response.getBody()).getLikesCount();
+    }
+
+    private User saveUser() {
+        String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(new User(name, name + "@example.com", "password"));
+    }
+}
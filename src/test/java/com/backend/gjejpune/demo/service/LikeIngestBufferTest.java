@@ -0,0 +1,399 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.backend.gjejpune.demo.model.PostChange.ChangeType;
+import com.backend.gjejpune.demo.repository.LikeRepository;
+import com.backend.gjejpune.demo.repository.PostRepository;
+
+/**
+ * Drives the buffer from many threads against an in-memory like table and checks what ends up
+ * written and what the merged count shows along the way
+ */
+class LikeIngestBufferTest {
+
+    private static final Long POST_ID = 7L;
+    private static final Long AUTHOR_ID = 99L;
+
+    // The committed likes of POST_ID
+    private final Set<Long> likers = ConcurrentHashMap.newKeySet();
+
+    // Runs before every batched write; may block or throw
+    private volatile Runnable beforeWrite = () -> { };
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    // Likers announced to the author, in order
+    private final List<Long> announced = new ArrayList<>();
+
+    // Likers the author was notified of, in order
+    private final List<Long> notified = new ArrayList<>();
+
+    private LikeIngestBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new LikeIngestBuffer();
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        ReflectionTestUtils.setField(buffer, "maxBatchSize", 16);
+        ReflectionTestUtils.setField(buffer, "idleRetireMs", 60000L);
+        ReflectionTestUtils.setField(buffer, "retryInitialMs", 0L);
+        ReflectionTestUtils.setField(buffer, "retryMaxMs", 0L);
+        ReflectionTestUtils.setField(buffer, "maxAttempts", 3);
+        ReflectionTestUtils.setField(buffer, "shutdownTimeoutMs", 10000L);
+        ReflectionTestUtils.setField(buffer, "likeRepository", likeRepository());
+        ReflectionTestUtils.setField(buffer, "postRepository", postRepository());
+        ReflectionTestUtils.setField(buffer, "transactionManager", transactionManager());
+        ReflectionTestUtils.setField(buffer, "likeCounterStore", new LikeCounterStore() {
+            @Override
+            public void recordChange(Long postId, long delta) {
+            }
+        });
+        ReflectionTestUtils.setField(buffer, "publicTimelineBuffer", new PublicTimelineBuffer() {
+            @Override
+            public void adjustLikes(Long postId, long delta) {
+            }
+        });
+        ReflectionTestUtils.setField(buffer, "feedChangeLog", new FeedChangeLog() {
+            @Override
+            public void record(Long postId, ChangeType type) {
+            }
+        });
+        ReflectionTestUtils.setField(buffer, "trendingService", new TrendingService() {
+            @Override
+            public void recordLikes(Long postId, long count) {
+            }
+        });
+        ReflectionTestUtils.setField(buffer, "engagementFeatureStore", new EngagementFeatureStore() {
+            @Override
+            public void likesAdded(Long postId, long count) {
+            }
+
+            @Override
+            public void userLiked(Long userId, Long authorId) {
+            }
+        });
+        ReflectionTestUtils.setField(buffer, "eventStreamService", new EventStreamService() {
+            @Override
+            public void postLiked(Long authorId, Long userId, Long postId) {
+                assertEquals(AUTHOR_ID, authorId);
+                synchronized (announced) {
+                    announced.add(userId);
+                }
+            }
+        });
+        ReflectionTestUtils.setField(buffer, "notificationService", new NotificationService() {
+            @Override
+            public void postLiked(Long authorId, Long userId, Long postId) {
+                assertEquals(AUTHOR_ID, authorId);
+                synchronized (notified) {
+                    notified.add(userId);
+                }
+            }
+        });
+    }
+
+    @Test
+    void stripedIntakeWritesTheLastIntentOfEveryUser() throws Exception {
+        int users = 200;
+        int threads = 8;
+        for (long userId = 0; userId < users; userId += 3) {
+            likers.add(userId);
+        }
+
+        // Each thread owns a slice of the users, so the last intent per user is known
+        Map<Long, Boolean> last = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean submitting = new AtomicBoolean(true);
+        try {
+            List<Future<?>> submitters = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int slice = t;
+                submitters.add(executor.submit(() -> {
+                    Random random = new Random(slice);
+                    start.await();
+                    for (int i = 0; i < 5000; i++) {
+                        long userId = slice + (long) threads * random.nextInt(users / threads);
+                        boolean liked = random.nextBoolean();
+                        buffer.submit(POST_ID, userId, liked);
+                        last.put(userId, liked);
+                    }
+                    return null;
+                }));
+            }
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                while (submitting.get()) {
+                    buffer.flush();
+                    long merged = buffer.mergedCount(POST_ID, likers.size());
+                    assertTrue(merged >= 0 && merged <= users, "merged count " + merged);
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> submitter : submitters) {
+                submitter.get(60, TimeUnit.SECONDS);
+            }
+            submitting.set(false);
+            flusher.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Before the last flush the merged count already shows the outcome
+        long expected = 0;
+        for (long userId = 0; userId < users; userId++) {
+            Boolean liked = last.get(userId);
+            if (liked != null ? liked : likers.contains(userId)) {
+                expected++;
+            }
+        }
+        assertEquals(expected, buffer.mergedCount(POST_ID, likers.size()));
+
+        buffer.flush();
+        for (Map.Entry<Long, Boolean> intent : last.entrySet()) {
+            assertEquals(intent.getValue(), likers.contains(intent.getKey()), "user " + intent.getKey());
+        }
+        assertEquals(expected, likers.size());
+        assertEquals(expected, buffer.mergedCount(POST_ID, likers.size()));
+    }
+
+    @Test
+    void repeatingTheCommittedStateDoesNotMoveTheCount() {
+        likers.add(1L);
+
+        buffer.submit(POST_ID, 1L, true);
+        buffer.submit(POST_ID, 2L, false);
+        assertEquals(1L, buffer.mergedCount(POST_ID, likers.size()));
+
+        buffer.submit(POST_ID, 1L, false);
+        buffer.submit(POST_ID, 1L, true);
+        assertEquals(1L, buffer.mergedCount(POST_ID, likers.size()));
+
+        buffer.submit(POST_ID, 2L, true);
+        buffer.submit(POST_ID, 2L, true);
+        assertEquals(2L, buffer.mergedCount(POST_ID, likers.size()));
+    }
+
+    @Test
+    void onlyLikesActuallyInsertedAreAnnounced() {
+        likers.add(1L);
+
+        buffer.submit(POST_ID, 1L, true);
+        buffer.submit(POST_ID, 2L, true);
+        buffer.submit(POST_ID, 3L, true);
+        buffer.submit(POST_ID, 3L, false);
+        buffer.flush();
+
+        assertEquals(List.of(2L), announced);
+        assertEquals(List.of(2L), notified);
+        assertEquals(Set.of(1L, 2L), likers);
+
+        // Liking again after the like is written announces nothing
+        buffer.submit(POST_ID, 2L, true);
+        buffer.submit(POST_ID, 2L, true);
+        buffer.flush();
+        assertEquals(List.of(2L), announced);
+        assertEquals(List.of(2L), notified);
+    }
+
+    @Test
+    void intentSubmittedWhileTheBatchIsWrittenStartsFromTheBatch() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        beforeWrite = () -> {
+            writing.countDown();
+            await(release);
+        };
+        buffer.submit(POST_ID, 1L, true);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> flush = executor.submit(buffer::flush);
+            writing.await(10, TimeUnit.SECONDS);
+
+            // The like is not committed yet, but liking again must not count it twice
+            buffer.submit(POST_ID, 1L, true);
+            assertEquals(1L, buffer.mergedCount(POST_ID, likers.size()));
+            assertTrue(buffer.pendingState(POST_ID, 1L));
+
+            release.countDown();
+            flush.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1L, buffer.mergedCount(POST_ID, likers.size()));
+
+        beforeWrite = () -> { };
+        buffer.flush();
+        assertEquals(Set.of(1L), likers);
+        assertEquals(1L, buffer.mergedCount(POST_ID, likers.size()));
+    }
+
+    @Test
+    void closeWaitsForTheRunningFlushAndDrainsWhatItLeft() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        beforeWrite = () -> {
+            writing.countDown();
+            await(release);
+        };
+        buffer.submit(POST_ID, 1L, true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> flush = executor.submit(buffer::flush);
+            writing.await(10, TimeUnit.SECONDS);
+
+            // Accepted while the scheduled flush still holds the buffer
+            buffer.submit(POST_ID, 2L, true);
+            buffer.submit(POST_ID + 1, 3L, true);
+            Future<?> close = executor.submit(buffer::close);
+            Thread.sleep(50);
+            assertFalse(close.isDone(), "close returned while a flush was running");
+
+            beforeWrite = () -> { };
+            release.countDown();
+            flush.get(10, TimeUnit.SECONDS);
+            close.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(Set.of(1L, 2L, 3L), likers);
+        assertNull(buffer.pendingState(POST_ID, 2L));
+    }
+
+    @Test
+    void failingBatchIsRetriedAndThenGivenUp() {
+        beforeWrite = () -> {
+            throw new IllegalStateException("database is down");
+        };
+        buffer.submit(POST_ID, 1L, true);
+        assertEquals(1L, buffer.mergedCount(POST_ID, likers.size()));
+
+        buffer.flush();
+        buffer.flush();
+        assertTrue(buffer.pendingState(POST_ID, 1L));
+        assertEquals(1L, buffer.mergedCount(POST_ID, likers.size()));
+
+        // The third attempt is the last one
+        buffer.flush();
+        assertEquals(3, writes.get());
+        assertNull(buffer.pendingState(POST_ID, 1L));
+        assertEquals(0L, buffer.mergedCount(POST_ID, likers.size()));
+
+        buffer.flush();
+        assertEquals(3, writes.get());
+    }
+
+    @Test
+    void failingBatchWaitsBeforeTheNextAttempt() {
+        ReflectionTestUtils.setField(buffer, "retryInitialMs", 60000L);
+        ReflectionTestUtils.setField(buffer, "retryMaxMs", 60000L);
+        beforeWrite = () -> {
+            throw new IllegalStateException("database is down");
+        };
+        buffer.submit(POST_ID, 1L, true);
+
+        buffer.flush();
+        buffer.flush();
+        buffer.flush();
+
+        assertEquals(1, writes.get());
+        assertTrue(buffer.pendingState(POST_ID, 1L));
+    }
+
+    // Answers the batched writes and the committed-state lookup from the likers set
+    private LikeRepository likeRepository() {
+        return (LikeRepository) Proxy.newProxyInstance(LikeRepository.class.getClassLoader(),
+                new Class<?>[] { LikeRepository.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "existsByUserIdAndPostId":
+                            return POST_ID.equals(args[1]) && likers.contains((Long) args[0]);
+                        case "findLikerIdsAmong":
+                            return ((Collection<?>) args[1]).stream()
+                                    .map(userId -> (Long) userId)
+                                    .filter(userId -> POST_ID.equals(args[0]) && likers.contains(userId))
+                                    .collect(Collectors.toList());
+                        case "insertForUsers":
+                            write();
+                            return changed((Long) args[0], (Collection<?>) args[1], true);
+                        case "deleteByPostIdAndUserIdIn":
+                            write();
+                            return changed((Long) args[0], (Collection<?>) args[1], false);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    // Every post is by the same author
+    private static PostRepository postRepository() {
+        return (PostRepository) Proxy.newProxyInstance(PostRepository.class.getClassLoader(),
+                new Class<?>[] { PostRepository.class }, (proxy, method, args) -> {
+                    if ("findVisibilityById".equals(method.getName())) {
+                        return List.<Object[]>of(new Object[] { AUTHOR_ID, false, false });
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private void write() {
+        writes.incrementAndGet();
+        beforeWrite.run();
+    }
+
+    private int changed(Long postId, Collection<?> userIds, boolean like) {
+        // Other posts only need to be written, their likes are folded into the same set
+        int changed = 0;
+        for (Object userId : userIds) {
+            if (like ? likers.add((Long) userId) : likers.remove(userId)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private static PlatformTransactionManager transactionManager() {
+        return (PlatformTransactionManager) Proxy.newProxyInstance(PlatformTransactionManager.class.getClassLoader(),
+                new Class<?>[] { PlatformTransactionManager.class },
+                (proxy, method, args) -> "getTransaction".equals(method.getName()) ? new SimpleTransactionStatus() : null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
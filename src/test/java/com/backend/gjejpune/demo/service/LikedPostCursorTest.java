@@ -0,0 +1,55 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Round trips liked-posts cursors through their token form and rejects tokens a client made up
+ */
+class LikedPostCursorTest {
+
+    @Test
+    void roundTripKeepsTheExactPosition() {
+        // Likes in the same second differ only below it, so the precision has to survive
+        Instant likedAt = Instant.parse("2024-03-01T12:30:45.123456789Z");
+        LikedPostCursor decoded = LikedPostCursor.decode(new LikedPostCursor(likedAt, 987654321L).encode());
+
+        assertEquals(likedAt, decoded.getLikedAt());
+        assertEquals(987654321L, decoded.getLikeId());
+    }
+
+    @Test
+    void roundTripAtTheEdges() {
+        LikedPostCursor decoded = LikedPostCursor.decode(new LikedPostCursor(Instant.EPOCH, Long.MAX_VALUE).encode());
+
+        assertEquals(Instant.EPOCH, decoded.getLikedAt());
+        assertEquals(Long.MAX_VALUE, decoded.getLikeId());
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new LikedPostCursor(Instant.parse("2024-12-31T23:59:59.999Z"), 1L).encode();
+
+        assertFalse(token.contains("+") || token.contains("/") || token.contains("="), token);
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LikedPostCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> LikedPostCursor.decode(token("2024-03-01T12:30:45Z")));
+        assertThrows(IllegalArgumentException.class, () -> LikedPostCursor.decode(token("2024-03-01T12:30:45Z|1|2")));
+        assertThrows(IllegalArgumentException.class, () -> LikedPostCursor.decode(token("yesterday|1")));
+        assertThrows(IllegalArgumentException.class, () -> LikedPostCursor.decode(token("2024-03-01T12:30:45Z|one")));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
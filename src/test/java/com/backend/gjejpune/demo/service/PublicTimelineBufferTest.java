@@ -0,0 +1,263 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.gjejpune.demo.model.Post;
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.repository.CommentRepository;
+import com.backend.gjejpune.demo.repository.LikeRepository;
+import com.backend.gjejpune.demo.repository.PostRepository;
+
+/**
+ * Exercises the ring directly, with repositories that only answer the rebuild queries.
+ * Outside a transaction every change is applied at once.
+ */
+class PublicTimelineBufferTest {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final User author = user(1L);
+
+    private PublicTimelineBuffer buffer;
+
+    // What the next rebuild's query returns, newest first; may also act while the query "runs"
+    private Supplier<List<Post>> newestPublic = List::of;
+
+    @BeforeEach
+    void setUp() {
+        buffer = withCapacity(8);
+    }
+
+    @Test
+    void readsNewestFirstFromTheCursor() {
+        newestPublic = () -> posts(5, 4, 3, 2, 1);
+        buffer.rebuild();
+
+        assertEquals(List.of(5L, 4L, 3L), ids(buffer.read(null, 3)));
+        assertEquals(List.of(2L, 1L), ids(buffer.read(new PostCursor(createdAt(3), 3, 100), 10)));
+    }
+
+    @Test
+    void pagesBelowAnEvictedPostAreNotAnswered() {
+        buffer = withCapacity(4);
+        buffer.rebuild();
+        for (long id = 1; id <= 6; id++) {
+            buffer.postCreated(post(id));
+        }
+
+        // Posts 1 and 2 were pushed out, so only the four newest can be vouched for
+        assertEquals(List.of(6L, 5L, 4L, 3L), ids(buffer.read(null, 4)));
+        assertNull(buffer.read(null, 5));
+        assertNull(buffer.read(new PostCursor(createdAt(4), 4, 100), 2));
+    }
+
+    @Test
+    void removedAndPrivatePostsLeaveTheRing() {
+        newestPublic = () -> posts(3, 2, 1);
+        buffer.rebuild();
+
+        buffer.postRemoved(2L);
+        Post madePrivate = post(3);
+        madePrivate.setPrivate(true);
+        buffer.postUpdated(madePrivate);
+
+        assertEquals(List.of(1L), ids(buffer.read(null, 10)));
+    }
+
+    @Test
+    void postDeletedWhileRebuildIsLoadingStaysDeleted() {
+        newestPublic = () -> posts(3, 2, 1);
+        buffer.rebuild();
+
+        // The rebuild's query still sees post 2, but its delete commits before the new ring is in place
+        newestPublic = () -> {
+            List<Post> loaded = posts(3, 2, 1);
+            buffer.postRemoved(2L);
+            return loaded;
+        };
+        buffer.rebuild();
+
+        assertEquals(List.of(3L, 1L), ids(buffer.read(null, 10)));
+    }
+
+    @Test
+    void authorGoingPrivateWhileRebuildIsLoadingStaysHidden() {
+        User other = user(2L);
+        newestPublic = () -> {
+            List<Post> loaded = new ArrayList<>(posts(3, 2));
+            loaded.add(post(1, other));
+            User nowPrivate = user(1L);
+            nowPrivate.setPrivateProfile(true);
+            buffer.userUpdated(nowPrivate, false);
+            return loaded;
+        };
+        buffer.rebuild();
+
+        assertEquals(List.of(1L), ids(buffer.read(null, 10)));
+    }
+
+    @Test
+    void postCreatedWhileRebuildIsLoadingIsCarriedOver() {
+        newestPublic = () -> posts(2, 1);
+        buffer.rebuild();
+
+        newestPublic = () -> {
+            List<Post> loaded = posts(2, 1);
+            buffer.postCreated(post(3));
+            return loaded;
+        };
+        buffer.rebuild();
+
+        assertEquals(List.of(3L, 2L, 1L), ids(buffer.read(null, 10)));
+    }
+
+    @Test
+    void concurrentAppendsRemovesAndReadsStayConsistent() throws Exception {
+        buffer = withCapacity(64);
+        buffer.rebuild();
+        AtomicLong nextId = new AtomicLong();
+        Set<Long> removed = ConcurrentHashMap.newKeySet();
+        int writers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 2000; i++) {
+                        long id = nextId.incrementAndGet();
+                        buffer.postCreated(post(id));
+                        if (id % 7 == 0) {
+                            removed.add(id);
+                            buffer.postRemoved(id);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 2000; i++) {
+                    List<Post> page = buffer.read(null, 10);
+                    if (page != null) {
+                        assertDescendingAndUnique(page);
+                    }
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Post> page = buffer.read(null, 16);
+        assertNotNull(page);
+        assertEquals(16, page.size());
+        assertDescendingAndUnique(page);
+        for (Post post : page) {
+            assertTrue(!removed.contains(post.getId()), "removed post " + post.getId() + " was returned");
+        }
+    }
+
+    private PublicTimelineBuffer withCapacity(int capacity) {
+        PublicTimelineBuffer created = new PublicTimelineBuffer();
+        ReflectionTestUtils.setField(created, "enabled", true);
+        ReflectionTestUtils.setField(created, "capacity", capacity);
+        ReflectionTestUtils.setField(created, "postRepository", repository(PostRepository.class));
+        ReflectionTestUtils.setField(created, "likeRepository", repository(LikeRepository.class));
+        ReflectionTestUtils.setField(created, "commentRepository", repository(CommentRepository.class));
+        return created;
+    }
+
+    // Answers the queries the buffer makes: the newest public posts and zero likes and comments
+    @SuppressWarnings("unchecked")
+    private <T> T repository(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "findNewestPublic":
+                    return newestPublic.get();
+                case "countGroupedByPostId":
+                    return Collections.emptyList();
+                case "countByPostId":
+                    return 0L;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static void assertDescendingAndUnique(List<Post> page) {
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < page.size(); i++) {
+            assertTrue(seen.add(page.get(i).getId()), "duplicate post " + page.get(i).getId());
+            if (i > 0) {
+                Post newer = page.get(i - 1);
+                Post older = page.get(i);
+                int byTime = newer.getCreatedAt().compareTo(older.getCreatedAt());
+                assertTrue(byTime > 0 || (byTime == 0 && newer.getId() > older.getId()), "page is out of order");
+            }
+        }
+    }
+
+    private List<Post> posts(long... ids) {
+        List<Post> posts = new ArrayList<>();
+        for (long id : ids) {
+            posts.add(post(id));
+        }
+        return posts;
+    }
+
+    private Post post(long id) {
+        return post(id, author);
+    }
+
+    private static Post post(long id, User user) {
+        Post post = new Post("Title " + id, "Content " + id, null, user, false);
+        post.setId(id);
+        post.setCreatedAt(createdAt(id));
+        return post;
+    }
+
+    private static LocalDateTime createdAt(long id) {
+        return EPOCH.plusSeconds(id);
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        return user;
+    }
+
+    private static List<Long> ids(List<Post> posts) {
+        return posts.stream().map(Post::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,165 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.backend.gjejpune.demo.model.Friendship;
+import com.backend.gjejpune.demo.model.Friendship.FriendshipStatus;
+import com.backend.gjejpune.demo.model.Post;
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.payload.response.PagedResponse;
+import com.backend.gjejpune.demo.repository.FriendshipRepository;
+import com.backend.gjejpune.demo.repository.PostRepository;
+import com.backend.gjejpune.demo.repository.UserRepository;
+
+/**
+ * Pages through a ranked feed while likes keep reordering it, and checks every post shows up
+ * exactly once: the ranked window first, then the older posts newest first
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "feed.ranking.enabled=true",
+    "feed.ranking.scorer=engagement",
+    "feed.ranking.max-candidates=6",
+    "likes.buffer.enabled=false"
+})
+class RankedFeedPagingTest {
+
+    private static final int POSTS = 11;
+    private static final int PAGE_SIZE = 4;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    private User viewer;
+    private final List<User> likers = new ArrayList<>();
+    // The viewer's feed newest first, as the keyset order has it
+    private List<Long> newestFirst;
+
+    @BeforeEach
+    void setUp() {
+        viewer = saveUser();
+        User friend = saveUser();
+        Friendship friendship = new Friendship(viewer, friend);
+        friendship.setStatus(FriendshipStatus.ACCEPTED);
+        friendshipRepository.save(friendship);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            ids.add(postRepository.save(new Post("Post " + i, "Content " + i, friend)).getId());
+        }
+        newestFirst = postRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId).reversed())
+                .map(Post::getId)
+                .collect(Collectors.toList());
+
+        likers.clear();
+        for (int i = 0; i < 5; i++) {
+            likers.add(saveUser());
+        }
+    }
+
+    @Test
+    void likesBetweenPagesNeitherSkipNorRepeatPosts() {
+        List<Long> seen = new ArrayList<>();
+        FeedCursor cursor = null;
+        int pages = 0;
+        do {
+            PagedResponse<Post> page = feedPage(cursor);
+            List<Long> ids = ids(page);
+            assertTrue(ids.size() <= PAGE_SIZE);
+            seen.addAll(ids);
+
+            // Push the oldest ranked post not shown yet to the top of any ranking made from now on
+            for (Long postId : newestFirst.subList(0, 6)) {
+                if (!seen.contains(postId)) {
+                    for (User liker : likers) {
+                        likeService.likePost(postId, liker.getId());
+                    }
+                    break;
+                }
+            }
+
+            cursor = page.getNextCursor() != null ? FeedCursor.decode(page.getNextCursor()) : null;
+            assertTrue(++pages <= POSTS, "paging did not terminate");
+        } while (cursor != null);
+
+        assertEquals(POSTS, seen.size(), "posts seen: " + seen);
+        assertEquals(new HashSet<>(newestFirst), new HashSet<>(seen));
+        // The ranked window is the newest posts, and what follows it is newest first
+        assertEquals(new HashSet<>(newestFirst.subList(0, 6)), new HashSet<>(seen.subList(0, 6)));
+        assertEquals(newestFirst.subList(6, POSTS), seen.subList(6, POSTS));
+    }
+
+    @Test
+    void cursorOfAReplacedRankingContinuesBelowIt() {
+        PagedResponse<Post> first = feedPage(null);
+        FeedCursor stale = FeedCursor.decode(first.getNextCursor());
+        assertTrue(stale.isRanked());
+
+        // Starting over replaces the ranking the cursor points into
+        feedPage(null);
+        PagedResponse<Post> next = feedPage(stale);
+
+        assertEquals(newestFirst.subList(6, 6 + PAGE_SIZE), ids(next));
+        assertNotNull(next.getNextCursor());
+        assertEquals(newestFirst.subList(6 + PAGE_SIZE, POSTS), ids(feedPage(FeedCursor.decode(next.getNextCursor()))));
+    }
+
+    @Test
+    void feedSmallerThanTheWindowEndsWithTheRanking() {
+        User loner = saveUser();
+        Post only = postRepository.save(new Post("Alone", "Only post", loner));
+
+        @SuppressWarnings("unchecked")
+        PagedResponse<Post> page = (PagedResponse<Post>) postService.getFeedPosts(0, PAGE_SIZE, null, loner.getId()).getBody();
+
+        assertEquals(List.of(only.getId()), ids(page));
+        assertNull(page.getNextCursor());
+    }
+
+    @SuppressWarnings("unchecked")
+    private PagedResponse<Post> feedPage(FeedCursor cursor) {
+        // Round trip the cursor like a client would
+        FeedCursor sent = cursor != null ? FeedCursor.decode(cursor.encode()) : null;
+        return (PagedResponse<Post>) postService.getFeedPosts(0, PAGE_SIZE, sent, viewer.getId()).getBody();
+    }
+
+    private static List<Long> ids(PagedResponse<Post> page) {
+        return page.getContent().stream().map(Post::getId).collect(Collectors.toList());
+    }
+
+    private User saveUser() {
+        String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(new User(name, name + "@example.com", "password"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Feeds engagement to the ranking directly; outside a transaction every event counts at once
+ */
+class TrendingServiceTest {
+
+    private TrendingService trending;
+
+    @BeforeEach
+    void setUp() {
+        trending = withTopK(10);
+    }
+
+    @Test
+    void ranksByWeightedEngagement() {
+        // Weights 3 per like, 5 per comment and 1 per new viewer
+        trending.recordLikes(1L, 2);
+        trending.recordComment(2L);
+        trending.recordComment(2L);
+        trending.recordViews(3L, 7);
+        trending.recordLike(4L);
+
+        assertEquals(List.of(2L, 3L, 1L, 4L), trending.getRanking());
+    }
+
+    @Test
+    void keepsOnlyTheTopK() {
+        trending = withTopK(3);
+        // Scores arrive out of order, so low scores have to make room for later high ones
+        long[] views = { 5, 1, 9, 3, 7, 2, 8, 4, 6, 10 };
+        for (int i = 0; i < views.length; i++) {
+            trending.recordViews((long) i, views[i]);
+        }
+
+        assertEquals(List.of(9L, 2L, 6L), trending.getRanking());
+    }
+
+    @Test
+    void postRaisedAboveTheMinimumStaysRanked() {
+        trending = withTopK(2);
+        trending.recordViews(1L, 5);
+        trending.recordViews(2L, 6);
+        trending.recordViews(1L, 10);
+        trending.recordViews(3L, 7);
+
+        assertEquals(List.of(1L, 3L), trending.getRanking());
+    }
+
+    @Test
+    void olderEngagementFades() {
+        trending.recordViews(1L, 10);
+        trending.rotate();
+        trending.recordViews(2L, 9);
+
+        // 10 views one bucket ago weigh 10 * 0.8 = 8
+        assertEquals(List.of(2L, 1L), trending.getRanking());
+    }
+
+    @Test
+    void engagementOlderThanTheWindowDropsOut() {
+        trending.recordViews(1L, 10);
+        for (int i = 0; i < 4; i++) {
+            trending.rotate();
+        }
+
+        assertTrue(trending.getRanking().isEmpty());
+    }
+
+    @Test
+    void forgottenPostLeavesTheRanking() {
+        trending.recordViews(1L, 3);
+        trending.recordViews(2L, 4);
+
+        trending.forget(2L);
+
+        assertEquals(List.of(1L), trending.getRanking());
+    }
+
+    @Test
+    void disabledRankingIgnoresEngagement() {
+        ReflectionTestUtils.setField(trending, "enabled", false);
+        trending.recordLikes(1L, 5);
+        trending.recordViews(2L, 5);
+        trending.rotate();
+
+        assertTrue(trending.getRanking().isEmpty());
+    }
+
+    private static TrendingService withTopK(int topK) {
+        TrendingService created = new TrendingService();
+        ReflectionTestUtils.setField(created, "enabled", true);
+        ReflectionTestUtils.setField(created, "bucketCount", 4);
+        ReflectionTestUtils.setField(created, "decay", 0.8);
+        ReflectionTestUtils.setField(created, "topK", topK);
+        ReflectionTestUtils.setField(created, "sketchWidth", 1024);
+        ReflectionTestUtils.setField(created, "sketchDepth", 4);
+        ReflectionTestUtils.setField(created, "likeWeight", 3L);
+        ReflectionTestUtils.setField(created, "commentWeight", 5L);
+        ReflectionTestUtils.setField(created, "viewWeight", 1L);
+        created.init();
+        return created;
+    }
+}
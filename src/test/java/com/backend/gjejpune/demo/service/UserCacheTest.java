@@ -0,0 +1,141 @@
+package com.backend.gjejpune.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.gjejpune.demo.model.User;
+import com.backend.gjejpune.demo.repository.UserRepository;
+
+/**
+ * Checks hits, approximate LRU eviction and invalidation of the user cache against an
+ * in-memory user table
+ */
+class UserCacheTest {
+
+    private static final int MAX_SIZE = 20;
+
+    // The user rows, by ID
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private UserCache cache;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository repository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(), new Class<?>[] { UserRepository.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById":
+                            loads.incrementAndGet();
+                            return Optional.ofNullable(users.get((Long) args[0]));
+                        case "findByUsername":
+                            loads.incrementAndGet();
+                            return users.values().stream().filter(user -> user.getUsername().equals(args[0])).findFirst();
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        cache = new UserCache();
+        ReflectionTestUtils.setField(cache, "userRepository", repository);
+        ReflectionTestUtils.setField(cache, "maxSize", MAX_SIZE);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        for (long id = 1; id <= 100; id++) {
+            saveUser(id, "user" + id);
+        }
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() {
+        cache.get(1L);
+        cache.get(1L);
+        cache.getByUsername("user1");
+
+        assertEquals(1, loads.get());
+        assertEquals("user1", cache.get(1L).orElseThrow().getUsername());
+    }
+
+    @Test
+    void evictionKeepsTheSizeBoundedAndRecentlyUsedEntries() throws Exception {
+        cache.get(1L);
+        for (long id = 2; id <= 100; id++) {
+            // Keeps user 1 the most recently used
+            Thread.sleep(0, 1000);
+            cache.get(1L);
+            cache.get(id);
+        }
+
+        assertTrue(cache.getStats().getSize() <= MAX_SIZE, "size " + cache.getStats().getSize());
+        int before = loads.get();
+        cache.get(1L);
+        cache.get(100L);
+        assertEquals(before, loads.get());
+    }
+
+    @Test
+    void invalidatedUserIsLoadedAgain() {
+        cache.get(1L);
+        saveUser(1L, "renamed");
+        cache.invalidate(1L);
+
+        assertEquals("renamed", cache.get(1L).orElseThrow().getUsername());
+        assertEquals("renamed", cache.getByUsername("renamed").orElseThrow().getUsername());
+        // The old username no longer leads to the user
+        assertTrue(cache.getByUsername("user1").isEmpty());
+    }
+
+    @Test
+    void concurrentReadersAndInvalidationsNeverKeepAStaleUser() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                readers.add(executor.submit(() -> {
+                    for (int i = 0; i < 5000; i++) {
+                        cache.get((long) (i % 30) + 1);
+                    }
+                }));
+            }
+            for (int round = 0; round < 200; round++) {
+                long id = round % 30 + 1;
+                saveUser(id, "user" + id + "-" + round);
+                cache.invalidate(id);
+            }
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (long id = 1; id <= 30; id++) {
+            assertEquals(users.get(id).getUsername(), cache.get(id).orElseThrow().getUsername());
+        }
+        assertTrue(cache.getStats().getSize() <= MAX_SIZE + threads, "size " + cache.getStats().getSize());
+    }
+
+    private void saveUser(long id, String username) {
+        User user = new User(username, username + "@example.com", "password");
+        user.setId(id);
+        users.put(id, user);
+    }
+}
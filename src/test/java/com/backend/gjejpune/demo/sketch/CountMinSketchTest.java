@@ -0,0 +1,103 @@
+package com.backend.gjejpune.demo.sketch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares sketch estimates with exact counts of the same skewed stream
+ */
+class CountMinSketchTest {
+
+    @Test
+    void estimatesAreNeverBelowTheTrueCountAndRarelyFarAbove() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(11);
+        long total = 0;
+        for (int i = 0; i < 100_000; i++) {
+            // A few hot ids and a long tail, like engagement on posts
+            long id = random.nextInt(10) == 0 ? random.nextInt(20) : 1000 + random.nextInt(50_000);
+            long amount = 1 + random.nextInt(5);
+            sketch.add(id, amount);
+            exact.merge(id, amount, Long::sum);
+            total += amount;
+        }
+
+        // With width w the expected excess is at most total / w per row; allow a factor of two
+        long bound = 2 * total / 1024;
+        int overBound = 0;
+        for (Map.Entry<Long, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), "id " + entry.getKey() + " underestimated");
+            if (estimate - entry.getValue() > bound) {
+                overBound++;
+            }
+        }
+        assertTrue(overBound < exact.size() / 100, overBound + " of " + exact.size() + " estimates above the bound");
+    }
+
+    @Test
+    void unseenIdsMostlyEstimateZeroInASparseSketch() {
+        CountMinSketch sketch = new CountMinSketch(2048, 4);
+        for (long id = 0; id < 50; id++) {
+            sketch.add(id, 100);
+        }
+
+        int zero = 0;
+        for (long id = 1_000_000; id < 1_001_000; id++) {
+            if (sketch.estimate(id) == 0) {
+                zero++;
+            }
+        }
+        assertTrue(zero > 990, zero + " of 1000 unseen ids estimated at zero");
+    }
+
+    @Test
+    void concurrentAddsAreAllCounted() throws Exception {
+        CountMinSketch sketch = new CountMinSketch(64, 3);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        sketch.add(42L, 1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(40_000L, sketch.estimate(42L));
+    }
+
+    @Test
+    void clearForgetsEverything() {
+        CountMinSketch sketch = new CountMinSketch(16, 2);
+        for (long id = 0; id < 100; id++) {
+            sketch.add(id, 3);
+        }
+
+        sketch.clear();
+
+        for (long id = 0; id < 100; id++) {
+            assertEquals(0L, sketch.estimate(id));
+        }
+    }
+}